@@ -0,0 +1,10 @@
+package com.amalitechtaskmanager.exception;
+
+public class TaskUpdateConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TaskUpdateConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,35 +1,76 @@
 package com.amalitechtaskmanager.handlers.notification;
 
+import com.amalitechtaskmanager.model.ReminderPolicy;
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.model.TimerPayload;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.utils.BoundedTtlCache;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.MetricsUtils;
 import com.amalitechtaskmanager.utils.NotificationResponse;
+import com.amalitechtaskmanager.utils.ReminderResult;
+import com.amalitechtaskmanager.utils.SnsUtils;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
+import com.amalitechtaskmanager.utils.UserDirectory;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
-import com.amalitechtaskmanager.utils.CognitoUtils;
-import com.amalitechtaskmanager.utils.DynamoDbUtils;
-import com.amalitechtaskmanager.utils.SnsUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
+import java.util.stream.Collectors;
+
+/**
+ * Sends the reminder emails for fired reminder timers. An event carries one timer, a batch of
+ * timers (the timer wheel sends the reminders of a drained bucket together) or a list of task
+ * ids, and every task gets a {@link ReminderResult}.
+ * <p>
+ * A batch costs one BatchGetItem per 100 tasks, reading only the attributes the email and the
+ * staleness check need, email lookups through the cached {@link UserDirectory}, and one SNS
+ * PublishBatch per 10 emails. A fire whose payload version is behind the task is stale when the
+ * task's current deadline and reminder policy no longer produce its fire time: the reminder
+ * was moved, and the moved timer sends the email instead.
+ * <p>
+ * The function is invoked asynchronously, so a failed reminder is only retried if the
+ * invocation fails: when a read, lookup or publish failed the handler throws once the batch is
+ * done, and Lambda delivers the event again and finally to the dead-letter queue. Timers sent
+ * by an earlier delivery are remembered per container and not sent twice.
+ */
 public class ReminderProcessorLambda implements RequestHandler<ScheduledEvent, NotificationResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(ReminderProcessorLambda.class);
     private static final String USER_POOL_ID = System.getenv("USER_POOL_ID");
     private static final String TABLE_NAME = System.getenv("TABLE_NAME");
     private static final String SNS_TOPIC_ARN = System.getenv("SNS_TOPIC_ARN");
-    private static final String ACTIVE_STATUS = "OPEN";
-
-    private final DynamoDbClient dynamoDbClient;
-    private final CognitoIdentityProviderClient cognitoClient;
+    private static final FieldSelection REMINDER_FIELDS = FieldSelection.of(List.of(
+            TaskItemCodec.NAME, TaskItemCodec.STATUS, TaskItemCodec.DEADLINE, TaskItemCodec.USER_ID,
+            TaskItemCodec.VERSION, TaskItemCodec.PRIORITY, TaskItemCodec.REMINDER_POLICY, TaskItemCodec.TIME_ZONE));
+    // Schedules fire on whole seconds
+    private static final long FIRE_TIME_TOLERANCE_MILLIS = 1000;
+    private static final String SUBJECT = "Task Deadline Reminder";
+    // Outlives the async retries of an event, which Lambda makes within minutes
+    private static final BoundedTtlCache<String, Boolean> recentlySent = new BoundedTtlCache<>(10_000, 60 * 60 * 1000L);
+
+    private final TaskRepository taskRepository;
+    private final UserDirectory userDirectory;
 
     public ReminderProcessorLambda() {
-        this.dynamoDbClient = DynamoDbClient.create();
-        this.cognitoClient = CognitoIdentityProviderClient.create();
+        this.taskRepository = new TaskRepository(DynamoDbClient.create(), TABLE_NAME);
+        this.userDirectory = new UserDirectory(CognitoIdentityProviderClient.create(), USER_POOL_ID);
     }
 
     @Override
@@ -39,49 +80,105 @@ public class ReminderProcessorLambda implements RequestHandler<ScheduledEvent, N
             return new NotificationResponse(false, "Missing required environment variables.");
         }
 
-        Optional<String> taskIdOpt = getTaskIdFromEvent(event);
-
-        if (taskIdOpt.isEmpty()) {
+        List<TimerPayload> payloads = TimerPayload.listFromDetail(event.getDetail(), TimerKind.REMINDER);
+        if (payloads.isEmpty()) {
             logger.error("Missing taskId in event payload.");
             return new NotificationResponse(false, "Missing taskId in event payload.");
         }
 
-        String taskId = taskIdOpt.get();
+        List<ReminderResult> results = process(payloads);
+        Map<ReminderResult.Outcome, Long> outcomes = results.stream()
+                .collect(Collectors.groupingBy(ReminderResult::outcome, () -> new EnumMap<>(ReminderResult.Outcome.class),
+                        Collectors.counting()));
+        logger.info("Processed {} reminders: {}", results.size(), outcomes);
+        MetricsUtils.count("RemindersSent", outcomes.getOrDefault(ReminderResult.Outcome.SENT, 0L), "Job", "reminders");
 
-        Optional<Map<String, AttributeValue>> taskOpt = DynamoDbUtils.getTask(dynamoDbClient, TABLE_NAME, taskId);
-
-        if (taskOpt.isEmpty()) {
-            logger.error("Task not found for taskId: {}", taskId);
-            return new NotificationResponse(false, "Task not found for taskId: " + taskId);
+        long failed = outcomes.getOrDefault(ReminderResult.Outcome.FAILED, 0L);
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + results.size() + " reminders failed, retrying the event");
         }
+        return new NotificationResponse(true, "Processed " + results.size() + " reminders: " + outcomes, results);
+    }
 
-        Map<String, AttributeValue> taskItem = taskOpt.get();
-        String status = Optional.ofNullable(taskItem.get("status"))
-                .map(AttributeValue::s)
-                .orElse("unknown");
+    private List<ReminderResult> process(List<TimerPayload> payloads) {
+        // One email per task: of several due stages, the latest one speaks for the task
+        Map<String, TimerPayload> byTask = new LinkedHashMap<>();
+        for (TimerPayload payload : payloads) {
+            byTask.merge(payload.taskId(), payload,
+                    (first, second) -> second.fireAtMillis() > first.fireAtMillis() ? second : first);
+        }
 
-        if (!ACTIVE_STATUS.equalsIgnoreCase(status)) {
-            logger.warn("Task is not active for taskId: {}, status: {}", taskId, status);
-            return new NotificationResponse(false, "Task is not active for taskId: " + taskId);
+        Map<String, Task> tasks = new HashMap<>();
+        try {
+            for (Map<String, AttributeValue> item : taskRepository.findItemsByIds(new ArrayList<>(byTask.keySet()), REMINDER_FIELDS)) {
+                Task task = TaskItemCodec.fromItem(item);
+                tasks.put(task.getTaskId(), task);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to fetch {} tasks: {}", byTask.size(), e.getMessage());
+            return byTask.keySet().stream().map(taskId -> ReminderResult.failed(taskId, e.getMessage())).toList();
         }
 
-        Optional<String> userIdOpt = Optional.ofNullable(taskItem.get("userId")).map(AttributeValue::s);
-        Optional<String> titleOpt = Optional.ofNullable(taskItem.get("title")).map(AttributeValue::s);
-        Optional<String> deadlineOpt = Optional.ofNullable(taskItem.get("deadline")).map(AttributeValue::s);
+        Map<String, ReminderResult> results = new LinkedHashMap<>();
+        List<Task> due = new ArrayList<>();
+        for (TimerPayload payload : byTask.values()) {
+            String taskId = payload.taskId();
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                logger.error("Task not found for taskId: {}", taskId);
+                results.put(taskId, ReminderResult.of(taskId, ReminderResult.Outcome.NOT_FOUND));
+            } else if (task.getStatus() != TaskStatus.OPEN) {
+                logger.warn("Task is not active for taskId: {}, status: {}", taskId, task.getStatus());
+                results.put(taskId, ReminderResult.of(taskId, ReminderResult.Outcome.INACTIVE));
+            } else if (task.getUserId() == null || task.getDeadline() == null) {
+                logger.error("Missing userId or deadline for taskId: {}", taskId);
+                results.put(taskId, ReminderResult.invalid(taskId, "Missing userId or deadline"));
+            } else if (isStale(payload, task)) {
+                logger.info("Skipping stale reminder for taskId: {} scheduled at version {}, task is at version {}",
+                        taskId, payload.version(), task.getVersion());
+                results.put(taskId, ReminderResult.of(taskId, ReminderResult.Outcome.STALE));
+            } else if (sentKey(payload).map(recentlySent::get).isPresent()) {
+                logger.info("Reminder for taskId: {} was sent by an earlier delivery", taskId);
+                results.put(taskId, ReminderResult.of(taskId, ReminderResult.Outcome.ALREADY_SENT));
+            } else {
+                due.add(task);
+            }
+        }
 
-        if (userIdOpt.isEmpty() || deadlineOpt.isEmpty()) {
-            logger.error("Missing userId or deadline for taskId: {}", taskId);
-            return new NotificationResponse(false, "Missing userId or deadline for taskId: " + taskId);
+        UserDirectory.Emails emails = userDirectory.emailsOf(due.stream().map(Task::getUserId).toList());
+        List<SnsUtils.Email> messages = new ArrayList<>();
+        Map<String, String> taskIdsByEntry = new HashMap<>();
+        for (Task task : due) {
+            if (emails.failed().contains(task.getUserId())) {
+                results.put(task.getTaskId(), ReminderResult.failed(task.getTaskId(), "Email lookup failed"));
+                continue;
+            }
+            String email = emails.found().get(task.getUserId());
+            if (email == null) {
+                logger.error("No email found for userId: {}", task.getUserId());
+                results.put(task.getTaskId(), ReminderResult.of(task.getTaskId(), ReminderResult.Outcome.NO_RECIPIENT));
+                continue;
+            }
+            // Batch entry ids must be unique within a request, so entries are numbered
+            String entryId = "r" + messages.size();
+            taskIdsByEntry.put(entryId, task.getTaskId());
+            messages.add(new SnsUtils.Email(entryId, email, SUBJECT, message(task)));
+            results.put(task.getTaskId(), ReminderResult.of(task.getTaskId(), ReminderResult.Outcome.SENT));
         }
 
-        String userId = userIdOpt.get();
+        Map<String, String> failed = SnsUtils.publishEmailBatch(SNS_TOPIC_ARN, messages);
+        failed.forEach((entryId, error) -> {
+            String taskId = taskIdsByEntry.get(entryId);
+            results.put(taskId, ReminderResult.failed(taskId, error));
+        });
+        results.values().stream()
+                .filter(result -> result.outcome() == ReminderResult.Outcome.SENT)
+                .forEach(result -> sentKey(byTask.get(result.taskId())).ifPresent(key -> recentlySent.put(key, Boolean.TRUE)));
+        return new ArrayList<>(results.values());
+    }
 
-        Optional<String> emailOpt = CognitoUtils.getUserEmail(cognitoClient, USER_POOL_ID, userId);
-        if (emailOpt.isEmpty()) {
-            logger.error("No email found for userId: {}", userId);
-            return new NotificationResponse(false, "No email found for assigneeId: " + userId);
-        }
-        String message = String.format(
+    private static String message(Task task) {
+        return String.format(
                 "Heading: Task Deadline Reminder\n" +
                         "Hello Team Member, Your task is due soon. This is a gentle reminder to prompt you on"+
                         "Your Task that is soon due, please ensure all deliverables are completed on time.\n\n"+
@@ -93,28 +190,39 @@ public class ReminderProcessorLambda implements RequestHandler<ScheduledEvent, N
                         "In case of any questions or concerns, please contact your supervisor.\n\n" +
                         "Best regards,\n" +
                         "Task Management System",
-                taskId,
-                taskOpt.get().get("name").s(),
-                taskOpt.get().get("userId").s(),
-                taskOpt.get().get("deadline").s(),
-                "High"
+                task.getTaskId(),
+                task.getName(),
+                task.getUserId(),
+                TaskTimeZones.describeDeadline(task),
+                Optional.ofNullable(task.getPriority()).orElse("Normal")
         );
-
-
-        String subject = "Task Deadline Reminder";
-        SnsUtils.sendEmailNotification(SNS_TOPIC_ARN, emailOpt.get(), subject, message);
-        return new NotificationResponse(true, "Notification sent successfully.");
+    }
+    /**
+     * Reminders requested by task id have no fire time and are sent every time.
+     */
+    private static Optional<String> sentKey(TimerPayload payload) {
+        return payload.fireAtMillis() > 0 ? Optional.of(payload.taskId() + "@" + payload.fireAtMillis()) : Optional.empty();
     }
 
-    private Optional<String> getTaskIdFromEvent(ScheduledEvent event) {
-        try {
-            Map<String, Object> eventDetail = (Map<String, Object>) event.getDetail();
-            return Optional.ofNullable(eventDetail)
-                    .map(detail -> detail.get("taskId"))
-                    .map(Object::toString);
-        } catch (Exception e) {
-            logger.error("Error extracting taskId from event: {}", e.getMessage());
-            return Optional.empty();
+    /**
+     * A fire scheduled for an older version is stale once the deadline it was scheduled against
+     * has moved. Fires without a version or fire time predate the compact payload and are never
+     * stale; fires without an offset are matched against the task's reminder policy.
+     */
+    private static boolean isStale(TimerPayload payload, Task task) {
+        if (payload.version() == null || task.getVersion() == null || payload.fireAtMillis() <= 0
+                || task.getVersion() <= payload.version()) {
+            return false;
+        }
+        long deadlineMillis = TaskItemCodec.toEpochMillis(task.getDeadline());
+        if (payload.offsetMillis() != null) {
+            return Math.abs(deadlineMillis - payload.offsetMillis() - payload.fireAtMillis()) > FIRE_TIME_TOLERANCE_MILLIS;
+        }
+        for (Duration offset : ReminderPolicy.forTask(task).offsets()) {
+            if (Math.abs(deadlineMillis - offset.toMillis() - payload.fireAtMillis()) <= FIRE_TIME_TOLERANCE_MILLIS) {
+                return false;
+            }
         }
+        return true;
     }
 }
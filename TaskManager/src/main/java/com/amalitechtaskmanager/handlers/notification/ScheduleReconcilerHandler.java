@@ -0,0 +1,68 @@
+package com.amalitechtaskmanager.handlers.notification;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.utils.EnvUtils;
+import com.amalitechtaskmanager.utils.MetricsUtils;
+import com.amalitechtaskmanager.utils.ScheduleReconcileReport;
+import com.amalitechtaskmanager.utils.ScheduleReconciler;
+import com.amalitechtaskmanager.utils.SchedulerUtils;
+import com.amalitechtaskmanager.utils.TaskTimers;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.scheduler.SchedulerClient;
+
+/**
+ * Runs the {@link ScheduleReconciler} on a schedule, repairing the task schedules the stream
+ * handlers failed to keep in line with the tasks. Invoke it with
+ * {@code {"detail": {"dryRun": true}}} to only report the differences.
+ * <p>
+ * Tasks are checked RECONCILE_CONCURRENCY at a time (default 4) with at most
+ * RECONCILE_REQUESTS_PER_SECOND Scheduler calls (default 20). The run stops checking new tasks
+ * shortly before the Lambda times out and reports itself incomplete; the next run starts over.
+ */
+public class ScheduleReconcilerHandler implements RequestHandler<ScheduledEvent, ScheduleReconcileReport> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleReconcilerHandler.class);
+    private static final String JOB = "schedule-reconciler";
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final ScheduleReconciler reconciler;
+
+    public ScheduleReconcilerHandler() {
+        String timersTable = System.getenv("TIMERS_TABLE");
+        String expirationTargetArn = System.getenv("TASK_EXPIRATION_LAMBDA_ARN");
+        this.reconciler = new ScheduleReconciler(
+                new SchedulerUtils(SchedulerClient.create()),
+                new TaskRepository(DynamoDbFactory.getClient(), System.getenv("TABLE_NAME")),
+                TaskTimers.fromEnv(),
+                timersTable == null || timersTable.isEmpty(),
+                expirationTargetArn != null && !expirationTargetArn.isEmpty(),
+                EnvUtils.intFromEnv("RECONCILE_CONCURRENCY", 4),
+                EnvUtils.intFromEnv("RECONCILE_REQUESTS_PER_SECOND", 20));
+    }
+
+    @Override
+    public ScheduleReconcileReport handleRequest(ScheduledEvent event, Context context) {
+        boolean dryRun = event != null && event.getDetail() != null
+                && Boolean.TRUE.equals(event.getDetail().get("dryRun"));
+
+        ScheduleReconcileReport report = reconciler.reconcile(dryRun,
+                () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        logger.info("Schedule reconciliation{}: {} schedules, {} tasks, {} missing, {} orphaned, {} at the wrong time, "
+                        + "{} repaired, {} failed{}", dryRun ? " (dry run)" : "", report.schedules(), report.tasks(),
+                report.missing(), report.orphaned(), report.wrongTime(), report.repaired(), report.failed(),
+                report.complete() ? "" : ", stopped before timeout");
+        report.diff().forEach(line -> logger.info("  {}", line));
+        MetricsUtils.count("SchedulesMissing", report.missing(), "Job", JOB);
+        MetricsUtils.count("SchedulesOrphaned", report.orphaned(), "Job", JOB);
+        MetricsUtils.count("SchedulesAtWrongTime", report.wrongTime(), "Job", JOB);
+        MetricsUtils.count("SchedulesRepaired", report.repaired(), "Job", JOB);
+        MetricsUtils.count("ScheduleRepairsFailed", report.failed(), "Job", JOB);
+        return report;
+    }
+}
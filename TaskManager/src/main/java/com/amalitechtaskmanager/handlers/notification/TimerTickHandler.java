@@ -0,0 +1,143 @@
+package com.amalitechtaskmanager.handlers.notification;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.model.TimerPayload;
+import com.amalitechtaskmanager.repository.MaintenanceStateRepository;
+import com.amalitechtaskmanager.repository.TimerWheel;
+import com.amalitechtaskmanager.repository.TimerWheel.DueTimer;
+import com.amalitechtaskmanager.utils.MetricsUtils;
+import com.amalitechtaskmanager.utils.SchedulerUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs every minute and drains the {@link TimerWheel} buckets of the minutes that have fully
+ * elapsed since the last run. Each due timer is published to the default event bus as a
+ * {@code TaskReminder} or {@code TaskExpiration} event from {@code task-manager} with a
+ * {@link com.amalitechtaskmanager.model.TimerPayload} detail, the same shape the EventBridge
+ * schedules deliver, and rules route it to the reminder and expiration Lambdas.
+ * <p>
+ * The next minute to drain is kept in the maintenance state table, so a run that times out
+ * or fails is picked up by the next one. A run catches up at most MAX_MINUTES_PER_RUN minutes.
+ */
+public class TimerTickHandler implements RequestHandler<ScheduledEvent, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerTickHandler.class);
+    private static final String STATE_ID = "timer-wheel";
+    private static final String NEXT_MINUTE = "nextMinute";
+    private static final int MAX_MINUTES_PER_RUN = 60;
+    private static final int MAX_EVENTS_PER_PUT = 10;
+    private static final int TIMERS_PER_EVENT = 100;
+    private static final long SAFETY_MARGIN_MILLIS = 10_000;
+
+    private final TimerWheel timerWheel;
+    private final MaintenanceStateRepository stateRepository;
+    private final EventBridgeClient eventBridgeClient;
+
+    public TimerTickHandler() {
+        this.timerWheel = new TimerWheel(DynamoDbFactory.getClient(), System.getenv("TIMERS_TABLE"));
+        this.stateRepository = new MaintenanceStateRepository(DynamoDbFactory.getClient(), System.getenv("MAINTENANCE_STATE_TABLE"));
+        this.eventBridgeClient = EventBridgeClient.create();
+    }
+
+    @Override
+    public Void handleRequest(ScheduledEvent event, Context context) {
+        long currentMinute = TimerWheel.epochMinute(System.currentTimeMillis());
+        Map<String, AttributeValue> state = stateRepository.load(STATE_ID);
+        // The first run starts with the minute that just elapsed
+        long nextMinute = state.containsKey(NEXT_MINUTE) ? Long.parseLong(state.get(NEXT_MINUTE).n()) : currentMinute - 1;
+
+        int fired = 0;
+        int minutes = 0;
+        try {
+            while (nextMinute < currentMinute && minutes < MAX_MINUTES_PER_RUN
+                    && context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS) {
+                fired += timerWheel.drain(nextMinute, this::publish);
+                nextMinute++;
+                minutes++;
+                stateRepository.save(STATE_ID, Map.of(NEXT_MINUTE, AttributeValue.fromN(Long.toString(nextMinute))));
+            }
+        } catch (IllegalStateException e) {
+            logger.error("Stopped draining timers at minute {}: {}", nextMinute, e.getMessage());
+        }
+
+        if (nextMinute < currentMinute) {
+            logger.warn("Timer wheel is {} minutes behind", currentMinute - nextMinute);
+        }
+        MetricsUtils.count("TimersFired", fired, "Job", STATE_ID);
+        logger.info("Drained {} minutes, fired {} timers", minutes, fired);
+        return null;
+    }
+
+    /**
+     * Reminders are sent TIMERS_PER_EVENT to an event, so a busy minute invokes the reminder
+     * Lambda a few times instead of once per task; expirations go one per event.
+     *
+     * @return the timers whose events EventBridge did not accept
+     */
+    private List<DueTimer> publish(List<DueTimer> timers) {
+        List<List<DueTimer>> groups = new ArrayList<>();
+        List<DueTimer> reminders = new ArrayList<>();
+        for (DueTimer timer : timers) {
+            if (timer.kind() == TimerKind.REMINDER) {
+                reminders.add(timer);
+            } else {
+                groups.add(List.of(timer));
+            }
+        }
+        for (int start = 0; start < reminders.size(); start += TIMERS_PER_EVENT) {
+            groups.add(reminders.subList(start, Math.min(reminders.size(), start + TIMERS_PER_EVENT)));
+        }
+
+        List<DueTimer> failed = new ArrayList<>();
+        for (int start = 0; start < groups.size(); start += MAX_EVENTS_PER_PUT) {
+            List<List<DueTimer>> chunk = groups.subList(start, Math.min(groups.size(), start + MAX_EVENTS_PER_PUT));
+            List<PutEventsRequestEntry> entries = new ArrayList<>();
+            for (List<DueTimer> group : chunk) {
+                entries.add(PutEventsRequestEntry.builder()
+                        .source(SchedulerUtils.EVENT_SOURCE)
+                        .detailType(group.get(0).kind().getDetailType())
+                        .detail(detail(group))
+                        .build());
+            }
+
+            PutEventsResponse response = eventBridgeClient.putEvents(PutEventsRequest.builder().entries(entries).build());
+            if (response.failedEntryCount() != null && response.failedEntryCount() > 0) {
+                for (int index = 0; index < chunk.size(); index++) {
+                    if (response.entries().get(index).errorCode() != null) {
+                        logger.warn("Failed to fire {} {} timers: {}", chunk.get(index).size(), chunk.get(index).get(0).kind(),
+                                response.entries().get(index).errorMessage());
+                        failed.addAll(chunk.get(index));
+                    }
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static String detail(List<DueTimer> group) {
+        try {
+            Object detail = group.size() == 1 && group.get(0).kind() != TimerKind.REMINDER
+                    ? group.get(0).payload().toDetail()
+                    : Map.of(TimerPayload.TIMERS, group.stream().map(timer -> timer.payload().toDetail()).toList());
+            return ObjectMapperFactory.getMapper().writeValueAsString(detail);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialise timer detail", e);
+        }
+    }
+}
@@ -1,144 +1,182 @@
 package com.amalitechtaskmanager.handlers.notification;
 
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.model.ReminderPolicy;
 import com.amalitechtaskmanager.model.Task;
-import com.amalitechtaskmanager.utils.DynamoDbUtils;
-import com.amalitechtaskmanager.utils.NotificationResponse;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskSearchIndex;
 import com.amalitechtaskmanager.utils.SchedulerUtils;
+import com.amalitechtaskmanager.utils.StreamBatchProcessor;
+import com.amalitechtaskmanager.utils.TaskTimers;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent.DynamodbStreamRecord;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.services.scheduler.SchedulerClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
-public class UpdateTaskScheduleLambda implements RequestHandler<DynamodbEvent, NotificationResponse> {
+public class UpdateTaskScheduleLambda implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(UpdateTaskScheduleLambda.class);
-    private static final String TARGET_LAMBDA_ARN = System.getenv("TARGET_LAMBDA_ARN");
-    private static final String SCHEDULER_ROLE_ARN = System.getenv("SCHEDULER_ROLE_ARN");
-    private static final long REMINDER_OFFSET_MINUTES = 2;
-    private static final String ACTIVE_STATUS = "OPEN";
 
-    private final SchedulerUtils schedulerUtils;
+    private static final Duration MIN_EXPIRATION_DELAY = Duration.ofMinutes(1);
+
+    private final TaskTimers taskTimers;
+    private final TaskSearchIndex searchIndex;
 
     public UpdateTaskScheduleLambda() {
-        SchedulerClient schedulerClient = SchedulerClient.create();
-        this.schedulerUtils = new SchedulerUtils(schedulerClient);
+        this.taskTimers = TaskTimers.fromEnv();
+        String searchIndexTable = System.getenv("SEARCH_INDEX_TABLE");
+        this.searchIndex = searchIndexTable == null || searchIndexTable.isEmpty()
+                ? null
+                : new TaskSearchIndex(DynamoDbFactory.getClient(), searchIndexTable);
     }
 
+    /**
+     * Also keeps the search index in step with the table. DynamoDB Streams serves at most two
+     * readers per shard without throttling, so the index is fed from here rather than by a
+     * third consumer.
+     */
     @Override
-    public NotificationResponse handleRequest(DynamodbEvent event, Context context) {
-        if (TARGET_LAMBDA_ARN == null || SCHEDULER_ROLE_ARN == null) {
-            logger.error("Environment variables TARGET_LAMBDA_ARN or SCHEDULER_ROLE_ARN are not set");
-            return new NotificationResponse(false, "Environment variables TARGET_LAMBDA_ARN or SCHEDULER_ROLE_ARN are not set");
-        }
-
-        List<String> errors = new ArrayList<>();
-        int updatedCount = 0;
-
-        for (DynamodbStreamRecord record : event.getRecords()) {
-            if (!"MODIFY".equals(record.getEventName())) {
-                logger.warn("Skipping non-MODIFY event");
-                continue;
-            }
-
-            try {
-                Map<String, AttributeValue> newImage = record.getDynamodb().getNewImage();
-                Map<String, AttributeValue> oldImage = record.getDynamodb().getOldImage();
-
-                Optional<Task> optionalTask = DynamoDbUtils.parseTask(newImage);
-                if (optionalTask.isEmpty()) {
-                    errors.add("Failed to parse task object from newImage");
-                    logger.warn("Failed to parse task object from newImage");
-                    continue;
-                }
-
-                Task task = optionalTask.get();
-                String taskId = task.getTaskId();
-                if (taskId == null) {
-                    errors.add("Missing taskId in task");
-                    logger.warn("Missing taskId in task");
-                    continue;
-                }
-
-
-
-                // Check task status
-                String status = Optional.ofNullable(newImage.get("status"))
-                        .map(AttributeValue::getS)
-                        .orElse("unknown");
-
-
-
-                Optional<String> newDeadlineStr = SchedulerUtils.getAttributeValue(newImage.get("deadline"));
-                Optional<String> oldDeadlineStr = SchedulerUtils.getAttributeValue(oldImage.get("deadline"));
-                Optional<String> newAssignee = SchedulerUtils.getAttributeValue(newImage.get("userId"));
-                Optional<String> oldAssignee = SchedulerUtils.getAttributeValue(oldImage.get("userId"));
+    public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+        return StreamBatchProcessor.process(event.getRecords(), (taskId, records) -> {
+            index(records);
+            coalesce(taskId, records).ifPresent(this::reschedule);
+        });
+    }
 
-                if (newDeadlineStr.isEmpty()) {
-                    schedulerUtils.deleteSchedule(taskId);
-                    errors.add("Missing deadline for taskId: " + taskId);
-                    logger.warn("Missing deadline for taskId: " + taskId);
-                    continue;
-                }
+    /**
+     * Applies every record of the task to the search index in stream order. The index only
+     * writes the postings that differ, so replaying records after a failure is harmless.
+     */
+    private void index(List<DynamodbStreamRecord> records) {
+        if (searchIndex == null) {
+            return;
+        }
+        for (DynamodbStreamRecord record : records) {
+            searchIndex.apply(toTask(record.getDynamodb().getOldImage()), toTask(record.getDynamodb().getNewImage()));
+        }
+    }
 
-                boolean deadlineChanged = !newDeadlineStr.equals(oldDeadlineStr);
-                boolean assigneeChanged = !newAssignee.equals(oldAssignee);
+    private static Task toTask(Map<String, AttributeValue> image) {
+        return image == null || image.isEmpty() ? null : TaskItemCodec.fromStreamImage(image);
+    }
 
-                if (!deadlineChanged && !assigneeChanged) {
-                    logger.warn("Neither deadline nor assignee changed for taskId: " + taskId);
-                    continue;
-                }
+    /**
+     * Reschedules the reminders when the deadline, assignee or reminder policy changed, and the
+     * expiration when the deadline changed or the task returned to OPEN; cancels every timer
+     * when the task leaves OPEN. Changes that cannot produce a reminder
+     * are logged and skipped; only a failure to write or cancel timers is thrown, so that the
+     * task's records are retried.
+     */
+    private void reschedule(TaskChange change) {
+        Map<String, AttributeValue> newImage = change.newImage();
+        Map<String, AttributeValue> oldImage = change.oldImage();
+
+        Optional<Task> optionalTask;
+        try {
+            optionalTask = Optional.ofNullable(newImage).filter(image -> !image.isEmpty()).map(TaskItemCodec::fromStreamImage);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to parse task object from newImage for taskId {}: {}", change.taskId(), e.getMessage());
+            return;
+        }
+        if (optionalTask.isEmpty()) {
+            logger.warn("Failed to parse task object from newImage");
+            return;
+        }
 
-                Optional<OffsetDateTime> parsedDeadline = SchedulerUtils.parseDeadline(newDeadlineStr.get());
-                if (parsedDeadline.isEmpty()) {
-                    errors.add("Invalid deadline for taskId: " + taskId);
-                    logger.warn("Invalid deadline for taskId: " + taskId);
-                    continue;
-                }
+        Task task = optionalTask.get();
+        String taskId = task.getTaskId();
+        if (taskId == null) {
+            logger.warn("Missing taskId in task");
+            return;
+        }
 
+        Optional<Task> oldTask = Optional.ofNullable(oldImage).filter(image -> !image.isEmpty()).map(TaskItemCodec::fromStreamImage);
 
-                OffsetDateTime reminderTime = parsedDeadline.get().minusMinutes(REMINDER_OFFSET_MINUTES);
-                OffsetDateTime now = OffsetDateTime.now();
+        // A completed or closed task keeps no timers; one write cancels all of them
+        boolean active = task.getStatus() == TaskStatus.OPEN;
+        boolean wasActive = oldTask.map(Task::getStatus).map(TaskStatus.OPEN::equals).orElse(true);
+        if (!active) {
+            if (wasActive) {
+                logger.info("Cancelling timers of taskId: {}, status: {}", taskId, task.getStatus());
+                taskTimers.cancelAll(taskId);
+            }
+            return;
+        }
 
-                if (reminderTime.isBefore(now)) {
-                    logger.warn("Reminder time {} is in the past for taskId: {}", reminderTime, taskId);
-                    schedulerUtils.deleteSchedule(taskId);
-                    errors.add("Reminder time is in the past for taskId: " + taskId);
-                    continue;
-                }
+        // Compare decoded deadlines so the timestamp migration adding deadlineEpoch is not a change
+        Optional<LocalDateTime> newDeadline = Optional.ofNullable(task.getDeadline());
+        Optional<LocalDateTime> oldDeadline = oldTask.map(Task::getDeadline);
+        Optional<String> newAssignee = SchedulerUtils.getAttributeValue(newImage.get("userId"));
+        Optional<String> oldAssignee = Optional.ofNullable(oldImage)
+                .flatMap(image -> SchedulerUtils.getAttributeValue(image.get("userId")));
+        ReminderPolicy policy = ReminderPolicy.forTask(task);
+
+        if (newDeadline.isEmpty()) {
+            taskTimers.cancel(taskId, TimerKind.REMINDER);
+            taskTimers.cancel(taskId, TimerKind.EXPIRATION);
+            logger.warn("Missing deadline for taskId: " + taskId);
+            return;
+        }
 
-                if (!ACTIVE_STATUS.equals(status)) {
-                    schedulerUtils.deleteSchedule(taskId);
-                    logger.warn("Task is not active for taskId: {}, status: {}", taskId, status);
-                    continue;
-                }
+        boolean deadlineChanged = !newDeadline.equals(oldDeadline);
+        if (deadlineChanged || !wasActive) {
+            // A reopened task whose deadline already passed expires shortly instead of waiting for the sweep
+            OffsetDateTime expiresAt = newDeadline.get().atOffset(ZoneOffset.UTC);
+            OffsetDateTime earliest = OffsetDateTime.now(ZoneOffset.UTC).plus(MIN_EXPIRATION_DELAY);
+            logger.info("Rescheduling expiration for taskId: {} at {}", taskId, expiresAt);
+            taskTimers.schedule(task, TimerKind.EXPIRATION, expiresAt.isAfter(earliest) ? expiresAt : earliest);
+        }
+        boolean assigneeChanged = !newAssignee.equals(oldAssignee);
+        boolean policyChanged = !oldTask.map(ReminderPolicy::forTask).map(policy::equals).orElse(false);
 
-                schedulerUtils.deleteSchedule(taskId);
+        if (!deadlineChanged && !assigneeChanged && !policyChanged && wasActive) {
+            logger.warn("Neither deadline, assignee nor reminder policy changed for taskId: " + taskId);
+            return;
+        }
 
-                logger.info("Creating new schedule for taskId: {} at {}", taskId, reminderTime);
-                schedulerUtils.createSchedule(taskId, reminderTime, newImage, TARGET_LAMBDA_ARN, SCHEDULER_ROLE_ARN);
+        List<OffsetDateTime> reminderTimes = policy.fireTimes(newDeadline.get().atOffset(ZoneOffset.UTC), OffsetDateTime.now());
+        if (reminderTimes.isEmpty()) {
+            logger.warn("Every reminder of policy {} is in the past for taskId: {}", policy, taskId);
+            taskTimers.cancel(taskId, TimerKind.REMINDER);
+            return;
+        }
 
-                updatedCount++;
+        logger.info("Rescheduling {} reminders for taskId: {} with policy {}", reminderTimes.size(), taskId, policy);
+        taskTimers.schedule(task, TimerKind.REMINDER, reminderTimes);
+    }
 
-            } catch (Exception e) {
-                String taskId = record.getDynamodb().getKeys().containsKey("taskId")
-                        ? record.getDynamodb().getKeys().get("taskId").getS()
-                        : "unknown";
-                logger.error("Exception while processing MODIFY event for taskId: {}: {}", taskId, e.getMessage(), e);
-                errors.add("Exception for taskId: " + taskId + " - " + e.getMessage());
+    /**
+     * The net change of one task: several modifications in a batch become a single change from
+     * the first old image to the last new image, so the schedule is written once.
+     */
+    private static Optional<TaskChange> coalesce(String taskId, List<DynamodbStreamRecord> records) {
+        TaskChange change = null;
+        for (DynamodbStreamRecord record : records) {
+            if (!"MODIFY".equals(record.getEventName())) {
+                logger.warn("Skipping non-MODIFY event");
+                continue;
             }
+            change = new TaskChange(taskId,
+                    change != null ? change.oldImage() : record.getDynamodb().getOldImage(),
+                    record.getDynamodb().getNewImage());
         }
+        return Optional.ofNullable(change);
+    }
 
-        if (!errors.isEmpty()) {
-            return new NotificationResponse(false, "Updated " + updatedCount + " records with " + errors.size() + " issues: " + String.join("; ", errors));
-        }
-
-        return new NotificationResponse(true, "Successfully updated " + updatedCount + " records.");
+    private record TaskChange(String taskId, Map<String, AttributeValue> oldImage, Map<String, AttributeValue> newImage) {
     }
 }
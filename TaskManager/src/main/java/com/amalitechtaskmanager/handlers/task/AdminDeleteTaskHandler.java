@@ -2,6 +2,7 @@ package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.utils.AuthorizerUtil;
+import com.amalitechtaskmanager.utils.TaskCache;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
@@ -46,6 +47,7 @@ public class AdminDeleteTaskHandler implements RequestHandler<APIGatewayProxyReq
              );
 
              DynamoDbFactory.getClient().deleteItem(DeleteItemRequest.builder().tableName(TABLE_NAME).key(key).build());
+             TaskCache.invalidate(taskId);
 
               return  createResponse(requestEvent, 200,"Item Deleted successfully");
          } catch (Exception e) {
@@ -1,9 +1,12 @@
 package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.factories.DynamoDbFactory;
-import com.amalitechtaskmanager.factories.ObjectMapperFactory;
 import com.amalitechtaskmanager.utils.AuthorizerUtil;
 import com.amalitechtaskmanager.utils.DynamoFilterUtil;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.PageCursor;
+import com.amalitechtaskmanager.utils.StreamingJsonWriter;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
@@ -11,14 +14,14 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
 import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
-import java.util.List;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import static com.amalitechtaskmanager.constants.StringConstants.TABLE_NAME;
 import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
-import static com.amalitechtaskmanager.utils.AttributeValueConverter.attributeValueToSimpleValue;
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.errorBody;
 
 public class AdminGetAllTasks  implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
@@ -39,23 +42,43 @@ public class AdminGetAllTasks  implements RequestHandler<APIGatewayProxyRequestE
 
         Map<String,String> queryParams= requestEvent.getQueryStringParameters();
 
-        ScanRequest scanRequest=  DynamoFilterUtil.buildScanRequestWithFilters(TABLE_NAME,queryParams);
-        ScanResponse response= DynamoDbFactory.getClient().scan(scanRequest);
+        Optional<FieldSelection> fields;
+        Optional<ZoneId> zone;
+        try {
+            fields = FieldSelection.fromQuery(queryParams);
+            zone = TaskTimeZones.fromRequest(requestEvent);
+        } catch (IllegalArgumentException e) {
+            return createResponse(requestEvent, 400, errorBody(e.getMessage()));
+        }
+
+        ScanRequest scanRequest=  DynamoFilterUtil.buildScanRequestWithFilters(TABLE_NAME,queryParams, zone.orElse(ZoneOffset.UTC));
+        boolean paged = GetAdminTasksHandler.isPaged(queryParams);
+        if (paged) {
+            try {
+                scanRequest = scanRequest.toBuilder()
+                        .limit(PageCursor.parseLimit(queryParams.get(PageCursor.LIMIT_PARAM)))
+                        .exclusiveStartKey(PageCursor.decode(queryParams.get(PageCursor.PARAM)))
+                        .build();
+            } catch (IllegalArgumentException e) {
+                return createResponse(requestEvent, 400, errorBody(e.getMessage()));
+            }
+        }
+        if (fields.isPresent()) {
+            scanRequest = fields.get().applyTo(scanRequest);
+        }
 
 
 try {
-    List<Map<String, Optional<Object>>> result = response.items().stream()
-            .map(item -> item.entrySet().stream()
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            e -> attributeValueToSimpleValue(e.getValue())
-                    )))
-            .toList();
+    // One scan page, which DynamoDB caps at 1 MB, keeps the body well within Lambda's response limit
+    ScanResponse page = DynamoDbFactory.getClient().scan(scanRequest);
+    String body = paged
+            ? StreamingJsonWriter.writePage(page.items(), PageCursor.encode(page.lastEvaluatedKey()), zone.orElse(null))
+            : StreamingJsonWriter.writeItems(page.items(), zone.orElse(null)).body();
 
-    return createResponse(requestEvent, 200, ObjectMapperFactory.getMapper().writeValueAsString(result));
+    return createResponse(requestEvent, 200, body);
 
 } catch (Exception e) {
-    return createResponse(requestEvent, 500, "{\"error\": \"" + e.getMessage() + "\"}");
+    return createResponse(requestEvent, 500, errorBody(e.getMessage()));
 }
 
 
@@ -1,19 +1,23 @@
 package com.amalitechtaskmanager.handlers.task;
 
+import com.amalitechtaskmanager.exception.TaskUpdateConflictException;
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskUpdateBuilder;
 import com.amalitechtaskmanager.utils.AuthorizerUtil;
-import com.amalitechtaskmanager.utils.TaskUtils;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
 import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.getCurrentUserEmail;
@@ -22,8 +26,8 @@ import static com.amalitechtaskmanager.utils.SnsUtils.sendEmailNotification;
 
 public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private static final String TABLE_NAME = System.getenv("TASKS_TABLE");
+    private static final TaskRepository taskRepository = new TaskRepository(DynamoDbFactory.getClient(), TABLE_NAME);
     private static final String TASK_CLOSED_TOPIC_ARN = System.getenv("TASK_CLOSED_TOPIC_ARN");
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy HH:mm");
     private static final ObjectMapper mapper = ObjectMapperFactory.getMapper();
 
     @Override
@@ -45,7 +49,7 @@ public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEv
                 return createResponse(event, 400, "Missing taskId");
             }
 
-            Task task = TaskUtils.getTaskById(taskId, TABLE_NAME);
+            Task task = taskRepository.findById(taskId).orElse(null);
             if (task == null) {
                 return createResponse(event, 404, "Task not found");
             }
@@ -54,8 +58,18 @@ public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEv
                 return createResponse(event, 403, "Forbidden - User is not authorized to complete this task");
             }
 
-            task.setStatus(TaskStatus.CLOSED);
-            TaskUtils.updateTask(task, TABLE_NAME);
+            String assignee = task.getUserId();
+            task = taskRepository.updateWithRetry(task, "CloseTask", current -> {
+                // A reassignment that lands first invalidates the authorization check above
+                if (!Objects.equals(assignee, current.getUserId())) {
+                    return null;
+                }
+                current.setStatus(TaskStatus.CLOSED);
+                return TaskUpdateBuilder.forTask(current).status(current.getStatus());
+            });
+            if (task == null) {
+                return createResponse(event, 409, "Task was reassigned or removed while closing it");
+            }
 
             // Send notification to task assignee
             String subject = String.format("Task Closed: %s", task.getName());
@@ -70,6 +84,9 @@ public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEv
 
             String body = mapper.writeValueAsString(responseBody);
             return createResponse(event, 200, body);
+        } catch (TaskUpdateConflictException e) {
+            context.getLogger().log("Conflict closing task: " + e.getMessage());
+            return createResponse(event, 409, "Task was modified by another request, please retry");
         } catch (Exception e) {
             context.getLogger().log("Error closing task: " + e.getMessage());
             return createResponse(event, 500, "Internal Server Error: " + e.getMessage());
@@ -102,8 +119,8 @@ public class CloseTaskHandler implements RequestHandler<APIGatewayProxyRequestEv
             task.getName(),
             task.getTaskId(),
             task.getDescription() != null ? task.getDescription() : "No description provided",
-            task.getCreatedAt() != null ? task.getCreatedAt().format(dateFormatter) : "Not specified",
-            task.getDeadline() != null ? task.getDeadline().format(dateFormatter) : "Not specified"
+            task.getCreatedAt() != null ? TaskTimeZones.render(task.getCreatedAt(), TaskTimeZones.zoneOf(task)) : "Not specified",
+            task.getDeadline() != null ? TaskTimeZones.describeDeadline(task) : "Not specified"
         );
     }
 }
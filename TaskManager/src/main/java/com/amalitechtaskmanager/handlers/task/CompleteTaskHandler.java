@@ -1,9 +1,12 @@
 package com.amalitechtaskmanager.handlers.task;
 
+import com.amalitechtaskmanager.exception.TaskUpdateConflictException;
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.model.TaskStatus;
-import com.amalitechtaskmanager.utils.TaskUtils;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskUpdateBuilder;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
@@ -11,6 +14,7 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +24,7 @@ import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.isUserInAdminGrou
 
 public class CompleteTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private static final String TABLE_NAME = System.getenv("TASKS_TABLE");
+    private static final TaskRepository taskRepository = new TaskRepository(DynamoDbFactory.getClient(), TABLE_NAME);
     private static final ObjectMapper mapper = ObjectMapperFactory.getMapper();
 
     @Override
@@ -32,7 +37,7 @@ public class CompleteTaskHandler implements RequestHandler<APIGatewayProxyReques
                 return createResponse(event, 400, "Missing taskId");
             }
 
-            Task task = TaskUtils.getTaskById(taskId, TABLE_NAME);
+            Task task = taskRepository.findById(taskId).orElse(null);
             if (task == null) {
                 return createResponse(event, 404, "Task not found");
             }
@@ -42,9 +47,21 @@ public class CompleteTaskHandler implements RequestHandler<APIGatewayProxyReques
                 return createResponse(event, 403, "Forbidden - User is not authorized to complete this task");
             }
 
-            task.setStatus(TaskStatus.COMPLETED);
-            task.setCompletedAt(LocalDateTime.now());
-            TaskUtils.updateTask(task, TABLE_NAME);
+            String assignee = task.getUserId();
+            task = taskRepository.updateWithRetry(task, "CompleteTask", current -> {
+                // A reassignment that lands first invalidates the authorization check above
+                if (!assignee.equals(current.getUserId())) {
+                    return null;
+                }
+                current.setStatus(TaskStatus.COMPLETED);
+                current.setCompletedAt(LocalDateTime.now(ZoneOffset.UTC));
+                return TaskUpdateBuilder.forTask(current)
+                        .status(current.getStatus())
+                        .completedAt(current.getCompletedAt());
+            });
+            if (task == null) {
+                return createResponse(event, 409, "Task was reassigned or removed while completing it");
+            }
 
             Map<String, Object> responseBody = new HashMap<>();
             responseBody.put("message", "Task completed successfully");
@@ -52,6 +69,8 @@ public class CompleteTaskHandler implements RequestHandler<APIGatewayProxyReques
 
             String body = mapper.writeValueAsString(responseBody);
             return createResponse(event, 200, body);
+        } catch (TaskUpdateConflictException e) {
+            return createResponse(event, 409, "Task was modified by another request, please retry");
         } catch (Exception e) {
             return createResponse(event, 500, "Internal Server Error: " + e.getMessage());
         }
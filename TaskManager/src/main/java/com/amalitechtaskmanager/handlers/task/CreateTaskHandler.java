@@ -1,14 +1,21 @@
 package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.amalitechtaskmanager.model.ReminderPolicy;
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.model.TaskStatus;
-import com.amalitechtaskmanager.utils.SchedulerUtils;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
+import com.amalitechtaskmanager.utils.TaskTimers;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
@@ -16,9 +23,6 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeTy
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersInGroupRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersInGroupResponse;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
-import software.amazon.awssdk.services.scheduler.SchedulerClient;
 import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.sns.model.ListSubscriptionsByTopicRequest;
 import software.amazon.awssdk.services.sns.model.ListSubscriptionsByTopicResponse;
@@ -28,7 +32,9 @@ import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,26 +43,25 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.errorBody;
 import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.isUserInAdminGroup;
 
 public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private final DynamoDbClient dynamoDbClient = DynamoDbClient.create();
     private final SqsClient sqsClient = SqsClient.create();
-    private final SchedulerClient schedulerClient = SchedulerClient.create();
     private final SnsClient snsClient = SnsClient.create();
     private final CognitoIdentityProviderClient cognitoClient = CognitoIdentityProviderClient.create();
-    private final SchedulerUtils schedulerUtils;
+    private final TaskTimers taskTimers;
     private final ObjectMapper objectMapper = ObjectMapperFactory.getMapper();
     private final String tasksTable = System.getenv("TASKS_TABLE");
+    private final TaskRepository taskRepository = new TaskRepository(dynamoDbClient, tasksTable);
     private final String taskAssignmentQueue = System.getenv("TASK_ASSIGNMENT_QUEUE");
-    private final String taskExpirationLambdaArn = System.getenv("TASK_EXPIRATION_LAMBDA_ARN");
-    private final String schedulerRoleArn = System.getenv("SCHEDULER_ROLE_ARN");
     private final String taskExpirationUserNotificationTopicArn = System.getenv("TASK_EXPIRATION_USER_NOTIFICATION_TOPIC_ARN");
     private final String taskExpirationAdminNotificationTopicArn = System.getenv("TASK_EXPIRATION_ADMIN_NOTIFICATION_TOPIC_ARN");
     private final String userPoolId = System.getenv("USER_POOL_ID");
 
     public CreateTaskHandler() {
-        this.schedulerUtils = new SchedulerUtils(schedulerClient);
+        this.taskTimers = TaskTimers.fromEnv();
     }
 
     @Override
@@ -76,18 +81,42 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
                 return createResponse(input, 403, "{\"error\": \"Forbidden-User not authorized for this operation\"}");
             }
 
-            Task task = objectMapper.readValue(input.getBody(), Task.class);
+            // The dates may carry an offset, so they are read apart from the rest of the task
+            ObjectNode body = (ObjectNode) objectMapper.readTree(input.getBody());
+            JsonNode deadline = body.remove("deadline");
+            JsonNode createdAt = body.remove("createdAt");
+            Task task = objectMapper.treeToValue(body, Task.class);
             if (task.getName() == null || task.getName().isEmpty() ||
-                    task.getDeadline() == null ||
+                    deadline == null || !deadline.isTextual() ||
                     task.getUserId() == null || task.getUserId().isEmpty()) {
                 return createResponse(input, 400, "{\"error\": \"Name, deadline, and userId are required\"}");
             }
 
+            // A date without an offset is the creator's wall time: the zone in the body, else the request's
+            try {
+                ZoneId zone = task.getTimeZone() != null && !task.getTimeZone().isEmpty()
+                        ? TaskTimeZones.parse(task.getTimeZone())
+                        : TaskTimeZones.fromRequest(input).orElse(ZoneOffset.UTC);
+                task.setTimeZone(zone.getId());
+                task.setDeadline(TaskTimeZones.toUtc(deadline.asText(), zone));
+                task.setCreatedAt(createdAt != null && createdAt.isTextual()
+                        ? TaskTimeZones.toUtc(createdAt.asText(), zone)
+                        : LocalDateTime.now(ZoneOffset.UTC));
+            } catch (IllegalArgumentException e) {
+                return createResponse(input, 400, errorBody(e.getMessage()));
+            }
 
+            // Stored in its compact form; without one the priority or global policy applies
+            if (task.getReminderPolicy() != null) {
+                try {
+                    task.setReminderPolicy(ReminderPolicy.parse(task.getReminderPolicy()).toString());
+                } catch (IllegalArgumentException e) {
+                    return createResponse(input, 400, errorBody(e.getMessage()));
+                }
+            }
 
-            if( task.getDeadline().isBefore(task.getCreatedAt())){
-                return  new APIGatewayProxyResponseEvent().withBody("{\"error\": \"task deadline cannot be before task creation date \"}")
-                        .withStatusCode(433) ;
+            if (TaskItemCodec.toEpochMillis(task.getDeadline()) < TaskItemCodec.toEpochMillis(task.getCreatedAt())) {
+                return createResponse(input, 400, "{\"error\": \"task deadline cannot be before task creation date\"}");
             }
 
             task.setTaskId(UUID.randomUUID().toString());
@@ -98,31 +127,15 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
 
 
             // Store task in DynamoDB
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-            String createdAt = task.getCreatedAt().format(formatter);
-
-
-
-            Map<String, AttributeValue> item = new HashMap<>();
-            item.put("taskId", AttributeValue.builder().s(task.getTaskId()).build());
-            item.put("name", AttributeValue.builder().s(task.getName()).build());
-            item.put("createdAt", AttributeValue.builder().s(createdAt).build());
-            item.put("description", AttributeValue.builder().s(task.getDescription()).build());
-            item.put("status", AttributeValue.builder().s(task.getStatus().toString()).build());
-            item.put("deadline", AttributeValue.builder().s(task.getDeadline().toString()).build());
-            item.put("userId", AttributeValue.builder().s(task.getUserId()).build());
-
-            dynamoDbClient.putItem(PutItemRequest.builder()
-                    .tableName(tasksTable)
-                    .item(item)
-                    .build());
+            taskRepository.create(task);
 
             // Send task assignment to SQS
             try {
                 sqsClient.sendMessage(SendMessageRequest.builder()
                         .queueUrl(taskAssignmentQueue)
                         .messageBody(objectMapper.writeValueAsString(task))
-                        .messageGroupId("task-assignments")
+                        // Ordering only matters within a task, so tasks do not wait on each other
+                        .messageGroupId(task.getTaskId())
                         .build());
                 context.getLogger().log("Message sent to the FIFO queue");
             } catch (Exception e) {
@@ -132,12 +145,15 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
 
             // Schedule task expiration at deadline
             boolean scheduledExpiration = false;
-            if (taskExpirationLambdaArn != null && !taskExpirationLambdaArn.isEmpty() &&
-                    schedulerRoleArn != null && !schedulerRoleArn.isEmpty()) {
-                scheduledExpiration = schedulerUtils.scheduleTaskExpiration(task, taskExpirationLambdaArn, schedulerRoleArn);
+            OffsetDateTime expirationTime = task.getDeadline().atOffset(ZoneOffset.UTC);
+            if (expirationTime.isAfter(OffsetDateTime.now())) {
+                try {
+                    taskTimers.schedule(task, TimerKind.EXPIRATION, expirationTime);
+                    scheduledExpiration = true;
+                } catch (Exception e) {
+                    context.getLogger().log("Task expiration not scheduled: " + e.getMessage());
+                }
                 context.getLogger().log("Scheduled expiration for task " + task.getTaskId() + ": " + scheduledExpiration);
-            } else {
-                context.getLogger().log("Task expiration scheduling not configured");
             }
 
             // Subscribe user and admin emails to SNS topics
@@ -152,9 +168,7 @@ public class CreateTaskHandler implements RequestHandler<APIGatewayProxyRequestE
         } catch (Exception e) {
             context.getLogger().log("Error: " + e.getMessage());
             context.getLogger().log("Queue URL: " + taskAssignmentQueue);
-            return new APIGatewayProxyResponseEvent()
-                    .withStatusCode(500)
-                    .withBody("{\"error\": \"" + e.getMessage() + "\"}");
+            return createResponse(input, 500, errorBody(e.getMessage()));
         }
     }
 
@@ -2,10 +2,13 @@ package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.utils.SnsUtils;
+import com.amalitechtaskmanager.utils.SqsBatchProcessor;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
-import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -20,12 +23,19 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUse
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersInGroupRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersInGroupResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
 
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class ExpirationQueueHandler implements RequestHandler<SQSEvent, Void> {
+/**
+ * Emails the assignee and the admins about the expired tasks queued by {@link TaskExpirationHandler}.
+ * Messages are processed concurrently by {@link SqsBatchProcessor}; the ones whose emails could
+ * not be sent are reported as batch item failures and retried, up to the queue's
+ * maxReceiveCount before they move to the dead-letter queue.
+ */
+public class ExpirationQueueHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpirationQueueHandler.class);
 
@@ -64,98 +74,123 @@ public class ExpirationQueueHandler implements RequestHandler<SQSEvent, Void> {
     }
 
     @Override
-    public Void handleRequest(SQSEvent event, Context context) {
-        for (SQSMessage message : event.getRecords()) {
-            try {
-                Task task = objectMapper.readValue(message.getBody(), Task.class);
-                processNotifications(task, context);
-            } catch (Exception e) {
-                logger.error("Error processing expiration message: {}", e.getMessage(), e);
-                context.getLogger().log("Error processing expiration message: " + e.getMessage());
-            }
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
+        // The admins are looked up once per batch rather than once per message
+        List<String> adminEmails;
+        try {
+            adminEmails = listAdminEmails(context);
+        } catch (Exception e) {
+            logger.error("Error fetching admin emails, retrying the batch: {}", e.getMessage(), e);
+            return new SQSBatchResponse(event.getRecords().stream()
+                    .map(message -> new SQSBatchResponse.BatchItemFailure(message.getMessageId()))
+                    .toList());
         }
 
-        return null;
+        return SqsBatchProcessor.process(event.getRecords(), message -> {
+            Task task;
+            try {
+                task = objectMapper.readValue(message.getBody(), Task.class);
+            } catch (JsonProcessingException e) {
+                logger.error("Skipping unparsable expiration message {}: {}", message.getMessageId(), e.getMessage());
+                return;
+            }
+            notifyExpiration(task, adminEmails, context);
+        });
     }
 
     public List<String> getAdminEmails(Context context) {
         try {
-            ListUsersInGroupRequest listUsersInGroupRequest = ListUsersInGroupRequest.builder()
-                    .userPoolId(userPoolId)
-                    .groupName("Admins")
-                    .build();
-
-            ListUsersInGroupResponse response = cognitoClient.listUsersInGroup(listUsersInGroupRequest);
-
-            List<String> emails = response.users().stream()
-                    .map(user -> user.attributes().stream()
-                            .filter(attr -> attr.name().equals("email"))
-                            .findFirst()
-                            .map(AttributeType::value)
-                            .orElse(null))
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-
-            logger.info("Found {} admin emails from Cognito", emails.size());
-            context.getLogger().log("UserPoolId : " + userPoolId);
-            return emails;
+            return listAdminEmails(context);
         } catch (Exception e) {
             logger.error("Error fetching admin emails: {}", e.getMessage(), e);
             return List.of();
         }
     }
 
+    private List<String> listAdminEmails(Context context) {
+        ListUsersInGroupRequest listUsersInGroupRequest = ListUsersInGroupRequest.builder()
+                .userPoolId(userPoolId)
+                .groupName("Admins")
+                .build();
+
+        ListUsersInGroupResponse response = cognitoClient.listUsersInGroup(listUsersInGroupRequest);
+
+        List<String> emails = response.users().stream()
+                .map(user -> user.attributes().stream()
+                        .filter(attr -> attr.name().equals("email"))
+                        .findFirst()
+                        .map(AttributeType::value)
+                        .orElse(null))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        logger.info("Found {} admin emails from Cognito", emails.size());
+        context.getLogger().log("UserPoolId : " + userPoolId);
+        return emails;
+    }
+
+    /**
+     * Notifies directly, outside the queue; failures are logged and not retried.
+     */
     public void processNotifications(Task task, Context context) {
         try {
-            if (taskExpirationUserNotificationTopicArn != null && taskExpirationAdminNotificationTopicArn != null) {
-                String userEmail = null;
-                if (task.getUserId() != null && !task.getUserId().isEmpty() && userPoolId != null && !userPoolId.isEmpty()) {
-                    try {
-                        AdminGetUserRequest userRequest = AdminGetUserRequest.builder()
-                                .userPoolId(userPoolId)
-                                .username(task.getUserId())
-                                .build();
-
-                        AdminGetUserResponse userResponse = cognitoClient.adminGetUser(userRequest);
-
-                        for (AttributeType attribute : userResponse.userAttributes()) {
-                            if ("email".equals(attribute.name())) {
-                                userEmail = attribute.value();
-                                break;
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error fetching user email: {}", e.getMessage(), e);
-                    }
-                }
+            notifyExpiration(task, getAdminEmails(context), context);
+        } catch (Exception e) {
+            logger.error("Error processing notifications for task {}: {}", task.getTaskId(), e.getMessage(), e);
+        }
+    }
 
-                List<String> adminEmails = getAdminEmails(context);
-                context.getLogger().log("Found the following " + adminEmails.size() + " admin emails from Cognito");
+    /**
+     * Emails the assignee and the admins. A failed lookup or publish throws so the message is
+     * retried; the emails already sent for it are then sent again.
+     */
+    private void notifyExpiration(Task task, List<String> adminEmails, Context context) {
+        if (taskExpirationUserNotificationTopicArn == null || taskExpirationAdminNotificationTopicArn == null) {
+            logger.warn("Notification topic not configured");
+            return;
+        }
 
-                if (userEmail != null && !userEmail.isEmpty()) {
-                    String userSubject = "Task Expired: " + task.getName();
-                    String userMessage = String.format("EXPIRED: Task '%s' (ID: %s) has expired. The deadline was %s.",
-                            task.getName(), task.getTaskId(), task.getDeadline());
-                    SnsUtils.sendEmailNotification(taskExpirationUserNotificationTopicArn, userEmail, userSubject, userMessage);
-                    logger.info("Sent expiration notification to user: {}", task.getUserId());
-                }
+        String userEmail = null;
+        if (task.getUserId() != null && !task.getUserId().isEmpty() && userPoolId != null && !userPoolId.isEmpty()) {
+            try {
+                AdminGetUserRequest userRequest = AdminGetUserRequest.builder()
+                        .userPoolId(userPoolId)
+                        .username(task.getUserId())
+                        .build();
 
-                if (!adminEmails.isEmpty()) {
-                    for (String adminEmail : adminEmails) {
-                        String adminSubject = "Admin Alert: " + task.getName();
-                        String adminMessage = String.format("Admin Alert: Task '%s' (ID: %s) assigned to user %s has expired. The deadline was %s.",
-                                task.getName(), task.getTaskId(), task.getUserId(), task.getDeadline());
-                        SnsUtils.sendEmailNotification(taskExpirationAdminNotificationTopicArn, adminEmail, adminSubject, adminMessage);
+                AdminGetUserResponse userResponse = cognitoClient.adminGetUser(userRequest);
+
+                for (AttributeType attribute : userResponse.userAttributes()) {
+                    if ("email".equals(attribute.name())) {
+                        userEmail = attribute.value();
+                        break;
                     }
-                    logger.info("Sent expiration notification to {} admins for task: {}", adminEmails.size(), task.getTaskId());
-                } else {
-                    logger.warn("No admin emails found to send notifications to");
                 }
-            } else {
-                logger.warn("Notification topic not configured");
+            } catch (UserNotFoundException e) {
+                logger.warn("Assignee {} of task {} no longer exists", task.getUserId(), task.getTaskId());
             }
-        } catch (Exception e) {
-            logger.error("Error processing notifications for task {}: {}", task.getTaskId(), e.getMessage(), e);
+        }
+
+        context.getLogger().log("Found the following " + adminEmails.size() + " admin emails from Cognito");
+
+        if (userEmail != null && !userEmail.isEmpty()) {
+            String userSubject = "Task Expired: " + task.getName();
+            String userMessage = String.format("EXPIRED: Task '%s' (ID: %s) has expired. The deadline was %s.",
+                    task.getName(), task.getTaskId(), TaskTimeZones.describeDeadline(task));
+            SnsUtils.publishEmail(taskExpirationUserNotificationTopicArn, userEmail, userSubject, userMessage);
+            logger.info("Sent expiration notification to user: {}", task.getUserId());
+        }
+
+        if (!adminEmails.isEmpty()) {
+            for (String adminEmail : adminEmails) {
+                String adminSubject = "Admin Alert: " + task.getName();
+                String adminMessage = String.format("Admin Alert: Task '%s' (ID: %s) assigned to user %s has expired. The deadline was %s.",
+                        task.getName(), task.getTaskId(), task.getUserId(), TaskTimeZones.describeDeadline(task));
+                SnsUtils.publishEmail(taskExpirationAdminNotificationTopicArn, adminEmail, adminSubject, adminMessage);
+            }
+            logger.info("Sent expiration notification to {} admins for task: {}", adminEmails.size(), task.getTaskId());
+        } else {
+            logger.warn("No admin emails found to send notifications to");
         }
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,10 @@ package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskCounter;
+import com.amalitechtaskmanager.repository.TaskQuery;
+import com.amalitechtaskmanager.repository.TaskSort;
 import com.amalitechtaskmanager.utils.AnalyticsComputation;
 import com.amalitechtaskmanager.utils.ApiResponseUtil;
 import com.amazonaws.services.lambda.runtime.Context;
@@ -11,25 +15,22 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import static com.amalitechtaskmanager.constants.StringConstants.TABLE_NAME;
-import static com.amalitechtaskmanager.utils.AttributeValueConverter.attributeValueToSimpleValue;
 
+/**
+ * Task counts per status across all members. Each status is a {@code Select=COUNT} query on
+ * the {@code status-createdAt-index}; a {@code timeRange} becomes a range on the index sort
+ * key, so no task item is read.
+ */
 public class GetAdminAnalyticsHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private static final Logger logger = LoggerFactory.getLogger(GetAdminAnalyticsHandler.class);
     private static final ObjectMapper mapper = ObjectMapperFactory.getMapper();
-    private final DynamoDbClient dbClient = DynamoDbFactory.getClient();
+    private final TaskCounter taskCounter = new TaskCounter(DynamoDbFactory.getClient(), TABLE_NAME);
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
@@ -38,57 +39,28 @@ public class GetAdminAnalyticsHandler implements RequestHandler<APIGatewayProxyR
         try {
             Map<String, String> queryParams = request.getQueryStringParameters();
             String timeRange = queryParams != null ? queryParams.get("timeRange") : "all";
+            Instant cutoffTime = timeRange != null && !timeRange.equals("all") ? calculateCutoffTime(timeRange) : null;
 
-            // Get tasks with potential time range filter
-            List<Map<String, Object>> tasks = fetchTasksWithTimeRange(timeRange);
+            Map<TaskStatus, Long> counts = taskCounter.countByStatus(status -> {
+                TaskQuery query = TaskQuery.byStatus(status, TaskSort.CREATED_AT);
+                return cutoffTime == null ? query : query.from(cutoffTime.toEpochMilli());
+            });
 
             // Calculate basic analytics
-            Map<String, Object> analytics = AnalyticsComputation.computeAnalytics(tasks);
+            Map<String, Object> analytics = AnalyticsComputation.computeAnalytics(counts);
 
             String responseBody = mapper.writeValueAsString(analytics);
-            logger.info("Successfully computed analytics for {} tasks", tasks.size());
+            logger.info("Successfully computed analytics for {} tasks", analytics.get("totalTasks"));
 
             return ApiResponseUtil.createResponse(request, 200, responseBody);
 
         } catch (Exception e) {
             logger.error("Error processing analytics request: {}", e.getMessage(), e);
             return ApiResponseUtil.createResponse(request, 500,
-                    String.format("{\"error\": \"Failed to compute analytics: %s\"}", e.getMessage()));
+                    ApiResponseUtil.errorBody("Failed to compute analytics: " + e.getMessage()));
         }
     }
 
-    private List<Map<String, Object>> fetchTasksWithTimeRange(String timeRange) {
-        ScanRequest.Builder scanRequestBuilder = ScanRequest.builder()
-                .tableName(TABLE_NAME);
-
-        // Add time range filter if specified
-        if (timeRange != null && !timeRange.equals("all")) {
-            Instant cutoffTime = calculateCutoffTime(timeRange);
-            if (cutoffTime != null) {
-                scanRequestBuilder.filterExpression("createdAt >= :cutoff")
-                        .expressionAttributeValues(Map.of(
-                                ":cutoff", AttributeValue.builder().s(cutoffTime.toString()).build()
-                        ));
-            }
-        }
-
-        ScanResponse response = dbClient.scan(scanRequestBuilder.build());
-        return response.items().stream()
-                .map(this::convertDynamoItemToMap)
-                .collect(Collectors.toList());
-    }
-
-    private Map<String, Object> convertDynamoItemToMap(Map<String, AttributeValue> item) {
-        Map<String, Object> result = new HashMap<>();
-        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
-            attributeValueToSimpleValue(entry.getValue())
-                    .ifPresent(value -> result.put(entry.getKey(), value));
-        }
-        return result;
-
-
-    }
-
     private Instant calculateCutoffTime(String timeRange) {
         Instant now = Instant.now();
         return switch (timeRange.toLowerCase()) {
@@ -101,4 +73,4 @@ public class GetAdminAnalyticsHandler implements RequestHandler<APIGatewayProxyR
         };
     }
 
-}
\ No newline at end of file
+}
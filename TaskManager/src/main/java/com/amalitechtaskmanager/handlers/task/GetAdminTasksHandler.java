@@ -1,14 +1,24 @@
 package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.factories.DynamoDbFactory;
-import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskCounter;
+import com.amalitechtaskmanager.repository.TaskFilter;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskQuery;
+import com.amalitechtaskmanager.repository.TaskQueryMerger;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskSort;
 import com.amalitechtaskmanager.utils.ApiResponseUtil;
 import com.amalitechtaskmanager.utils.AuthorizerUtil;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.PageCursor;
+import com.amalitechtaskmanager.utils.StreamingJsonWriter;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
@@ -16,19 +26,34 @@ import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
 import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 
 import static com.amalitechtaskmanager.constants.StringConstants.TABLE_NAME;
 import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
-import static com.amalitechtaskmanager.utils.AttributeValueConverter.attributeValueToSimpleValue;
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.errorBody;
 
 public class GetAdminTasksHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private static final Logger logger = LoggerFactory.getLogger(GetAdminTasksHandler.class);
-    private static final ObjectMapper mapper = ObjectMapperFactory.getMapper();
+    private static final String SORT_PARAM = "sort";
+    private static final String ORDER_PARAM = "order";
+    private static final String COUNT_PARAM = "count";
+    private static final String STATUS_PARAM = "status";
+    private static final String USER_ID_PARAM = "userId";
+    private static final Set<String> INDEXED_CONTROL_PARAMS = Set.of(SORT_PARAM, ORDER_PARAM, COUNT_PARAM, STATUS_PARAM,
+            USER_ID_PARAM, PageCursor.LIMIT_PARAM, PageCursor.PARAM, FieldSelection.PARAM, TaskTimeZones.PARAM);
+    private static final int MAX_FILTER_VALUES = 25;
+
     private final DynamoDbClient dbClient = DynamoDbFactory.getClient();
+    private final TaskCounter taskCounter = new TaskCounter(dbClient, TABLE_NAME);
+    private final TaskQueryMerger queryMerger = new TaskQueryMerger(new TaskRepository(dbClient, TABLE_NAME));
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
@@ -53,89 +78,238 @@ public class GetAdminTasksHandler implements RequestHandler<APIGatewayProxyReque
                 queryParams = new HashMap<>();
             }
 
-            // Build the scan request with proper handling of reserved keywords
-            ScanRequest scanRequest = buildScanRequest(queryParams);
+            Optional<FieldSelection> fields;
+            Optional<ZoneId> zone;
+            try {
+                fields = FieldSelection.fromQuery(queryParams);
+                zone = TaskTimeZones.fromRequest(request);
+            } catch (IllegalArgumentException e) {
+                return createResponse(request, 400, errorBody(e.getMessage()));
+            }
 
-            logger.debug("Executing DynamoDB scan with filters: {}", queryParams);
-            ScanResponse response = dbClient.scan(scanRequest);
+            if ("true".equals(queryParams.get(COUNT_PARAM))) {
+                return countTasks(request, queryParams);
+            }
+
+            if (queryParams.containsKey(SORT_PARAM) || isMultiValued(queryParams.get(STATUS_PARAM))
+                    || isMultiValued(queryParams.get(USER_ID_PARAM))) {
+                return indexedTasks(request, queryParams, fields, zone);
+            }
 
-            List<Map<String, Object>> result = response.items().stream()
-                    .map(this::convertDynamoItemToMap)
-                    .collect(Collectors.toList());
+            ScanRequest scanRequest;
+            boolean paged = isPaged(queryParams);
+            try {
+                scanRequest = buildScanRequest(queryParams);
+                if (paged) {
+                    scanRequest = scanRequest.toBuilder()
+                            .limit(PageCursor.parseLimit(queryParams.get(PageCursor.LIMIT_PARAM)))
+                            .exclusiveStartKey(PageCursor.decode(queryParams.get(PageCursor.PARAM)))
+                            .build();
+                }
+            } catch (IllegalArgumentException e) {
+                return createResponse(request, 400, errorBody(e.getMessage()));
+            }
+            if (fields.isPresent()) {
+                scanRequest = fields.get().applyTo(scanRequest);
+            }
 
-            String responseBody = mapper.writeValueAsString(result);
-            logger.info("Successfully retrieved {} tasks", result.size());
+            logger.debug("Executing DynamoDB scan with filters: {}", queryParams);
+            // One scan page, which DynamoDB caps at 1 MB, keeps the body well within Lambda's response limit
+            ScanResponse page = dbClient.scan(scanRequest);
+            logger.info("Successfully retrieved {} tasks", page.items().size());
 
-            return ApiResponseUtil.createResponse(request, 200, responseBody);
+            String body = paged
+                    ? StreamingJsonWriter.writePage(page.items(), PageCursor.encode(page.lastEvaluatedKey()), zone.orElse(null))
+                    : StreamingJsonWriter.writeItems(page.items(), zone.orElse(null)).body();
+            return ApiResponseUtil.createResponse(request, 200, body);
 
         } catch (Exception e) {
             logger.error("Error processing admin tasks request: {}", e.getMessage(), e);
             return ApiResponseUtil.createResponse(request, 500,
-                    String.format("{\"error\": \"Failed to retrieve tasks: %s\"}", e.getMessage()));
+                    errorBody("Failed to retrieve tasks: " + e.getMessage()));
         }
     }
 
-    private ScanRequest buildScanRequest(Map<String, String> queryParams) {
-        if (queryParams.isEmpty()) {
-            return ScanRequest.builder()
-                    .tableName(TABLE_NAME)
-                    .build();
+    /**
+     * {@code count=true}: returns {@code {"count": n}} for the same filters without reading the items.
+     * Status and assignee filters are counted from the indexes, anything else with a parallel COUNT scan.
+     */
+    private APIGatewayProxyResponseEvent countTasks(APIGatewayProxyRequestEvent request, Map<String, String> queryParams) {
+        long count;
+        if (queryParams.containsKey(STATUS_PARAM) || queryParams.containsKey(USER_ID_PARAM)) {
+            List<TaskQuery> queries;
+            try {
+                queries = buildIndexQueries(queryParams, TaskSort.DEADLINE, true);
+            } catch (IllegalArgumentException e) {
+                return createResponse(request, 400, errorBody(e.getMessage()));
+            }
+            count = taskCounter.countAll(queries);
+        } else {
+            ScanRequest filter;
+            try {
+                filter = buildScanRequest(queryParams);
+            } catch (IllegalArgumentException e) {
+                return createResponse(request, 400, errorBody(e.getMessage()));
+            }
+            count = taskCounter.count(filter);
+        }
+        logger.info("Counted {} tasks", count);
+        return createResponse(request, 200, "{\"count\": " + count + "}");
+    }
+
+    /**
+     * Keyset-paginated listing from the GSIs, returned as {@code {"tasks": [...], "nextCursor": ...}}.
+     * Multi-valued {@code status} / {@code userId} filters run one Query per value concurrently and
+     * the sorted results are merged. Each page starts at the cursor keys, so page N costs the same as page 1.
+     */
+    private APIGatewayProxyResponseEvent indexedTasks(APIGatewayProxyRequestEvent request, Map<String, String> queryParams,
+                                                      Optional<FieldSelection> fields, Optional<ZoneId> zone) {
+        List<TaskQuery> queries;
+        Map<String, Map<String, AttributeValue>> startKeys;
+        int limit;
+        try {
+            TaskSort sort = queryParams.containsKey(SORT_PARAM)
+                    ? TaskSort.fromParam(queryParams.get(SORT_PARAM))
+                    : TaskSort.DEADLINE;
+            String order = queryParams.getOrDefault(ORDER_PARAM, "asc");
+            if (!order.equals("asc") && !order.equals("desc")) {
+                throw new IllegalArgumentException("order must be asc or desc");
+            }
+            limit = PageCursor.parseLimit(queryParams.get(PageCursor.LIMIT_PARAM));
+            queries = buildIndexQueries(queryParams, sort, order.equals("asc"));
+            startKeys = PageCursor.decodeComposite(queryParams.get(PageCursor.PARAM));
+            validateCursor(startKeys, queries);
+        } catch (IllegalArgumentException e) {
+            return createResponse(request, 400, errorBody(e.getMessage()));
         }
+        fields.ifPresent(selection -> queries.forEach(query -> query.project(selection.getAttributes())));
 
-        StringBuilder filterExpression = new StringBuilder();
-        Map<String, String> expressionAttributeNames = new HashMap<>();
-        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        TaskQueryMerger.Page page = queryMerger.query(queries, startKeys, limit);
+        List<Map<String, AttributeValue>> items = fields
+                .map(selection -> page.items().stream().map(selection::project).toList())
+                .orElse(page.items());
+        logger.info("Successfully retrieved {} tasks from {} index queries", items.size(), queries.size());
 
-        int conditionCount = 0;
+        return createResponse(request, 200, StreamingJsonWriter.writePage(items, PageCursor.encodeComposite(page.nextKeys()),
+                zone.orElse(null)));
+    }
 
-        for (Map.Entry<String, String> entry : queryParams.entrySet()) {
-            String attributeName = entry.getKey();
-            String attributeValue = entry.getValue();
+    /**
+     * One query per partition value. Deadline order with assignees queries the assignee index once
+     * per user; otherwise the status index is queried once per status (every status when none is given).
+     * The other dimension and any remaining parameters become filters.
+     */
+    private List<TaskQuery> buildIndexQueries(Map<String, String> queryParams, TaskSort sort, boolean ascending) {
+        List<String> statuses = parseValues(queryParams.get(STATUS_PARAM), STATUS_PARAM);
+        if (statuses != null) {
+            statuses = statuses.stream().map(GetAdminTasksHandler::parseStatus).map(TaskStatus::name).toList();
+        }
+        List<String> userIds = parseValues(queryParams.get(USER_ID_PARAM), USER_ID_PARAM);
 
-            if (conditionCount > 0) {
-                filterExpression.append(" AND ");
+        List<TaskQuery> queries = new ArrayList<>();
+        if (sort == TaskSort.DEADLINE && userIds != null) {
+            for (String userId : userIds) {
+                TaskQuery query = TaskQuery.byAssignee(userId).ascending(ascending);
+                if (statuses != null) {
+                    query.whereIn(TaskItemCodec.STATUS, statuses);
+                }
+                queries.add(query);
             }
+        } else {
+            List<String> partitions = statuses != null
+                    ? statuses
+                    : Arrays.stream(TaskStatus.values()).map(TaskStatus::name).toList();
+            for (String status : partitions) {
+                TaskQuery query = TaskQuery.byStatus(TaskStatus.valueOf(status), sort).ascending(ascending);
+                if (userIds != null) {
+                    query.whereIn(TaskItemCodec.USER_ID, userIds);
+                }
+                queries.add(query);
+            }
+        }
 
-            // Handle 'status' specially as it's a reserved keyword
-            if (attributeName.equals("status")) {
-                String nameAlias = "#s";
-                String valueAlias = ":s";
-
-                filterExpression.append(nameAlias).append(" = ").append(valueAlias);
-                expressionAttributeNames.put(nameAlias, "status");
-                expressionAttributeValues.put(valueAlias, AttributeValue.builder().s(attributeValue).build());
-            } else {
-                // Handle other attributes
-                String nameAlias = "#" + attributeName;
-                String valueAlias = ":" + attributeName;
-
-                filterExpression.append(nameAlias).append(" = ").append(valueAlias);
-                expressionAttributeNames.put(nameAlias, attributeName);
-                expressionAttributeValues.put(valueAlias, AttributeValue.builder().s(attributeValue).build());
+        for (Map.Entry<String, String> entry : queryParams.entrySet()) {
+            if (!INDEXED_CONTROL_PARAMS.contains(entry.getKey())) {
+                queries.forEach(query -> query.where(entry.getKey(), entry.getValue()));
             }
+        }
+        return queries;
+    }
 
-            conditionCount++;
+    /**
+     * Every key in the cursor must belong to one of the queries and carry that query's keys.
+     */
+    private static void validateCursor(Map<String, Map<String, AttributeValue>> startKeys, List<TaskQuery> queries) {
+        if (startKeys == null) {
+            return;
         }
+        for (Map.Entry<String, Map<String, AttributeValue>> startKey : startKeys.entrySet()) {
+            TaskQuery query = queries.stream()
+                    .filter(candidate -> candidate.getPartitionValue().equals(startKey.getKey()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid cursor"));
+            Map<String, AttributeValue> key = startKey.getValue();
+            if (!key.isEmpty() && (!key.keySet().containsAll(query.keyAttributes())
+                    || !startKey.getKey().equals(key.get(query.getPartitionAttribute()).s()))) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
 
-        ScanRequest.Builder requestBuilder = ScanRequest.builder()
-                .tableName(TABLE_NAME);
+    /**
+     * Splits a comma separated parameter; null when absent.
+     */
+    private static List<String> parseValues(String value, String param) {
+        if (value == null) {
+            return null;
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                values.add(part.trim());
+            }
+        }
+        if (values.isEmpty() || values.size() > MAX_FILTER_VALUES) {
+            throw new IllegalArgumentException(param + " takes 1 to " + MAX_FILTER_VALUES + " comma separated values");
+        }
+        return List.copyOf(values);
+    }
 
-        if (conditionCount > 0) {
-            requestBuilder
-                .filterExpression(filterExpression.toString())
-                .expressionAttributeNames(expressionAttributeNames)
-                .expressionAttributeValues(expressionAttributeValues);
+    private static TaskStatus parseStatus(String status) {
+        try {
+            return TaskStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status '" + status + "'");
         }
+    }
 
-        return requestBuilder.build();
+    private static boolean isMultiValued(String value) {
+        return value != null && value.contains(",");
     }
 
-    private Map<String, Object> convertDynamoItemToMap(Map<String, AttributeValue> item) {
-        Map<String, Object> result = new HashMap<>();
-        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
-            attributeValueToSimpleValue(entry.getValue())
-                    .ifPresent(value -> result.put(entry.getKey(), value));
+    /**
+     * Single-valued equality filters on whitelisted attributes; the control parameters are not filters.
+     *
+     * @throws IllegalArgumentException for a parameter that is not a filterable attribute
+     */
+    /**
+     * A scan listing with {@code limit} or {@code cursor} is returned as {@code {"tasks": [...], "nextCursor": ...}};
+     * without them it is the first page as a bare array, as before. The filter applies after the limit, so a page
+     * can hold fewer tasks than asked for while a nextCursor still follows.
+     */
+    static boolean isPaged(Map<String, String> queryParams) {
+        return queryParams != null
+                && (queryParams.containsKey(PageCursor.LIMIT_PARAM) || queryParams.containsKey(PageCursor.PARAM));
+    }
+
+    private ScanRequest buildScanRequest(Map<String, String> queryParams) {
+        TaskFilter.Builder filter = TaskFilter.builder();
+        for (Map.Entry<String, String> entry : queryParams.entrySet()) {
+            if (entry.getKey().equals(STATUS_PARAM) || entry.getKey().equals(USER_ID_PARAM)
+                    || !INDEXED_CONTROL_PARAMS.contains(entry.getKey())) {
+                filter.eq(entry.getKey(), entry.getValue());
+            }
         }
-        return result;
+        return filter.build().applyTo(ScanRequest.builder().tableName(TABLE_NAME)).build();
     }
-}
\ No newline at end of file
+}
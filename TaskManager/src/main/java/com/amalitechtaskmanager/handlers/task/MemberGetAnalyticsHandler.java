@@ -2,64 +2,46 @@ package com.amalitechtaskmanager.handlers.task;
 
 import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskCounter;
+import com.amalitechtaskmanager.repository.TaskQuery;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static com.amalitechtaskmanager.constants.StringConstants.TABLE_NAME;
 import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
+import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.getCurrentUserEmail;
 
+/**
+ * Task counts per status for one member, answered with concurrent {@code Select=COUNT}
+ * queries on the {@code userId-deadline-index} instead of scanning the table and counting
+ * items in memory. Counts are briefly cached, see {@link TaskCounter}.
+ */
 public class MemberGetAnalyticsHandler  implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final TaskCounter taskCounter = new TaskCounter(DynamoDbFactory.getClient(), TABLE_NAME);
+
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
 
-
-        String userId= requestEvent.getPathParameters().get("userId");
+        String userId = resolveUserId(requestEvent);
         if(userId==null||userId.isEmpty()) {
-            return createResponse(requestEvent, 433,"ID require");
+            return createResponse(requestEvent, 400,"ID require");
         }
 
         try {
+            Map<TaskStatus, Long> counts = taskCounter.countByStatus(status -> TaskQuery.byAssignee(userId).status(status));
 
-
-            ScanRequest  scanRequest= ScanRequest.builder()
-                    .tableName(TABLE_NAME)
-                    .filterExpression("userId = :userId")
-                    .expressionAttributeValues(
-                            Map.of(":userId", AttributeValue.builder().s(userId).build()
-                            )
-                    ).build();
-            ScanResponse response= DynamoDbFactory.getClient().scan(scanRequest);
-
-            int totalTasks=0;
-            int open=0, completed=0,expired=0,closed=0;
-
-            for (Map<String,AttributeValue> item: response.items()) {
-
-                totalTasks++;
-                String status = item.getOrDefault("status",AttributeValue.builder()
-                        .s("UNKNOWN").build()).s();
-                        switch(status){
-                         case "OPEN"->open++;
-                         case "COMPLETED"->completed++;
-                         case "CLOSED"->closed++;
-                        }
-            }
-
-            Map<String, Object> resultMap = new HashMap<>();
+            Map<String, Object> resultMap = new LinkedHashMap<>();
             resultMap.put("userId", userId);
-            resultMap.put("totalTasks", totalTasks);
-            resultMap.put("open", open);
-            resultMap.put("completed", completed);
-            resultMap.put("expired", expired);
-            resultMap.put("closed", closed);
+            // Every task has a status, so the total is the sum of the per-status counts
+            resultMap.put("totalTasks", counts.values().stream().mapToLong(Long::longValue).sum());
+            counts.forEach((status, count) -> resultMap.put(status.name().toLowerCase(), count));
 
             String  result= ObjectMapperFactory.getMapper().writeValueAsString(resultMap);
              return  createResponse(requestEvent, 200,result);
@@ -71,4 +53,14 @@ public class MemberGetAnalyticsHandler  implements RequestHandler<APIGatewayProx
 
 
     }
+
+    private static String resolveUserId(APIGatewayProxyRequestEvent requestEvent) {
+        if (requestEvent.getPathParameters() != null && requestEvent.getPathParameters().get("userId") != null) {
+            return requestEvent.getPathParameters().get("userId");
+        }
+        if (requestEvent.getQueryStringParameters() != null && requestEvent.getQueryStringParameters().get("userId") != null) {
+            return requestEvent.getQueryStringParameters().get("userId");
+        }
+        return getCurrentUserEmail(requestEvent);
+    }
 }
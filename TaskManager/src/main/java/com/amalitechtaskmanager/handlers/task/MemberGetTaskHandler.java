@@ -1,16 +1,20 @@
 package com.amalitechtaskmanager.handlers.task;
 import com.amalitechtaskmanager.factories.DynamoDbFactory;
-import com.amalitechtaskmanager.factories.ObjectMapperFactory;
-import com.amalitechtaskmanager.utils.AttributeValueConverter;
+import com.amalitechtaskmanager.utils.DynamoDbUtils;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.StreamingJsonWriter;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import software.amazon.awssdk.services.dynamodb.model.*;
-import java.util.HashMap;
+import java.time.ZoneId;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.errorBody;
 
 public class MemberGetTaskHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     private static final String TABLE_NAME = "Tasks";
@@ -20,52 +24,31 @@ public class MemberGetTaskHandler implements RequestHandler<APIGatewayProxyReque
         try {
             String taskId = request.getPathParameters().get("taskId");
             if (taskId == null) {
-                return errorResponse(400, "Missing taskId");
+                return createResponse(request, 400, errorBody("Missing taskId"));
+            }
+
+            Map<String, String> queryParams = request.getQueryStringParameters();
+            boolean consistentRead = queryParams != null && "true".equalsIgnoreCase(queryParams.get("consistent"));
+            Optional<FieldSelection> fields;
+            Optional<ZoneId> zone;
+            try {
+                fields = FieldSelection.fromQuery(queryParams);
+                zone = TaskTimeZones.fromRequest(request);
+            } catch (IllegalArgumentException e) {
+                return createResponse(request, 400, errorBody(e.getMessage()));
             }
 
-            GetItemResponse response = fetchTaskFromDynamo(taskId);
-            if (!response.hasItem()) {
-                return errorResponse(404, "Task not found");
+            Optional<Map<String, AttributeValue>> item =
+                    DynamoDbUtils.getTaskItem(DynamoDbFactory.getClient(), TABLE_NAME, taskId, consistentRead,
+                            fields.orElse(null));
+            if (item.isEmpty()) {
+                return createResponse(request, 404, errorBody("Task not found"));
             }
 
-            Map<String, Object> result = convertDynamoItemToMap(response.item());
-            return successResponse(result);
+            return createResponse(request, 200, StreamingJsonWriter.writeItem(item.get(), zone.orElse(null)));
 
         } catch (Exception e) {
-            return errorResponse(500, e.getMessage());
+            return createResponse(request, 500, errorBody(e.getMessage()));
         }
     }
-
-    private GetItemResponse fetchTaskFromDynamo(String taskId) {
-        Map<String, AttributeValue> key = new HashMap<>();
-        key.put("taskId", AttributeValue.fromS(taskId));
-
-        GetItemRequest request = GetItemRequest.builder()
-                .tableName(TABLE_NAME)
-                .key(key)
-                .build();
-
-        return DynamoDbFactory.getClient().getItem(request);
-    }
-
-    private Map<String, Object> convertDynamoItemToMap(Map<String, AttributeValue> item) {
-        return item.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> AttributeValueConverter.attributeValueToSimpleValue(entry.getValue())
-                ));
-    }
-
-    private APIGatewayProxyResponseEvent successResponse(Object body) throws JsonProcessingException {
-        return new APIGatewayProxyResponseEvent()
-                .withStatusCode(200)
-                .withBody(ObjectMapperFactory.getMapper().writeValueAsString(body));
-    }
-
-
-    private APIGatewayProxyResponseEvent errorResponse(int statusCode, String message) {
-        return new APIGatewayProxyResponseEvent()
-                .withStatusCode(statusCode)
-                .withBody("{\"error\": \"" + message + "\"}");
-    }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.amalitechtaskmanager.handlers.task;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskCounter;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskPage;
+import com.amalitechtaskmanager.repository.TaskQuery;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.PageCursor;
+import com.amalitechtaskmanager.utils.StreamingJsonWriter;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.errorBody;
+import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.getCurrentUserEmail;
+import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.isUserInAdminGroup;
+
+/**
+ * Lists the tasks assigned to the calling member from the {@code userId-deadline-index} GSI.
+ * <p>
+ * Query parameters:
+ * <ul>
+ *     <li>{@code status} – only tasks in this status, or in any of {@code status=OPEN,EXPIRED}</li>
+ *     <li>{@code view=upcoming} – deadline now or later, soonest first</li>
+ *     <li>{@code view=overdue} – deadline passed, most recently missed first; defaults to OPEN tasks</li>
+ *     <li>{@code limit} – page size, 1 to 100 (default 20)</li>
+ *     <li>{@code cursor} – the {@code nextCursor} of the previous page</li>
+ *     <li>{@code fields} – sparse fieldset, see {@link FieldSelection}</li>
+ *     <li>{@code tz} – render dates in this zone, see {@link TaskTimeZones}</li>
+ *     <li>{@code userId} – admins only, list another member's tasks</li>
+ *     <li>{@code count=true} – return only {@code {"count": n}} for the filters above</li>
+ * </ul>
+ * Without a view all tasks are returned ordered by deadline.
+ */
+public class MemberGetTasksHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberGetTasksHandler.class);
+    private static final String TABLE_NAME = System.getenv("TASKS_TABLE");
+    private static final TaskRepository taskRepository = new TaskRepository(DynamoDbFactory.getClient(), TABLE_NAME);
+    private static final TaskCounter taskCounter = new TaskCounter(DynamoDbFactory.getClient(), TABLE_NAME);
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String idToken = request.getHeaders() == null ? null : request.getHeaders().get("Authorization");
+        if (idToken == null) {
+            return createResponse(request, 401, "{\"error\": \"Unauthorized-Missing Header\"}");
+        }
+
+        Map<String, String> queryParams = request.getQueryStringParameters() == null
+                ? Map.of()
+                : request.getQueryStringParameters();
+
+        String userId = getCurrentUserEmail(request);
+        if (queryParams.containsKey("userId") && !queryParams.get("userId").equals(userId)) {
+            if (!isUserInAdminGroup(idToken)) {
+                return createResponse(request, 403, "{\"error\": \"Forbidden - only admins can list other members' tasks\"}");
+            }
+            userId = queryParams.get("userId");
+        }
+        if (userId == null || userId.isEmpty()) {
+            return createResponse(request, 401, "{\"error\": \"Unauthorized-Missing user\"}");
+        }
+
+        try {
+            TaskQuery query = buildQuery(userId, queryParams);
+            if ("true".equals(queryParams.get("count"))) {
+                return createResponse(request, 200, "{\"count\": " + taskCounter.count(query) + "}");
+            }
+
+            Optional<FieldSelection> fields = FieldSelection.fromQuery(queryParams);
+            Optional<ZoneId> zone = TaskTimeZones.fromRequest(request);
+            fields.ifPresent(selection -> query.project(selection.getAttributes()));
+
+            TaskPage page = taskRepository.query(query);
+            List<Map<String, AttributeValue>> items = fields
+                    .map(selection -> page.items().stream().map(selection::project).toList())
+                    .orElse(page.items());
+
+            logger.info("Returning {} tasks for {}", items.size(), userId);
+            return createResponse(request, 200, StreamingJsonWriter.writePage(items, PageCursor.encode(page.lastEvaluatedKey()),
+                    zone.orElse(null)));
+        } catch (IllegalArgumentException e) {
+            return createResponse(request, 400, errorBody(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error listing tasks for {}: {}", userId, e.getMessage(), e);
+            return createResponse(request, 500, "{\"error\": \"Failed to retrieve tasks\"}");
+        }
+    }
+
+    private TaskQuery buildQuery(String userId, Map<String, String> queryParams) {
+        TaskQuery query = TaskQuery.byAssignee(userId).limit(PageCursor.parseLimit(queryParams.get(PageCursor.LIMIT_PARAM)));
+
+        String status = queryParams.get("status");
+        if (status != null) {
+            List<String> statuses = Arrays.stream(status.split(","))
+                    .filter(value -> !value.isBlank())
+                    .map(value -> parseStatus(value.trim()).name())
+                    .distinct()
+                    .toList();
+            query.whereIn(TaskItemCodec.STATUS, statuses);
+        }
+
+        String view = queryParams.get("view");
+        long now = System.currentTimeMillis();
+        if ("upcoming".equals(view)) {
+            query.from(now).ascending(true);
+        } else if ("overdue".equals(view)) {
+            query.before(now).ascending(false);
+            if (status == null) {
+                query.status(TaskStatus.OPEN);
+            }
+        } else if (view != null) {
+            throw new IllegalArgumentException("view must be upcoming or overdue");
+        }
+
+        Map<String, AttributeValue> startKey = PageCursor.decode(queryParams.get(PageCursor.PARAM));
+        if (startKey != null) {
+            AttributeValue cursorUser = startKey.get(query.getPartitionAttribute());
+            if (cursorUser == null || !userId.equals(cursorUser.s())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            query.startKey(startKey);
+        }
+        return query;
+    }
+
+    private static TaskStatus parseStatus(String status) {
+        try {
+            return TaskStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status '" + status + "'");
+        }
+    }
+}
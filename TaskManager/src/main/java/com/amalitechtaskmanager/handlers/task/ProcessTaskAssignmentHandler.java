@@ -1,47 +1,53 @@
 package com.amalitechtaskmanager.handlers.task;
 
-import java.time.format.DateTimeFormatter;
 
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
 import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.utils.SqsBatchProcessor;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
-import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import static com.amalitechtaskmanager.utils.SnsUtils.sendEmailNotification;
+import static com.amalitechtaskmanager.utils.SnsUtils.publishEmail;
 
-public class ProcessTaskAssignmentHandler implements RequestHandler<SQSEvent, Void> {
+/**
+ * Emails the assignee of each task queued by {@link CreateTaskHandler}. Messages are processed
+ * concurrently by {@link SqsBatchProcessor}, in order per FIFO message group; the ones whose
+ * email could not be sent are reported as batch item failures and retried.
+ */
+public class ProcessTaskAssignmentHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
 
     private final ObjectMapper objectMapper = ObjectMapperFactory.getMapper();
     private final String taskNotificationTopicArn = System.getenv("SNS_TOPIC_ARN");
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMMM dd, yyyy HH:mm");
 
     @Override
-    public Void handleRequest(SQSEvent event, Context context) {
+    public SQSBatchResponse handleRequest(SQSEvent event, Context context) {
         context.getLogger().log("Processing task assignments with SNS topic ARN: " + taskNotificationTopicArn);
-        
-        for (SQSMessage message : event.getRecords()) {
+
+        return SqsBatchProcessor.process(event.getRecords(), message -> {
+            Task task;
             try {
-                Task task = objectMapper.readValue(message.getBody(), Task.class);
-                String userEmail = task.getUserId();
+                task = objectMapper.readValue(message.getBody(), Task.class);
+            } catch (JsonProcessingException e) {
+                context.getLogger().log("Skipping unparsable task assignment " + message.getMessageId() + ": " + e.getMessage());
+                return;
+            }
+
+            String userEmail = task.getUserId();
+            if (userEmail != null && !userEmail.isEmpty()) {
+                String subject = "New Task Assignment: " + task.getName();
+                String messageText = createEmailBody(task);
 
-                if (userEmail != null && !userEmail.isEmpty()) {
-                    String subject = "New Task Assignment: " + task.getName();
-                    String messageText = createEmailBody(task);
-                    
-                    sendEmailNotification(taskNotificationTopicArn, userEmail, subject, messageText);
-                    context.getLogger().log("Successfully sent task assignment notification to: " + userEmail);
-                } else {
-                    context.getLogger().log("Warning: Skipping task with missing userId: " + task.getTaskId());
-                }
-            } catch (Exception e) {
-                context.getLogger().log("Error processing task assignment: " + e.getMessage());
-                e.printStackTrace();
+                publishEmail(taskNotificationTopicArn, userEmail, subject, messageText);
+                context.getLogger().log("Successfully sent task assignment notification to: " + userEmail);
+            } else {
+                context.getLogger().log("Warning: Skipping task with missing userId: " + task.getTaskId());
             }
-        }
-        return null;
+        });
     }
 
 
@@ -90,8 +96,8 @@ public class ProcessTaskAssignmentHandler implements RequestHandler<SQSEvent, Vo
             task.getTaskId(),
             task.getStatus().toString(),
             task.getDescription() != null ? task.getDescription() : "No description provided",
-            task.getCreatedAt() != null ? task.getCreatedAt().format(dateFormatter) : "Not specified",
-            task.getDeadline() != null ? task.getDeadline().format(dateFormatter) : "Not specified"
+            task.getCreatedAt() != null ? TaskTimeZones.render(task.getCreatedAt(), TaskTimeZones.zoneOf(task)) : "Not specified",
+            task.getDeadline() != null ? TaskTimeZones.describeDeadline(task) : "Not specified"
         );
     }
 }
@@ -1,9 +1,13 @@
 package com.amalitechtaskmanager.handlers.task;
 
+import com.amalitechtaskmanager.exception.TaskUpdateConflictException;
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.factories.ObjectMapperFactory;
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.model.TaskStatus;
-import com.amalitechtaskmanager.utils.TaskUtils;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskUpdateBuilder;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
@@ -11,7 +15,9 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
 import static com.amalitechtaskmanager.utils.CheckUserRoleUtil.isUserInAdminGroup;
@@ -22,6 +28,7 @@ public class ReAssignTaskHandler implements RequestHandler<APIGatewayProxyReques
 
     //private final SnsClient snsClient = SNSClientFactory.getSnsClient();
     public static final String TABLE_NAME = System.getenv("TASKS_TABLE");
+    private static final TaskRepository taskRepository = new TaskRepository(DynamoDbFactory.getClient(), TABLE_NAME);
     private static final ObjectMapper objectMapper = ObjectMapperFactory.getMapper();
     private final String TASK_ASSIGNMENT_TOPIC_ARN = System.getenv("TASK_ASSIGNMENT_TOPIC_ARN");
 
@@ -42,19 +49,42 @@ public class ReAssignTaskHandler implements RequestHandler<APIGatewayProxyReques
                 return createResponse(event, 400, "Missing taskId or newAssignee");
             }
 
-            Task task = TaskUtils.getTaskById(taskId, TABLE_NAME);
+            Task task = taskRepository.findById(taskId).orElse(null);
             if (task == null) {
                 return createResponse(event, 404, "Task not found");
             }
 
-            String oldUserId = task.getUserId();
+            // Without an offset the new deadline is read in the requester's zone, else the task's
+            LocalDateTime newDeadline;
+            try {
+                newDeadline = deadline != null
+                        ? TaskTimeZones.toUtc(deadline, TaskTimeZones.fromRequest(event).orElse(TaskTimeZones.zoneOf(task)))
+                        : null;
+            } catch (IllegalArgumentException e) {
+                return createResponse(event, 400, e.getMessage());
+            }
 
-            task.setUserId(newUserId);
-            task.setStatus(TaskStatus.OPEN);
-            if (deadline != null) {
-                task.setDeadline(LocalDateTime.parse(deadline));
+            // Each attempt reads the task again; the assignee replaced is the one of the attempt that succeeded
+            AtomicReference<String> previousUserId = new AtomicReference<>();
+            task = taskRepository.updateWithRetry(task, "ReassignTask", current -> {
+                previousUserId.set(current.getUserId());
+                current.setUserId(newUserId);
+                current.setStatus(TaskStatus.OPEN);
+                current.setCompletedAt(null);
+                TaskUpdateBuilder update = TaskUpdateBuilder.forTask(current)
+                        .userId(newUserId)
+                        .status(current.getStatus())
+                        .completedAt(null);
+                if (newDeadline != null) {
+                    current.setDeadline(newDeadline);
+                    update.deadline(newDeadline);
+                }
+                return update;
+            });
+            if (task == null) {
+                return createResponse(event, 404, "Task not found");
             }
-            TaskUtils.updateTask(task, TABLE_NAME);
+            String oldUserId = previousUserId.get();
 
             // Send notification to new assignee
             String newAssigneeMessage = createNewAssigneeEmail(task, oldUserId);
@@ -62,20 +92,23 @@ public class ReAssignTaskHandler implements RequestHandler<APIGatewayProxyReques
             sendEmailNotification(TASK_ASSIGNMENT_TOPIC_ARN, newUserId, newAssigneeSubject, newAssigneeMessage);
 
             // Send notification to previous assignee
-            String previousAssigneeMessage = createPreviousAssigneeEmail(task, newUserId);
-            String previousAssigneeSubject = "Task Reassignment: " + task.getName();
-            sendEmailNotification(TASK_ASSIGNMENT_TOPIC_ARN, oldUserId, previousAssigneeSubject, previousAssigneeMessage);
-
-            Map<String, Object> responseBody = Map.of(
-                    "message", "Task reassigned successfully",
-                    "taskId", task.getTaskId(),
-                    "newAssignee", newUserId,
-                    "oldAssignee", oldUserId
-            );
+            if (oldUserId != null) {
+                String previousAssigneeMessage = createPreviousAssigneeEmail(task, newUserId);
+                String previousAssigneeSubject = "Task Reassignment: " + task.getName();
+                sendEmailNotification(TASK_ASSIGNMENT_TOPIC_ARN, oldUserId, previousAssigneeSubject, previousAssigneeMessage);
+            }
+
+            Map<String, Object> responseBody = new LinkedHashMap<>();
+            responseBody.put("message", "Task reassigned successfully");
+            responseBody.put("taskId", task.getTaskId());
+            responseBody.put("newAssignee", newUserId);
+            responseBody.put("oldAssignee", oldUserId);
             String data = objectMapper.writeValueAsString(responseBody);
 
             return createResponse(event, 200, data);
 
+        } catch (TaskUpdateConflictException e) {
+            return createResponse(event, 409, "Task was modified by another request, please retry");
         } catch (Exception e) {
             e.printStackTrace();
             return createResponse(event, 500, "Internal Server Error: " + e.getMessage());
@@ -110,7 +143,7 @@ public class ReAssignTaskHandler implements RequestHandler<APIGatewayProxyReques
             task.getTaskId(),
             task.getDescription(),
             task.getStatus(),
-            task.getDeadline()
+            TaskTimeZones.describeDeadline(task)
         );
     }
 
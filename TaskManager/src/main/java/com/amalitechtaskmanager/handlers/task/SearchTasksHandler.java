@@ -0,0 +1,120 @@
+package com.amalitechtaskmanager.handlers.task;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskSearchIndex;
+import com.amalitechtaskmanager.repository.TaskSearchQuery;
+import com.amalitechtaskmanager.utils.AuthorizerUtil;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.PageCursor;
+import com.amalitechtaskmanager.utils.StreamingJsonWriter;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.createResponse;
+import static com.amalitechtaskmanager.utils.ApiResponseUtil.errorBody;
+
+/**
+ * Keyword search over task names and descriptions for admins, answered from the search
+ * index instead of a table scan.
+ * <p>
+ * {@code q} holds the words to match (see {@link TaskSearchQuery}); {@code status},
+ * {@code userId}, {@code deadlineFrom}, {@code deadlineTo}, {@code limit} and {@code fields}
+ * narrow and shape the result. Results are ordered by deadline.
+ */
+public class SearchTasksHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchTasksHandler.class);
+
+    private final TaskSearchIndex searchIndex;
+    private final TaskRepository taskRepository;
+
+    public SearchTasksHandler() {
+        DynamoDbClient dynamoDbClient = DynamoDbFactory.getClient();
+        this.searchIndex = new TaskSearchIndex(dynamoDbClient, System.getenv("SEARCH_INDEX_TABLE"));
+        this.taskRepository = new TaskRepository(dynamoDbClient, System.getenv("TASKS_TABLE"));
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String idToken = request.getHeaders() == null ? null : request.getHeaders().get("Authorization");
+        if (idToken == null) {
+            return createResponse(request, 401, "Unauthorized-Missing Header");
+        }
+        if (!AuthorizerUtil.authorize(idToken)) {
+            return createResponse(request, 403, "not authorized to perform this operation");
+        }
+
+        Map<String, String> queryParams = request.getQueryStringParameters() == null
+                ? Map.of()
+                : request.getQueryStringParameters();
+
+        try {
+            Optional<ZoneId> zone = TaskTimeZones.fromRequest(request);
+            TaskSearchQuery query = buildQuery(queryParams, zone.orElse(ZoneOffset.UTC));
+            Optional<FieldSelection> fields = FieldSelection.fromQuery(queryParams);
+
+            List<String> taskIds = searchIndex.search(query);
+            // The index is updated from the stream and may briefly list a deleted task, which is skipped here
+            List<Map<String, AttributeValue>> items = taskRepository.findItemsByIds(taskIds, fields.orElse(null));
+
+            logger.info("Search '{}' matched {} tasks", queryParams.get("q"), items.size());
+            return createResponse(request, 200, StreamingJsonWriter.writePage(items, null, zone.orElse(null)));
+        } catch (IllegalArgumentException e) {
+            return createResponse(request, 400, errorBody(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error searching tasks: {}", e.getMessage(), e);
+            return createResponse(request, 500, "{\"error\": \"Failed to search tasks\"}");
+        }
+    }
+
+    private static TaskSearchQuery buildQuery(Map<String, String> queryParams, ZoneId zone) {
+        TaskSearchQuery query = TaskSearchQuery.parse(queryParams.get("q"))
+                .limit(PageCursor.parseLimit(queryParams.get(PageCursor.LIMIT_PARAM)));
+
+        String status = queryParams.get("status");
+        if (status != null) {
+            try {
+                query.status(TaskStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown status '" + status + "'");
+            }
+        }
+        if (queryParams.get("userId") != null) {
+            query.assignee(queryParams.get("userId"));
+        }
+        if (queryParams.get("deadlineFrom") != null) {
+            query.deadlineFrom(parseDate("deadlineFrom", queryParams.get("deadlineFrom"), zone));
+        }
+        if (queryParams.get("deadlineTo") != null) {
+            query.deadlineTo(parseDate("deadlineTo", queryParams.get("deadlineTo"), zone));
+        }
+        return query;
+    }
+
+    /**
+     * Reads the date in the requester's zone unless it carries its own offset.
+     */
+    private static long parseDate(String param, String value, ZoneId zone) {
+        try {
+            return TaskItemCodec.toEpochMillis(TaskTimeZones.toUtc(value, zone));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(param + " must be a date like 2025-01-31T17:00:00");
+        }
+    }
+}
@@ -1,19 +1,25 @@
 package com.amalitechtaskmanager.handlers.task;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.model.TaskStatus;
-import com.amalitechtaskmanager.utils.DynamoDbUtils;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.model.TimerPayload;
+import com.amalitechtaskmanager.repository.MaintenanceStateRepository;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskPage;
+import com.amalitechtaskmanager.repository.TaskQuery;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskSort;
+import com.amalitechtaskmanager.repository.TaskUpdateBuilder;
 import com.amalitechtaskmanager.utils.ExpirationRuleUtils;
-import com.amalitechtaskmanager.utils.SnsUtils;
+import com.amalitechtaskmanager.utils.MetricsUtils;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
@@ -24,40 +30,64 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
-import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
-import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 import software.amazon.awssdk.services.sns.SnsClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersInGroupRequest;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ListUsersInGroupResponse;
 
+/**
+ * Expires OPEN tasks whose deadline passed, through one pipeline with two entry points.
+ * <p>
+ * The expiration timer of a task, an event whose detail carries its taskId, is the normal
+ * path. The scheduled run without a taskId only sweeps for fires that were missed: OPEN tasks
+ * whose deadline lies between the sweep watermark and SWEEP_GRACE ago, read from the
+ * status-deadline index in deadline order, so tasks the timers already expired are never read
+ * again. The watermark is kept in the maintenance state table and advances as the sweep goes;
+ * each run looks back SWEEP_OVERLAP before it for deadlines moved into the swept range and
+ * for index lag. The first run starts at the epoch, which also covers tasks older than the
+ * timers.
+ * <p>
+ * Both paths expire with the same version-guarded write and hand the expired tasks to the
+ * expiration queue, sending the notifications directly only when the queue is unavailable.
+ */
 public class TaskExpirationHandler implements RequestHandler<ScheduledEvent, Void> {
 
+    private static final String SWEEP_STATE_ID = "task-expiration-sweep";
+    private static final String WATERMARK = "watermark";
+    // Leaves the timers time to fire before their tasks count as missed
+    private static final long SWEEP_GRACE_MILLIS = 10 * 60_000L;
+    private static final long SWEEP_OVERLAP_MILLIS = 24 * 3_600_000L;
+    private static final long SAFETY_MARGIN_MILLIS = 10_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_SQS_BATCH = 10;
+
     private final ExpirationQueueHandler expirationQueueHandler;
     private final DynamoDbClient dynamoDbClient;
     private final SqsClient sqsClient;
     private final CognitoIdentityProviderClient cognitoClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
     private final String tasksTable;
     private final String expirationQueueUrl;
+    private final TaskRepository taskRepository;
+    private final MaintenanceStateRepository stateRepository;
+
+    public TaskExpirationHandler() {
+        this(new ExpirationQueueHandler());
+    }
 
     public TaskExpirationHandler(ExpirationQueueHandler expirationQueueHandler) {
         this.expirationQueueHandler = expirationQueueHandler;
-        this.dynamoDbClient = DynamoDbClient.create();
+        this.dynamoDbClient = DynamoDbFactory.getClient();
         this.sqsClient = SqsClient.create();
         this.cognitoClient = CognitoIdentityProviderClient.create();
         this.tasksTable = System.getenv("TASKS_TABLE");
         this.expirationQueueUrl = System.getenv("TASK_EXPIRATION_QUEUE_URL");
+        this.taskRepository = new TaskRepository(dynamoDbClient, tasksTable);
+        this.stateRepository = new MaintenanceStateRepository(dynamoDbClient, System.getenv("MAINTENANCE_STATE_TABLE"));
 
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
@@ -71,6 +101,8 @@ public class TaskExpirationHandler implements RequestHandler<ScheduledEvent, Voi
         this.cognitoClient = cognitoClient;
         this.tasksTable = System.getProperty("TASKS_TABLE");
         this.expirationQueueUrl = System.getProperty("TASK_EXPIRATION_QUEUE_URL");
+        this.taskRepository = new TaskRepository(dynamoDbClient, tasksTable);
+        this.stateRepository = new MaintenanceStateRepository(dynamoDbClient, System.getProperty("MAINTENANCE_STATE_TABLE"));
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -78,76 +110,27 @@ public class TaskExpirationHandler implements RequestHandler<ScheduledEvent, Voi
 
     @Override
     public Void handleRequest(ScheduledEvent event, Context context) {
-        context.getLogger().log("Starting task expiration check");
-        LocalDateTime now = LocalDateTime.now();
-
-        if (event.getDetail() != null && !event.getDetail().isEmpty()) {
-            try {
-                Map<String, Object> detail = event.getDetail();
-                String taskId = (String) detail.get("taskId");
-
-                if (taskId != null && !taskId.isEmpty()) {
-                    context.getLogger().log("Processing expiration for specific task: " + taskId);
-                    processSpecificTaskExpiration(taskId, context);
-                    return null;
-                }
-            } catch (Exception e) {
-                context.getLogger().log("Error processing specific task expiration: " + e.getMessage());
-            }
+        Optional<TimerPayload> timer = TimerPayload.fromDetail(event.getDetail(), TimerKind.EXPIRATION);
+        if (timer.isPresent()) {
+            context.getLogger().log("Processing expiration for specific task: " + timer.get().taskId());
+            processSpecificTaskExpiration(timer.get().taskId(), context);
+            return null;
         }
 
+        context.getLogger().log("Starting sweep for missed task expirations");
         try {
-            ScanRequest scanRequest = ScanRequest.builder()
-                    .tableName(tasksTable)
-                    .build();
-
-            ScanResponse scanResponse = dynamoDbClient.scan(scanRequest);
-            int expiredCount = 0;
-
-            for (Map<String, AttributeValue> item : scanResponse.items()) {
-                try {
-                    Optional<Task> taskOpt = DynamoDbUtils.parseTaskFromSdk(item);
-
-                    if (taskOpt.isPresent()) {
-                        Task task = taskOpt.get();
-
-                        if (ExpirationRuleUtils.shouldExpireTask(task)) {
-                            context.getLogger().log("Task " + task.getTaskId() + " has expired. Updating status.");
-                            task.markAsExpired();
-                            updateTaskStatus(task.getTaskId(), TaskStatus.EXPIRED.toString());
-                            queueTaskForNotification(task, context);
-                            expiredCount++;
-                        }
-                    }
-                } catch (Exception e) {
-                    String taskId = item.containsKey("taskId") ? item.get("taskId").s() : "unknown";
-                    context.getLogger().log("Error processing task " + taskId + ": " + e.getMessage());
-                }
-            }
-
-            context.getLogger().log("Expired " + expiredCount + " tasks");
+            sweepMissedExpirations(context);
         } catch (Exception e) {
-            context.getLogger().log("Error checking for expired tasks: " + e.getMessage());
+            context.getLogger().log("Error sweeping for expired tasks: " + e.getMessage());
         }
-
         return null;
     }
 
     private void processSpecificTaskExpiration(String taskId, Context context) {
         try {
-            GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
-                    .tableName(tasksTable)
-                    .key(Map.of("taskId", AttributeValue.builder().s(taskId).build()))
-                    .build());
-
-            if (!response.hasItem()) {
-                context.getLogger().log("Task not found: " + taskId);
-                return;
-            }
-
-            Optional<Task> taskOpt = DynamoDbUtils.parseTaskFromSdk(response.item());
+            Optional<Task> taskOpt = taskRepository.findById(taskId, true);
             if (taskOpt.isEmpty()) {
-                context.getLogger().log("Could not parse task: " + taskId);
+                context.getLogger().log("Task not found: " + taskId);
                 return;
             }
 
@@ -155,9 +138,12 @@ public class TaskExpirationHandler implements RequestHandler<ScheduledEvent, Voi
 
             if (ExpirationRuleUtils.shouldExpireTask(task)) {
                 context.getLogger().log("Task " + taskId + " has expired. Updating status.");
-                task.markAsExpired();
-                updateTaskStatus(taskId, TaskStatus.EXPIRED.toString());
-                expirationQueueHandler.processNotifications(task, context);
+                Task expired = expireTask(task);
+                if (expired != null) {
+                    queueForNotification(List.of(expired), context);
+                } else {
+                    context.getLogger().log("Task " + taskId + " changed concurrently and no longer expires.");
+                }
             } else {
                 context.getLogger().log("Task " + taskId + " does not need to be expired.");
             }
@@ -166,45 +152,133 @@ public class TaskExpirationHandler implements RequestHandler<ScheduledEvent, Voi
         }
     }
 
-    private void updateTaskStatus(String taskId, String newStatus) {
-        Map<String, String> expressionNames = new HashMap<>();
-        expressionNames.put("#status", "status");
-
-        Map<String, AttributeValue> expressionValues = new HashMap<>();
-        expressionValues.put(":newStatus", AttributeValue.builder().s(newStatus).build());
-
-        String updateExpression = "SET #status = :newStatus";
-
-        UpdateItemRequest updateRequest = UpdateItemRequest.builder()
-                .tableName(tasksTable)
-                .key(Map.of("taskId", AttributeValue.builder().s(taskId).build()))
-                .updateExpression(updateExpression)
-                .expressionAttributeNames(expressionNames)
-                .expressionAttributeValues(expressionValues)
-                .build();
+    /**
+     * Expires the OPEN tasks due between the watermark and the grace cutoff, page by page.
+     * Stopping before the timeout saves the deadline reached as the watermark.
+     */
+    private void sweepMissedExpirations(Context context) {
+        long cutoff = System.currentTimeMillis() - SWEEP_GRACE_MILLIS;
+        Map<String, AttributeValue> state = stateRepository.load(SWEEP_STATE_ID);
+        long watermark = state.containsKey(WATERMARK) ? Long.parseLong(state.get(WATERMARK).n()) : 0L;
+        long from = Math.max(0L, watermark - SWEEP_OVERLAP_MILLIS);
+
+        Map<String, AttributeValue> startKey = null;
+        long reached = watermark;
+        // A task that failed to expire holds the watermark back so the next run retries it
+        Long firstFailure = null;
+        int expiredCount = 0;
+        do {
+            if (context.getRemainingTimeInMillis() <= SAFETY_MARGIN_MILLIS) {
+                context.getLogger().log("Stopping expiration sweep before timeout at deadline " + reached);
+                saveWatermark(firstFailure != null ? Math.min(firstFailure, reached) : Math.max(watermark, reached));
+                MetricsUtils.count("MissedExpirations", expiredCount, "Job", SWEEP_STATE_ID);
+                return;
+            }
+            TaskPage page = taskRepository.query(TaskQuery.byStatus(TaskStatus.OPEN, TaskSort.DEADLINE)
+                    .from(from)
+                    .before(cutoff)
+                    .ascending(true)
+                    .limit(PAGE_SIZE)
+                    .startKey(startKey));
+
+            List<Task> expired = new ArrayList<>();
+            for (Map<String, AttributeValue> item : page.items()) {
+                AttributeValue deadlineEpoch = item.get(TaskItemCodec.DEADLINE_EPOCH);
+                if (deadlineEpoch != null) {
+                    reached = Long.parseLong(deadlineEpoch.n());
+                }
+                try {
+                    Task task = TaskItemCodec.fromItem(item);
+                    if (ExpirationRuleUtils.shouldExpireTask(task)) {
+                        context.getLogger().log("Task " + task.getTaskId() + " missed its expiration. Updating status.");
+                        Task expiredTask = expireTask(task);
+                        if (expiredTask != null) {
+                            expired.add(expiredTask);
+                        } else {
+                            context.getLogger().log("Task " + task.getTaskId() + " changed concurrently and no longer expires.");
+                        }
+                    }
+                } catch (Exception e) {
+                    String taskId = item.containsKey(TaskItemCodec.TASK_ID) ? item.get(TaskItemCodec.TASK_ID).s() : "unknown";
+                    context.getLogger().log("Error processing task " + taskId + ": " + e.getMessage());
+                    if (firstFailure == null) {
+                        firstFailure = reached;
+                    }
+                }
+            }
+            queueForNotification(expired, context);
+            expiredCount += expired.size();
+            startKey = page.lastEvaluatedKey();
+        } while (startKey != null);
+
+        saveWatermark(firstFailure != null ? firstFailure : cutoff);
+        MetricsUtils.count("MissedExpirations", expiredCount, "Job", SWEEP_STATE_ID);
+        context.getLogger().log("Expired " + expiredCount + " tasks with missed expirations");
+    }
 
-        dynamoDbClient.updateItem(updateRequest);
+    private void saveWatermark(long watermark) {
+        stateRepository.save(SWEEP_STATE_ID, Map.of(WATERMARK, AttributeValue.fromN(Long.toString(watermark))));
     }
 
-    private void queueTaskForNotification(Task task, Context context) {
-        try {
-            if (expirationQueueUrl == null || expirationQueueUrl.isEmpty()) {
-                context.getLogger().log("Expiration queue URL not configured, processing notifications directly");
-                expirationQueueHandler.processNotifications(task, context);
-                return;
+    /**
+     * Marks the task as expired with a version-guarded write. When a complete, close or
+     * reassign lands first, the task is re-read and the expiration rule evaluated again.
+     *
+     * @return the expired task, or null if it no longer needs to expire
+     */
+    private Task expireTask(Task task) {
+        return taskRepository.updateWithRetry(task, "ExpireTask", current -> {
+            if (!ExpirationRuleUtils.shouldExpireTask(current)) {
+                return null;
             }
+            current.markAsExpired();
+            return TaskUpdateBuilder.forTask(current).status(current.getStatus());
+        });
+    }
 
-            SendMessageRequest request = SendMessageRequest.builder()
-                    .queueUrl(expirationQueueUrl)
-                    .messageBody(objectMapper.writeValueAsString(task))
-                    .build();
+    /**
+     * Queues the expired tasks for notification, {@value #MAX_SQS_BATCH} per SendMessageBatch.
+     * Tasks the queue did not take are notified directly.
+     */
+    private void queueForNotification(List<Task> tasks, Context context) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        if (expirationQueueUrl == null || expirationQueueUrl.isEmpty()) {
+            context.getLogger().log("Expiration queue URL not configured, processing notifications directly");
+            tasks.forEach(task -> expirationQueueHandler.processNotifications(task, context));
+            return;
+        }
 
-            sqsClient.sendMessage(request);
-            context.getLogger().log("Queued task " + task.getTaskId() + " for notification processing");
-        } catch (Exception e) {
-            context.getLogger().log("Error queueing task for notification: " + e.getMessage() +
-                    ". Attempting direct notification.");
-            expirationQueueHandler.processNotifications(task, context);
+        for (int start = 0; start < tasks.size(); start += MAX_SQS_BATCH) {
+            List<Task> batch = tasks.subList(start, Math.min(tasks.size(), start + MAX_SQS_BATCH));
+            Map<String, Task> tasksByEntry = new HashMap<>();
+            try {
+                List<SendMessageBatchRequestEntry> entries = new ArrayList<>();
+                for (Task task : batch) {
+                    String entryId = "t" + entries.size();
+                    tasksByEntry.put(entryId, task);
+                    entries.add(SendMessageBatchRequestEntry.builder()
+                            .id(entryId)
+                            .messageBody(objectMapper.writeValueAsString(task))
+                            .build());
+                }
+                SendMessageBatchResponse response = sqsClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                        .queueUrl(expirationQueueUrl)
+                        .entries(entries)
+                        .build());
+                for (BatchResultErrorEntry failed : response.failed()) {
+                    Task task = tasksByEntry.get(failed.id());
+                    context.getLogger().log("Error queueing task " + task.getTaskId() + " for notification: "
+                            + failed.message() + ". Attempting direct notification.");
+                    expirationQueueHandler.processNotifications(task, context);
+                }
+                context.getLogger().log("Queued " + (batch.size() - response.failed().size()) + " tasks for notification processing");
+            } catch (Exception e) {
+                context.getLogger().log("Error queueing tasks for notification: " + e.getMessage() +
+                        ". Attempting direct notification.");
+                batch.forEach(task -> expirationQueueHandler.processNotifications(task, context));
+            }
         }
     }
-}
\ No newline at end of file
+}
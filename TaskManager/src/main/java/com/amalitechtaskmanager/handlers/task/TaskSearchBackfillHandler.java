@@ -0,0 +1,98 @@
+package com.amalitechtaskmanager.handlers.task;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.repository.MaintenanceStateRepository;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskSearchIndex;
+import com.amalitechtaskmanager.utils.MetricsUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds the tasks that existed before the search index to it. The stream only carries
+ * changes, so without this a task stays unsearchable until it is next written.
+ * <p>
+ * Works like {@link TaskTimestampMigrationHandler}: the scan position is checkpointed in the
+ * maintenance state table after every page, later runs resume from it and the job is a no-op
+ * once completed. Invoke it with {@code {"detail": {"restart": true}}} to rebuild the index.
+ */
+public class TaskSearchBackfillHandler implements RequestHandler<ScheduledEvent, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchBackfillHandler.class);
+    private static final String STATE_ID = "task-search-backfill";
+    private static final String LAST_TASK_ID = "lastTaskId";
+    private static final String COMPLETED = "completed";
+    private static final String INDEXED_COUNT = "indexedCount";
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+    private static final int PAGE_SIZE = 100;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tasksTable;
+    private final TaskSearchIndex searchIndex;
+    private final MaintenanceStateRepository stateRepository;
+
+    public TaskSearchBackfillHandler() {
+        this.dynamoDbClient = DynamoDbFactory.getClient();
+        this.tasksTable = System.getenv("TASKS_TABLE");
+        this.searchIndex = new TaskSearchIndex(dynamoDbClient, System.getenv("SEARCH_INDEX_TABLE"));
+        this.stateRepository = new MaintenanceStateRepository(dynamoDbClient, System.getenv("MAINTENANCE_STATE_TABLE"));
+    }
+
+    @Override
+    public Void handleRequest(ScheduledEvent event, Context context) {
+        boolean restart = event != null && event.getDetail() != null
+                && Boolean.TRUE.equals(event.getDetail().get("restart"));
+        Map<String, AttributeValue> state = restart ? Map.of() : stateRepository.load(STATE_ID);
+        AttributeValue completed = state.get(COMPLETED);
+        if (completed != null && Boolean.TRUE.equals(completed.bool())) {
+            logger.info("Search index backfill already completed, nothing to do");
+            return null;
+        }
+
+        Map<String, AttributeValue> startKey = state.containsKey(LAST_TASK_ID)
+                ? Map.of(TaskItemCodec.TASK_ID, state.get(LAST_TASK_ID))
+                : null;
+        long indexed = state.containsKey(INDEXED_COUNT) ? Long.parseLong(state.get(INDEXED_COUNT).n()) : 0;
+
+        while (context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS) {
+            ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(tasksTable)
+                    .limit(PAGE_SIZE)
+                    .exclusiveStartKey(startKey)
+                    .build());
+
+            for (Map<String, AttributeValue> item : page.items()) {
+                // Writing every posting is idempotent, postings already written by the stream are just overwritten
+                searchIndex.apply(null, TaskItemCodec.fromItem(item));
+            }
+            indexed += page.count();
+            MetricsUtils.count("TasksBackfilledIntoSearch", page.count(), "Job", STATE_ID);
+
+            startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            Map<String, AttributeValue> checkpoint = new HashMap<>();
+            checkpoint.put(INDEXED_COUNT, AttributeValue.fromN(Long.toString(indexed)));
+            checkpoint.put(COMPLETED, AttributeValue.fromBool(startKey == null));
+            if (startKey != null) {
+                checkpoint.put(LAST_TASK_ID, startKey.get(TaskItemCodec.TASK_ID));
+            }
+            stateRepository.save(STATE_ID, checkpoint);
+            if (startKey == null) {
+                logger.info("Search index backfill completed, {} tasks indexed", indexed);
+                return null;
+            }
+        }
+
+        logger.info("Stopping search index backfill before timeout at {}, {} tasks indexed so far", startKey, indexed);
+        return null;
+    }
+}
@@ -0,0 +1,134 @@
+package com.amalitechtaskmanager.handlers.task;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.repository.MaintenanceStateRepository;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.utils.EnvUtils;
+import com.amalitechtaskmanager.utils.MetricsUtils;
+import com.amalitechtaskmanager.utils.TaskTimeZones;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives the tasks written before tasks kept a zone the LEGACY_TIME_ZONE (default UTC) their
+ * zone-less deadlines were entered in, converting those deadlines to UTC when the legacy zone
+ * is another one; see {@link TaskRepository#migrateTimeZone}.
+ * <p>
+ * Runs like {@link TaskTimestampMigrationHandler}: the scan is checkpointed in the maintenance
+ * state table after every page, a run stops before the Lambda times out and the next one
+ * resumes, and {@code {"detail": {"restart": true}}} runs it again from the start.
+ */
+public class TaskTimeZoneMigrationHandler implements RequestHandler<ScheduledEvent, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskTimeZoneMigrationHandler.class);
+    private static final String STATE_ID = "task-timezone-migration";
+    private static final String LAST_TASK_ID = "lastTaskId";
+    private static final String COMPLETED = "completed";
+    private static final String MIGRATED_COUNT = "migratedCount";
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tasksTable;
+    private final TaskRepository taskRepository;
+    private final MaintenanceStateRepository stateRepository;
+    private final ZoneId legacyZone;
+    private final int pageSize;
+
+    public TaskTimeZoneMigrationHandler() {
+        this.dynamoDbClient = DynamoDbFactory.getClient();
+        this.tasksTable = System.getenv("TASKS_TABLE");
+        this.taskRepository = new TaskRepository(dynamoDbClient, tasksTable);
+        this.stateRepository = new MaintenanceStateRepository(dynamoDbClient, System.getenv("MAINTENANCE_STATE_TABLE"));
+        String configuredZone = System.getenv("LEGACY_TIME_ZONE");
+        this.legacyZone = configuredZone == null || configuredZone.isEmpty()
+                ? ZoneOffset.UTC
+                : TaskTimeZones.parse(configuredZone);
+        this.pageSize = EnvUtils.intFromEnv("MIGRATION_PAGE_SIZE", 100);
+    }
+
+    @Override
+    public Void handleRequest(ScheduledEvent event, Context context) {
+        boolean restart = event != null && event.getDetail() != null
+                && Boolean.TRUE.equals(event.getDetail().get("restart"));
+
+        Map<String, AttributeValue> state = restart ? Map.of() : stateRepository.load(STATE_ID);
+        if (isCompleted(state)) {
+            logger.info("Time zone migration already completed, nothing to do");
+            return null;
+        }
+
+        Map<String, AttributeValue> startKey = state.containsKey(LAST_TASK_ID)
+                ? Map.of(TaskItemCodec.TASK_ID, state.get(LAST_TASK_ID))
+                : null;
+        long migrated = state.containsKey(MIGRATED_COUNT) ? Long.parseLong(state.get(MIGRATED_COUNT).n()) : 0;
+        logger.info("Starting time zone migration to {} from {}", legacyZone,
+                startKey == null ? "the beginning" : startKey);
+
+        while (context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS) {
+            ScanResponse page = dynamoDbClient.scan(buildPageRequest(startKey));
+
+            int migratedInPage = 0;
+            for (Map<String, AttributeValue> item : page.items()) {
+                if (taskRepository.migrateTimeZone(item, legacyZone)) {
+                    migratedInPage++;
+                }
+            }
+            migrated += migratedInPage;
+            MetricsUtils.count("TaskTimeZonesMigrated", migratedInPage, "Job", STATE_ID);
+
+            startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            saveCheckpoint(startKey, migrated);
+            if (startKey == null) {
+                logger.info("Time zone migration completed, {} tasks migrated", migrated);
+                return null;
+            }
+        }
+
+        logger.info("Stopping time zone migration before timeout at {}, {} tasks migrated so far", startKey, migrated);
+        return null;
+    }
+
+    /**
+     * Only the key, the deadline and the zone are needed to decide and perform the migration.
+     */
+    private ScanRequest buildPageRequest(Map<String, AttributeValue> startKey) {
+        return ScanRequest.builder()
+                .tableName(tasksTable)
+                .limit(pageSize)
+                .projectionExpression("#taskId, #deadline, #timeZone")
+                .expressionAttributeNames(Map.of(
+                        "#taskId", TaskItemCodec.TASK_ID,
+                        "#deadline", TaskItemCodec.DEADLINE,
+                        "#timeZone", TaskItemCodec.TIME_ZONE))
+                .exclusiveStartKey(startKey)
+                .build();
+    }
+
+    private void saveCheckpoint(Map<String, AttributeValue> nextKey, long migrated) {
+        Map<String, AttributeValue> state = new HashMap<>();
+        state.put(MIGRATED_COUNT, AttributeValue.fromN(Long.toString(migrated)));
+        state.put(COMPLETED, AttributeValue.fromBool(nextKey == null));
+        if (nextKey != null) {
+            state.put(LAST_TASK_ID, nextKey.get(TaskItemCodec.TASK_ID));
+        }
+        stateRepository.save(STATE_ID, state);
+    }
+
+    private static boolean isCompleted(Map<String, AttributeValue> state) {
+        AttributeValue completed = state.get(COMPLETED);
+        return completed != null && Boolean.TRUE.equals(completed.bool());
+    }
+}
@@ -0,0 +1,139 @@
+package com.amalitechtaskmanager.handlers.task;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.repository.MaintenanceStateRepository;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.utils.EnvUtils;
+import com.amalitechtaskmanager.utils.MetricsUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backfills the numeric epoch-millis date attributes on tasks written before they existed.
+ * <p>
+ * The table is scanned page by page and the last evaluated key is checkpointed in the
+ * maintenance state table after every page, so a run that approaches the Lambda timeout
+ * stops cleanly and the next scheduled run resumes from the checkpoint. Once the scan
+ * completes the job is marked done and later runs return immediately; invoke it with
+ * {@code {"detail": {"restart": true}}} to run it again from the start.
+ */
+public class TaskTimestampMigrationHandler implements RequestHandler<ScheduledEvent, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskTimestampMigrationHandler.class);
+    private static final String STATE_ID = "task-timestamp-migration";
+    private static final String LAST_TASK_ID = "lastTaskId";
+    private static final String COMPLETED = "completed";
+    private static final String MIGRATED_COUNT = "migratedCount";
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tasksTable;
+    private final TaskRepository taskRepository;
+    private final MaintenanceStateRepository stateRepository;
+    private final int pageSize;
+
+    public TaskTimestampMigrationHandler() {
+        this.dynamoDbClient = DynamoDbFactory.getClient();
+        this.tasksTable = System.getenv("TASKS_TABLE");
+        this.taskRepository = new TaskRepository(dynamoDbClient, tasksTable);
+        this.stateRepository = new MaintenanceStateRepository(dynamoDbClient, System.getenv("MAINTENANCE_STATE_TABLE"));
+        this.pageSize = EnvUtils.intFromEnv("MIGRATION_PAGE_SIZE", 100);
+    }
+
+    @Override
+    public Void handleRequest(ScheduledEvent event, Context context) {
+        boolean restart = event != null && event.getDetail() != null
+                && Boolean.TRUE.equals(event.getDetail().get("restart"));
+
+        Map<String, AttributeValue> state = restart ? Map.of() : stateRepository.load(STATE_ID);
+        if (isCompleted(state)) {
+            logger.info("Timestamp migration already completed, nothing to do");
+            return null;
+        }
+
+        Map<String, AttributeValue> startKey = state.containsKey(LAST_TASK_ID)
+                ? Map.of(TaskItemCodec.TASK_ID, state.get(LAST_TASK_ID))
+                : null;
+        long migrated = state.containsKey(MIGRATED_COUNT) ? Long.parseLong(state.get(MIGRATED_COUNT).n()) : 0;
+        logger.info("Starting timestamp migration from {}", startKey == null ? "the beginning" : startKey);
+
+        while (context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS) {
+            ScanResponse page = dynamoDbClient.scan(buildPageRequest(startKey));
+
+            int migratedInPage = 0;
+            for (Map<String, AttributeValue> item : page.items()) {
+                if (taskRepository.addMissingEpochAttributes(item)) {
+                    migratedInPage++;
+                }
+            }
+            migrated += migratedInPage;
+            MetricsUtils.count("TaskTimestampsMigrated", migratedInPage, "Job", STATE_ID);
+
+            startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            saveCheckpoint(startKey, migrated);
+            if (startKey == null) {
+                logger.info("Timestamp migration completed, {} tasks migrated", migrated);
+                return null;
+            }
+        }
+
+        logger.info("Stopping timestamp migration before timeout at {}, {} tasks migrated so far", startKey, migrated);
+        return null;
+    }
+
+    /**
+     * Only the key and the date attributes are needed to decide and perform the backfill.
+     */
+    private ScanRequest buildPageRequest(Map<String, AttributeValue> startKey) {
+        List<String> attributes = new ArrayList<>(List.of(TaskItemCodec.TASK_ID));
+        TaskItemCodec.EPOCH_ATTRIBUTES.forEach((attribute, epochAttribute) -> {
+            attributes.add(attribute);
+            attributes.add(epochAttribute);
+        });
+
+        Map<String, String> names = new HashMap<>();
+        List<String> projection = new ArrayList<>();
+        int index = 0;
+        for (String attribute : attributes) {
+            names.put("#p" + index, attribute);
+            projection.add("#p" + index);
+            index++;
+        }
+
+        return ScanRequest.builder()
+                .tableName(tasksTable)
+                .limit(pageSize)
+                .projectionExpression(String.join(", ", projection))
+                .expressionAttributeNames(names)
+                .exclusiveStartKey(startKey)
+                .build();
+    }
+
+    private void saveCheckpoint(Map<String, AttributeValue> nextKey, long migrated) {
+        Map<String, AttributeValue> state = new HashMap<>();
+        state.put(MIGRATED_COUNT, AttributeValue.fromN(Long.toString(migrated)));
+        state.put(COMPLETED, AttributeValue.fromBool(nextKey == null));
+        if (nextKey != null) {
+            state.put(LAST_TASK_ID, nextKey.get(TaskItemCodec.TASK_ID));
+        }
+        stateRepository.save(STATE_ID, state);
+    }
+
+    private static boolean isCompleted(Map<String, AttributeValue> state) {
+        AttributeValue completed = state.get(COMPLETED);
+        return completed != null && Boolean.TRUE.equals(completed.bool());
+    }
+}
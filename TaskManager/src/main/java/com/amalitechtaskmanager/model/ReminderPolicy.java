@@ -0,0 +1,123 @@
+package com.amalitechtaskmanager.model;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When a task's reminders fire, as offsets before its deadline: {@code 24h,1h,10m} is one
+ * reminder a day before, one an hour before and one ten minutes before. Offsets take a
+ * {@code d}, {@code h} or {@code m} unit; a policy has 1 to MAX_STAGES of them. The compact
+ * string is what a task stores in {@code reminderPolicy} and what the environment holds.
+ * <p>
+ * A task without a valid policy of its own uses REMINDER_POLICY_&lt;PRIORITY&gt; for its
+ * priority, then REMINDER_POLICY, then a single reminder two minutes before the deadline.
+ */
+public record ReminderPolicy(List<Duration> offsets) {
+
+    public static final int MAX_STAGES = 5;
+    public static final ReminderPolicy DEFAULT = new ReminderPolicy(List.of(Duration.ofMinutes(2)));
+
+    private static final Duration MAX_OFFSET = Duration.ofDays(30);
+    private static final Map<String, Optional<ReminderPolicy>> configured = new ConcurrentHashMap<>();
+
+    /**
+     * Offsets are kept longest first, so stage 0 is the earliest reminder.
+     */
+    public ReminderPolicy {
+        offsets = offsets.stream().distinct().sorted(Comparator.reverseOrder()).toList();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the policy is malformed
+     */
+    public static ReminderPolicy parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Reminder policy is empty");
+        }
+        List<Duration> offsets = new ArrayList<>();
+        for (String part : value.split(",")) {
+            offsets.add(parseOffset(part.trim()));
+        }
+        ReminderPolicy policy = new ReminderPolicy(offsets);
+        if (policy.offsets().size() > MAX_STAGES) {
+            throw new IllegalArgumentException("A reminder policy has at most " + MAX_STAGES + " stages");
+        }
+        return policy;
+    }
+
+    public static Optional<ReminderPolicy> tryParse(String value) {
+        try {
+            return Optional.of(parse(value));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static ReminderPolicy forTask(Task task) {
+        return Optional.ofNullable(task.getReminderPolicy()).flatMap(ReminderPolicy::tryParse)
+                .or(() -> Optional.ofNullable(task.getPriority())
+                        .flatMap(priority -> fromEnv("REMINDER_POLICY_" + priority.trim().toUpperCase(Locale.ROOT))))
+                .or(() -> fromEnv("REMINDER_POLICY"))
+                .orElse(DEFAULT);
+    }
+
+    /**
+     * The reminder times still ahead of {@code now}, earliest first.
+     */
+    public List<OffsetDateTime> fireTimes(OffsetDateTime deadline, OffsetDateTime now) {
+        return offsets.stream()
+                .map(deadline::minus)
+                .filter(fireAt -> fireAt.isAfter(now))
+                .toList();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner compact = new StringJoiner(",");
+        for (Duration offset : offsets) {
+            long minutes = offset.toMinutes();
+            if (minutes % (24 * 60) == 0) {
+                compact.add(minutes / (24 * 60) + "d");
+            } else if (minutes % 60 == 0) {
+                compact.add(minutes / 60 + "h");
+            } else {
+                compact.add(minutes + "m");
+            }
+        }
+        return compact.toString();
+    }
+
+    private static Duration parseOffset(String part) {
+        if (part.length() < 2) {
+            throw new IllegalArgumentException("Invalid reminder offset '" + part + "'");
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(part.substring(0, part.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid reminder offset '" + part + "'");
+        }
+        Duration offset = switch (Character.toLowerCase(part.charAt(part.length() - 1))) {
+            case 'd' -> Duration.ofDays(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Invalid reminder offset '" + part + "', use d, h or m");
+        };
+        if (offset.isNegative() || offset.isZero() || offset.compareTo(MAX_OFFSET) > 0) {
+            throw new IllegalArgumentException("Reminder offset '" + part + "' must be between 1m and 30d");
+        }
+        return offset;
+    }
+
+    private static Optional<ReminderPolicy> fromEnv(String name) {
+        return configured.computeIfAbsent(name, key -> tryParse(System.getenv(key)));
+    }
+}
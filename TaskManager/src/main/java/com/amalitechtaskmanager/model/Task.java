@@ -7,6 +7,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 @ToString
 @Getter
@@ -50,6 +51,19 @@ public class Task {
     @JsonProperty("user_comment")
     private String userComment;
 
+    @JsonProperty("version")
+    private Long version;
+
+    @JsonProperty("priority")
+    private String priority;
+
+    @JsonProperty("reminderPolicy")
+    private String reminderPolicy;
+
+    // The creator's zone id; deadline and the other dates are always UTC
+    @JsonProperty("timeZone")
+    private String timeZone;
+
     public Task(String taskId, String name, String description, TaskStatus status,
                 LocalDateTime deadline,
                 LocalDateTime completedAt, String userComment ,String  userId) {
@@ -89,7 +103,7 @@ public class Task {
             this.status = TaskStatus.EXPIRED;
         } else if ("COMPLETED".equalsIgnoreCase(status)) {
             this.status = TaskStatus.COMPLETED;
-            this.completedAt = LocalDateTime.now();
+            this.completedAt = LocalDateTime.now(ZoneOffset.UTC);
         } else {
             this.status = TaskStatus.OPEN;
         }
@@ -0,0 +1,20 @@
+package com.amalitechtaskmanager.model;
+
+import lombok.Getter;
+
+/**
+ * What a task timer does when it fires. The detail type is the EventBridge {@code detail-type}
+ * of the fired event, which routes it to the Lambda handling that kind.
+ */
+@Getter
+public enum TimerKind {
+
+    REMINDER("TaskReminder"),
+    EXPIRATION("TaskExpiration");
+
+    private final String detailType;
+
+    TimerKind(String detailType) {
+        this.detailType = detailType;
+    }
+}
@@ -0,0 +1,117 @@
+package com.amalitechtaskmanager.model;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The event detail of a fired task timer: the task key, the task version the timer was
+ * scheduled for, the timer kind and the scheduled fire time. No other task fields are copied
+ * into schedules; the handler reads what it needs when the timer fires.
+ * <p>
+ * Details written before this payload carry the full task image and no kind; they decode with
+ * the kind the event was routed as and no version, which handlers treat as current.
+ * <p>
+ * A reminder also carries its offset before the deadline it was scheduled for, so the
+ * handler can tell whether the deadline moved without knowing the policy that produced it.
+ * <p>
+ * A batch detail carries several payloads under {@code timers}, or bare task ids under
+ * {@code taskIds} for callers that have no timer behind the request.
+ *
+ * @param offsetMillis how long before the deadline the timer fires, null if unknown
+ */
+public record TimerPayload(String taskId, Long version, TimerKind kind, long fireAtMillis, Long offsetMillis) {
+
+    public static final String TASK_ID = "taskId";
+    public static final String VERSION = "version";
+    public static final String KIND = "kind";
+    public static final String FIRE_AT = "fireAt";
+    public static final String OFFSET = "offset";
+    public static final String TIMERS = "timers";
+    public static final String TASK_IDS = "taskIds";
+
+    public TimerPayload(String taskId, Long version, TimerKind kind, long fireAtMillis) {
+        this(taskId, version, kind, fireAtMillis, null);
+    }
+
+    public static TimerPayload of(Task task, TimerKind kind, long fireAtMillis) {
+        return new TimerPayload(task.getTaskId(), task.getVersion(), kind, fireAtMillis,
+                offsetOf(task, kind, fireAtMillis));
+    }
+
+    /**
+     * The offset of a reminder before the task deadline; null for other kinds and tasks without one.
+     */
+    public static Long offsetOf(Task task, TimerKind kind, long fireAtMillis) {
+        if (kind != TimerKind.REMINDER || task.getDeadline() == null) {
+            return null;
+        }
+        return task.getDeadline().toInstant(ZoneOffset.UTC).toEpochMilli() - fireAtMillis;
+    }
+
+    public Map<String, Object> toDetail() {
+        Map<String, Object> detail = new LinkedHashMap<>();
+        detail.put(TASK_ID, taskId);
+        if (version != null) {
+            detail.put(VERSION, version);
+        }
+        detail.put(KIND, kind.name());
+        detail.put(FIRE_AT, fireAtMillis);
+        if (offsetMillis != null) {
+            detail.put(OFFSET, offsetMillis);
+        }
+        return detail;
+    }
+
+    /**
+     * @return empty when the detail has no taskId
+     */
+    public static Optional<TimerPayload> fromDetail(Map<String, Object> detail, TimerKind routedKind) {
+        if (detail == null || !(detail.get(TASK_ID) instanceof String taskId) || taskId.isEmpty()) {
+            return Optional.empty();
+        }
+        Long version = detail.get(VERSION) instanceof Number number ? number.longValue() : null;
+        TimerKind kind = routedKind;
+        if (detail.get(KIND) instanceof String name) {
+            try {
+                kind = TimerKind.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                // Unknown kind from a newer producer: trust the routing
+            }
+        }
+        long fireAtMillis = detail.get(FIRE_AT) instanceof Number number ? number.longValue() : 0L;
+        Long offsetMillis = detail.get(OFFSET) instanceof Number number ? number.longValue() : null;
+        return Optional.of(new TimerPayload(taskId, version, kind, fireAtMillis, offsetMillis));
+    }
+
+    /**
+     * The payloads of a single or batch detail; entries without a taskId are left out.
+     */
+    public static List<TimerPayload> listFromDetail(Map<String, Object> detail, TimerKind routedKind) {
+        List<TimerPayload> payloads = new ArrayList<>();
+        if (detail == null) {
+            return payloads;
+        }
+        if (detail.get(TIMERS) instanceof List<?> timers) {
+            for (Object timer : timers) {
+                if (timer instanceof Map<?, ?> entry) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> timerDetail = (Map<String, Object>) entry;
+                    fromDetail(timerDetail, routedKind).ifPresent(payloads::add);
+                }
+            }
+        } else if (detail.get(TASK_IDS) instanceof List<?> taskIds) {
+            for (Object taskId : taskIds) {
+                if (taskId instanceof String id && !id.isEmpty()) {
+                    payloads.add(new TimerPayload(id, null, routedKind, 0L));
+                }
+            }
+        } else {
+            fromDetail(detail, routedKind).ifPresent(payloads::add);
+        }
+        return payloads;
+    }
+}
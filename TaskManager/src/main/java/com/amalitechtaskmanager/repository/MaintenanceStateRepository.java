@@ -0,0 +1,55 @@
+package com.amalitechtaskmanager.repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores progress of background maintenance jobs (checkpoints, watermarks) so that a job
+ * interrupted by the Lambda timeout resumes where it stopped on the next invocation.
+ * Each job owns one item, keyed by {@code stateId}.
+ */
+public class MaintenanceStateRepository {
+
+    public static final String STATE_ID = "stateId";
+    public static final String UPDATED_AT = "updatedAt";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public MaintenanceStateRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Loads the state of a job, or an empty map if the job never ran.
+     */
+    public Map<String, AttributeValue> load(String stateId) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of(STATE_ID, AttributeValue.fromS(stateId)))
+                .consistentRead(true)
+                .build());
+        return response.hasItem() ? response.item() : Map.of();
+    }
+
+    /**
+     * Replaces the state of a job.
+     */
+    public void save(String stateId, Map<String, AttributeValue> state) {
+        Map<String, AttributeValue> item = new HashMap<>(state);
+        item.put(STATE_ID, AttributeValue.fromS(stateId));
+        item.put(UPDATED_AT, AttributeValue.fromS(Instant.now().toString()));
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(item)
+                .build());
+    }
+}
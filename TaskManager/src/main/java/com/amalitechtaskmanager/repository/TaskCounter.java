@@ -0,0 +1,139 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.utils.BoundedFanOut;
+import com.amalitechtaskmanager.utils.BoundedTtlCache;
+import com.amalitechtaskmanager.utils.EnvUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Answers "how many tasks match" with {@code Select=COUNT} reads, so no item is transferred
+ * or parsed. Index queries are preferred; a filter no index can serve is counted with a
+ * parallel Scan split into COUNT_SCAN_SEGMENTS segments. Several queries are counted at most
+ * COUNT_QUERY_CONCURRENCY at a time.
+ * <p>
+ * Counts feed dashboards that poll, so results are cached per filter signature for
+ * COUNT_CACHE_TTL_SECONDS (default 15). A count may therefore lag a write by that long.
+ */
+public class TaskCounter {
+
+    private static final BoundedTtlCache<String, Long> cache = new BoundedTtlCache<>(
+            EnvUtils.intFromEnv("COUNT_CACHE_MAX_ENTRIES", 500),
+            EnvUtils.intFromEnv("COUNT_CACHE_TTL_SECONDS", 15) * 1000L);
+    private static final int SCAN_SEGMENTS = EnvUtils.intFromEnv("COUNT_SCAN_SEGMENTS", 4);
+    private static final int QUERY_CONCURRENCY = EnvUtils.intFromEnv("COUNT_QUERY_CONCURRENCY", 8);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final TaskRepository taskRepository;
+
+    public TaskCounter(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.taskRepository = new TaskRepository(dynamoDbClient, tableName);
+    }
+
+    public long count(TaskQuery query) {
+        String signature = "query|" + query.signature();
+        Long cached = cache.get(signature);
+        if (cached != null) {
+            return cached;
+        }
+        long count = taskRepository.count(query);
+        cache.put(signature, count);
+        return count;
+    }
+
+    /**
+     * Counts the items matching the filter of a scan request; only its filter expression and
+     * attribute maps are used.
+     */
+    public long count(ScanRequest filter) {
+        String signature = "scan|" + filter.filterExpression()
+                + "|" + new TreeMap<>(filter.expressionAttributeNames())
+                + "|" + new TreeMap<>(filter.expressionAttributeValues());
+        Long cached = cache.get(signature);
+        if (cached != null) {
+            return cached;
+        }
+        long count = parallelScanCount(filter);
+        cache.put(signature, count);
+        return count;
+    }
+
+    /**
+     * Counts every status concurrently, one index query per status.
+     */
+    public Map<TaskStatus, Long> countByStatus(Function<TaskStatus, TaskQuery> queryForStatus) {
+        List<TaskQuery> queries = new ArrayList<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            queries.add(queryForStatus.apply(status));
+        }
+        List<Long> results = countEach(queries);
+
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, results.get(status.ordinal()));
+        }
+        return counts;
+    }
+
+    /**
+     * Total of several queries over disjoint partitions, counted concurrently.
+     */
+    public long countAll(List<TaskQuery> queries) {
+        return countEach(queries).stream().mapToLong(Long::longValue).sum();
+    }
+
+    private List<Long> countEach(List<TaskQuery> queries) {
+        return BoundedFanOut.run(IntStream.range(0, queries.size()).boxed().toList(), QUERY_CONCURRENCY,
+                        index -> count(queries.get(index)))
+                .values().stream()
+                .map(result -> result.orThrow("Failed to count tasks"))
+                .toList();
+    }
+
+    private long parallelScanCount(ScanRequest filter) {
+        return BoundedFanOut.run(IntStream.range(0, SCAN_SEGMENTS).boxed().toList(), SCAN_SEGMENTS,
+                        segment -> scanSegmentCount(filter, segment))
+                .values().stream()
+                .mapToLong(result -> result.orThrow("Failed to count tasks"))
+                .sum();
+    }
+
+    private long scanSegmentCount(ScanRequest filter, int segment) {
+        ScanRequest.Builder request = ScanRequest.builder()
+                .tableName(tableName)
+                .select(Select.COUNT)
+                .segment(segment)
+                .totalSegments(SCAN_SEGMENTS);
+        if (filter.filterExpression() != null) {
+            request.filterExpression(filter.filterExpression())
+                    .expressionAttributeNames(filter.expressionAttributeNames())
+                    .expressionAttributeValues(filter.expressionAttributeValues());
+        }
+
+        long count = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse response = dynamoDbClient.scan(request.exclusiveStartKey(startKey).build());
+            count += response.count();
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+        } while (startKey != null);
+        return count;
+    }
+}
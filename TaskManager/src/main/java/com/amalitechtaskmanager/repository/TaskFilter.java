@@ -0,0 +1,248 @@
+package com.amalitechtaskmanager.repository;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A FilterExpression over task attributes, built from typed clauses that are ANDed together.
+ * <p>
+ * Every attribute name goes through a {@code #a<n>} placeholder, so reserved words such as
+ * {@code status} and {@code name} are safe, and only the attributes in {@link #FILTERABLE}
+ * can be filtered on. Values are bound to {@code :v<n>} placeholders allocated in clause
+ * order. The expression and the name map depend only on the shape of the filter (which
+ * operator on which attribute, with how many values), so they are compiled once per shape
+ * and cached; a request only binds its values.
+ */
+public final class TaskFilter {
+
+    public static final Set<String> FILTERABLE = Set.of(
+            TaskItemCodec.TASK_ID, TaskItemCodec.NAME, TaskItemCodec.DESCRIPTION, TaskItemCodec.STATUS,
+            TaskItemCodec.DEADLINE, TaskItemCodec.CREATED_AT, TaskItemCodec.COMPLETED_AT, TaskItemCodec.USER_ID,
+            TaskItemCodec.RESPONSIBILITY, TaskItemCodec.USER_COMMENT, TaskItemCodec.VERSION, TaskItemCodec.PRIORITY,
+            TaskItemCodec.DEADLINE_EPOCH, TaskItemCodec.CREATED_AT_EPOCH, TaskItemCodec.COMPLETED_AT_EPOCH);
+
+    private static final int MAX_IN_VALUES = 100;
+    private static final int MAX_TEMPLATES = 256;
+    private static final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    private enum Operator {
+        EQUALS, AT_LEAST, AT_MOST, BETWEEN, IN, BEGINS_WITH, CONTAINS,
+        // Numeric companion when present, canonical string otherwise (items not migrated yet)
+        DATE_AT_LEAST, DATE_AT_MOST
+    }
+
+    private record Clause(String attribute, Operator operator, List<AttributeValue> values) {
+    }
+
+    private record Template(String expression, Map<String, String> names) {
+    }
+
+    private static final TaskFilter EMPTY = new TaskFilter(List.of());
+
+    private final List<Clause> clauses;
+    private final String shape;
+
+    private TaskFilter(List<Clause> clauses) {
+        this.clauses = clauses;
+        StringJoiner shape = new StringJoiner(";");
+        for (Clause clause : clauses) {
+            shape.add(clause.attribute() + " " + clause.operator() + " " + clause.values().size());
+        }
+        this.shape = shape.toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the attribute cannot be filtered on
+     */
+    public static void requireFilterable(String attribute) {
+        if (!FILTERABLE.contains(attribute)) {
+            throw new IllegalArgumentException("Cannot filter on '" + attribute + "'");
+        }
+    }
+
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    /**
+     * Identifies the compiled template: operators and attributes, without values.
+     */
+    public String shape() {
+        return shape;
+    }
+
+    public String expression() {
+        return template().expression();
+    }
+
+    public Map<String, String> names() {
+        return template().names();
+    }
+
+    public Map<String, AttributeValue> values() {
+        Map<String, AttributeValue> values = new HashMap<>();
+        int index = 0;
+        for (Clause clause : clauses) {
+            for (AttributeValue value : clause.values()) {
+                values.put(":v" + index++, value);
+            }
+        }
+        return values;
+    }
+
+    public ScanRequest.Builder applyTo(ScanRequest.Builder request) {
+        if (isEmpty()) {
+            return request;
+        }
+        return request.filterExpression(expression())
+                .expressionAttributeNames(names())
+                .expressionAttributeValues(values());
+    }
+
+    private Template template() {
+        Template template = templates.get(shape);
+        if (template == null) {
+            template = compile(clauses);
+            if (templates.size() < MAX_TEMPLATES) {
+                templates.putIfAbsent(shape, template);
+            }
+        }
+        return template;
+    }
+
+    private static Template compile(List<Clause> clauses) {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        StringJoiner expression = new StringJoiner(" AND ");
+        int value = 0;
+        for (Clause clause : clauses) {
+            String name = alias(aliases, clause.attribute());
+            switch (clause.operator()) {
+                case EQUALS -> expression.add(name + " = :v" + value++);
+                case AT_LEAST -> expression.add(name + " >= :v" + value++);
+                case AT_MOST -> expression.add(name + " <= :v" + value++);
+                case BETWEEN -> {
+                    expression.add(name + " BETWEEN :v" + value + " AND :v" + (value + 1));
+                    value += 2;
+                }
+                case IN -> {
+                    StringJoiner options = new StringJoiner(", ", name + " IN (", ")");
+                    for (int option = 0; option < clause.values().size(); option++) {
+                        options.add(":v" + value++);
+                    }
+                    expression.add(options.toString());
+                }
+                case BEGINS_WITH -> expression.add("begins_with(" + name + ", :v" + value++ + ")");
+                case CONTAINS -> expression.add("contains(" + name + ", :v" + value++ + ")");
+                case DATE_AT_LEAST, DATE_AT_MOST -> {
+                    String operator = clause.operator() == Operator.DATE_AT_LEAST ? " >= " : " <= ";
+                    String epochName = alias(aliases, TaskItemCodec.EPOCH_ATTRIBUTES.get(clause.attribute()));
+                    expression.add("(" + epochName + operator + ":v" + value + " OR (attribute_not_exists(" + epochName
+                            + ") AND " + name + operator + ":v" + (value + 1) + "))");
+                    value += 2;
+                }
+            }
+        }
+
+        Map<String, String> names = new HashMap<>();
+        aliases.forEach((attribute, alias) -> names.put(alias, attribute));
+        return new Template(expression.toString(), Map.copyOf(names));
+    }
+
+    private static String alias(Map<String, String> aliases, String attribute) {
+        return aliases.computeIfAbsent(attribute, ignored -> "#a" + aliases.size());
+    }
+
+    public static final class Builder {
+
+        private final List<Clause> clauses = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder eq(String attribute, String value) {
+            return eq(attribute, AttributeValue.fromS(value));
+        }
+
+        public Builder eq(String attribute, AttributeValue value) {
+            return add(attribute, Operator.EQUALS, List.of(value));
+        }
+
+        public Builder atLeast(String attribute, AttributeValue value) {
+            return add(attribute, Operator.AT_LEAST, List.of(value));
+        }
+
+        public Builder atMost(String attribute, AttributeValue value) {
+            return add(attribute, Operator.AT_MOST, List.of(value));
+        }
+
+        public Builder between(String attribute, AttributeValue from, AttributeValue to) {
+            return add(attribute, Operator.BETWEEN, List.of(from, to));
+        }
+
+        /**
+         * Equality for one value, IN for several.
+         */
+        public Builder in(String attribute, Collection<String> values) {
+            if (values.isEmpty() || values.size() > MAX_IN_VALUES) {
+                throw new IllegalArgumentException(attribute + " takes 1 to " + MAX_IN_VALUES + " values");
+            }
+            List<AttributeValue> bound = values.stream().map(AttributeValue::fromS).toList();
+            return bound.size() == 1 ? eq(attribute, bound.get(0)) : add(attribute, Operator.IN, bound);
+        }
+
+        public Builder beginsWith(String attribute, String prefix) {
+            return add(attribute, Operator.BEGINS_WITH, List.of(AttributeValue.fromS(prefix)));
+        }
+
+        public Builder contains(String attribute, String value) {
+            return add(attribute, Operator.CONTAINS, List.of(AttributeValue.fromS(value)));
+        }
+
+        /**
+         * Date at or after the given time, for a date attribute with an epoch companion.
+         */
+        public Builder dateFrom(String dateAttribute, LocalDateTime date) {
+            return addDate(dateAttribute, Operator.DATE_AT_LEAST, date);
+        }
+
+        /**
+         * Date at or before the given time, for a date attribute with an epoch companion.
+         */
+        public Builder dateTo(String dateAttribute, LocalDateTime date) {
+            return addDate(dateAttribute, Operator.DATE_AT_MOST, date);
+        }
+
+        public TaskFilter build() {
+            return clauses.isEmpty() ? EMPTY : new TaskFilter(List.copyOf(clauses));
+        }
+
+        private Builder addDate(String dateAttribute, Operator operator, LocalDateTime date) {
+            if (!TaskItemCodec.EPOCH_ATTRIBUTES.containsKey(dateAttribute)) {
+                throw new IllegalArgumentException("'" + dateAttribute + "' is not a date attribute");
+            }
+            return add(dateAttribute, operator,
+                    List.of(TaskItemCodec.epochValue(date), AttributeValue.fromS(TaskItemCodec.formatDate(date))));
+        }
+
+        private Builder add(String attribute, Operator operator, List<AttributeValue> values) {
+            requireFilterable(attribute);
+            clauses.add(new Clause(attribute, operator, values));
+            return this;
+        }
+    }
+}
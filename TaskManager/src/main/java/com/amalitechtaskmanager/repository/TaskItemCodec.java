@@ -0,0 +1,224 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TaskStatus;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Converts between {@link Task} and DynamoDB items without reflection.
+ * Every persisted attribute is described once in {@link #FIELDS}; the same table drives
+ * encoding, decoding of SDK v2 items and decoding of DynamoDB stream images, so the
+ * attribute names and date format cannot drift apart between call sites.
+ * <p>
+ * Dates are UTC and written twice: as the ISO string the API has always returned and as
+ * epoch milliseconds in a numeric companion attribute used for key conditions, range filters
+ * and rule evaluation. The creator's zone is kept apart in {@link #TIME_ZONE}. Reads prefer
+ * the numeric attribute and fall back to the string for items the timestamp migration has
+ * not reached yet.
+ */
+public final class TaskItemCodec {
+
+    public static final String TASK_ID = "taskId";
+    public static final String NAME = "name";
+    public static final String DESCRIPTION = "description";
+    public static final String STATUS = "status";
+    public static final String DEADLINE = "deadline";
+    public static final String CREATED_AT = "createdAt";
+    public static final String COMPLETED_AT = "completed_at";
+    public static final String USER_ID = "userId";
+    public static final String RESPONSIBILITY = "responsibility";
+    public static final String USER_COMMENT = "user_comment";
+    public static final String VERSION = "version";
+    public static final String PRIORITY = "priority";
+    public static final String REMINDER_POLICY = "reminderPolicy";
+    public static final String TIME_ZONE = "timeZone";
+    public static final String DEADLINE_EPOCH = "deadlineEpoch";
+    public static final String CREATED_AT_EPOCH = "createdAtEpoch";
+    public static final String COMPLETED_AT_EPOCH = "completedAtEpoch";
+
+    /** Numeric companions of the string date attributes, keyed by the string attribute name. */
+    public static final Map<String, String> EPOCH_ATTRIBUTES = Map.of(
+            DEADLINE, DEADLINE_EPOCH,
+            CREATED_AT, CREATED_AT_EPOCH,
+            COMPLETED_AT, COMPLETED_AT_EPOCH);
+
+    /** Format used when writing dates. Reads also accept ISO values with or without seconds. */
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final List<Field> FIELDS = List.of(
+            stringField(TASK_ID, Task::getTaskId, Task::setTaskId),
+            stringField(NAME, Task::getName, Task::setName),
+            stringField(DESCRIPTION, Task::getDescription, Task::setDescription),
+            new Field(STATUS,
+                    task -> task.getStatus() == null ? null : AttributeValue.fromS(task.getStatus().name()),
+                    (task, raw) -> parseStatus(raw).ifPresent(task::setStatus)),
+            dateField(DEADLINE, Task::getDeadline, Task::setDeadline),
+            dateField(CREATED_AT, Task::getCreatedAt, Task::setCreatedAt),
+            dateField(COMPLETED_AT, Task::getCompletedAt, Task::setCompletedAt),
+            stringField(USER_ID, Task::getUserId, Task::setUserId),
+            stringField(RESPONSIBILITY, Task::getResponsibility, Task::setResponsibility),
+            stringField(USER_COMMENT, Task::getUserComment, Task::setUserComment),
+            new Field(VERSION,
+                    task -> task.getVersion() == null ? null : AttributeValue.fromN(task.getVersion().toString()),
+                    (task, raw) -> task.setVersion(Long.valueOf(raw))),
+            stringField(PRIORITY, Task::getPriority, Task::setPriority),
+            stringField(REMINDER_POLICY, Task::getReminderPolicy, Task::setReminderPolicy),
+            stringField(TIME_ZONE, Task::getTimeZone, Task::setTimeZone),
+            // Decoded after the string dates so the numeric value wins when both are present
+            epochField(DEADLINE_EPOCH, Task::getDeadline, Task::setDeadline),
+            epochField(CREATED_AT_EPOCH, Task::getCreatedAt, Task::setCreatedAt),
+            epochField(COMPLETED_AT_EPOCH, Task::getCompletedAt, Task::setCompletedAt)
+    );
+
+    private TaskItemCodec() {
+    }
+
+    public static Map<String, AttributeValue> toItem(Task task) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        for (Field field : FIELDS) {
+            AttributeValue value = field.encoder.apply(task);
+            if (value != null) {
+                item.put(field.name, value);
+            }
+        }
+        return item;
+    }
+
+    public static Task fromItem(Map<String, AttributeValue> item) {
+        Task task = new Task();
+        for (Field field : FIELDS) {
+            AttributeValue value = item.get(field.name);
+            if (value != null) {
+                decode(field, task, value.s() != null ? value.s() : value.n());
+            }
+        }
+        return task;
+    }
+
+    public static Task fromStreamImage(Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image) {
+        Task task = new Task();
+        for (Field field : FIELDS) {
+            com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue value = image.get(field.name);
+            if (value != null) {
+                decode(field, task, value.getS() != null ? value.getS() : value.getN());
+            }
+        }
+        return task;
+    }
+
+    public static String formatDate(LocalDateTime dateTime) {
+        return dateTime.format(DATE_FORMATTER);
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public static AttributeValue epochValue(LocalDateTime dateTime) {
+        return AttributeValue.fromN(Long.toString(toEpochMillis(dateTime)));
+    }
+
+    /**
+     * True for the numeric date companions, which are storage details and not part of the API.
+     */
+    public static boolean isEpochAttribute(String attribute) {
+        return DEADLINE_EPOCH.equals(attribute) || CREATED_AT_EPOCH.equals(attribute) || COMPLETED_AT_EPOCH.equals(attribute);
+    }
+
+    public static Optional<LocalDateTime> parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            if (isCanonicalDate(value)) {
+                return Optional.of(LocalDateTime.of(
+                        digits(value, 0, 4), digits(value, 5, 7), digits(value, 8, 10),
+                        digits(value, 11, 13), digits(value, 14, 16), digits(value, 17, 19)));
+            }
+            return Optional.of(LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Every date this codec writes has the fixed {@code yyyy-MM-ddTHH:mm:ss} layout, which is
+     * read positionally; the general ISO parser is only used for legacy values.
+     */
+    private static boolean isCanonicalDate(String value) {
+        if (value.length() != 19 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return false;
+        }
+        for (int i = 0; i < 19; i++) {
+            char c = value.charAt(i);
+            if (i != 4 && i != 7 && i != 10 && i != 13 && i != 16 && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static Optional<TaskStatus> parseStatus(String value) {
+        try {
+            return Optional.of(TaskStatus.valueOf(value.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void decode(Field field, Task task, String raw) {
+        if (raw == null || raw.isEmpty()) {
+            return;
+        }
+        try {
+            field.decoder.accept(task, raw);
+        } catch (RuntimeException ignored) {
+            // A malformed attribute leaves the field at its default, as the old parsers did
+        }
+    }
+
+    private static Field stringField(String name, Function<Task, String> getter, BiConsumer<Task, String> setter) {
+        return new Field(name,
+                task -> getter.apply(task) == null ? null : AttributeValue.fromS(getter.apply(task)),
+                setter);
+    }
+
+    private static Field dateField(String name, Function<Task, LocalDateTime> getter, BiConsumer<Task, LocalDateTime> setter) {
+        return new Field(name,
+                task -> getter.apply(task) == null ? null : AttributeValue.fromS(formatDate(getter.apply(task))),
+                (task, raw) -> parseDate(raw).ifPresent(date -> setter.accept(task, date)));
+    }
+
+    private static Field epochField(String name, Function<Task, LocalDateTime> getter, BiConsumer<Task, LocalDateTime> setter) {
+        return new Field(name,
+                task -> getter.apply(task) == null ? null : epochValue(getter.apply(task)),
+                (task, raw) -> setter.accept(task, fromEpochMillis(Long.parseLong(raw))));
+    }
+
+    private record Field(String name, Function<Task, AttributeValue> encoder, BiConsumer<Task, String> decoder) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.amalitechtaskmanager.repository;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of raw task items and the key to continue from, or null on the last page.
+ */
+public record TaskPage(List<Map<String, AttributeValue>> items, Map<String, AttributeValue> lastEvaluatedKey) {
+}
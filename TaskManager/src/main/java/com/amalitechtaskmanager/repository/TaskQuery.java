@@ -0,0 +1,229 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.TaskStatus;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Describes a Query against one of the task indexes: the partition to read, an optional
+ * range on the index sort key, an optional status filter and the page to return.
+ * Built fluently and executed by {@link TaskRepository#query} or {@link TaskRepository#count}.
+ */
+public class TaskQuery {
+
+    public static final String USER_DEADLINE_INDEX = "userId-deadline-index";
+    public static final String STATUS_DEADLINE_INDEX = "status-deadline-index";
+    public static final String STATUS_CREATED_AT_INDEX = "status-createdAt-index";
+
+    private final String indexName;
+    private final String partitionAttribute;
+    private final String partitionValue;
+    private final String sortAttribute;
+    private Long sortFrom;
+    private Long sortTo;
+    private final Map<String, List<String>> filters = new LinkedHashMap<>();
+    private boolean ascending = true;
+    private int limit = 20;
+    private Map<String, AttributeValue> startKey;
+    private Set<String> projection;
+
+    private TaskQuery(String indexName, String partitionAttribute, String partitionValue, String sortAttribute) {
+        if (partitionValue == null || partitionValue.isEmpty()) {
+            throw new IllegalArgumentException(partitionAttribute + " is required to query " + indexName);
+        }
+        this.indexName = indexName;
+        this.partitionAttribute = partitionAttribute;
+        this.partitionValue = partitionValue;
+        this.sortAttribute = sortAttribute;
+    }
+
+    /**
+     * Tasks assigned to one user, ordered by deadline.
+     */
+    public static TaskQuery byAssignee(String userId) {
+        return new TaskQuery(USER_DEADLINE_INDEX, TaskItemCodec.USER_ID, userId, TaskItemCodec.DEADLINE_EPOCH);
+    }
+
+    /**
+     * Tasks in one status, ordered by the given date.
+     */
+    public static TaskQuery byStatus(TaskStatus status, TaskSort sort) {
+        return new TaskQuery(sort.getIndexName(), TaskItemCodec.STATUS, status.name(), sort.getAttribute());
+    }
+
+    /**
+     * Only tasks whose sort key is at or after the given epoch millis.
+     */
+    public TaskQuery from(long epochMillis) {
+        this.sortFrom = epochMillis;
+        return this;
+    }
+
+    /**
+     * Only tasks whose sort key is strictly before the given epoch millis.
+     */
+    public TaskQuery before(long epochMillis) {
+        this.sortTo = epochMillis - 1;
+        return this;
+    }
+
+    public TaskQuery status(TaskStatus status) {
+        return where(TaskItemCodec.STATUS, status.name());
+    }
+
+    /**
+     * Only tasks whose string attribute equals the value. Applied as a filter, so matching
+     * items still cost the read of every item in the key range.
+     *
+     * @throws IllegalArgumentException if the attribute is not in {@link TaskFilter#FILTERABLE}
+     */
+    public TaskQuery where(String attribute, String value) {
+        TaskFilter.requireFilterable(attribute);
+        filters.put(attribute, List.of(value));
+        return this;
+    }
+
+    /**
+     * Only tasks whose string attribute is one of the values.
+     */
+    public TaskQuery whereIn(String attribute, Collection<String> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("At least one " + attribute + " value is required");
+        }
+        TaskFilter.requireFilterable(attribute);
+        filters.put(attribute, List.copyOf(values));
+        return this;
+    }
+
+    public TaskQuery ascending(boolean ascending) {
+        this.ascending = ascending;
+        return this;
+    }
+
+    public TaskQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public TaskQuery startKey(Map<String, AttributeValue> startKey) {
+        this.startKey = startKey;
+        return this;
+    }
+
+    /**
+     * Restricts the returned attributes. The table and index keys are always added so that a
+     * cursor can be built from any returned item.
+     */
+    public TaskQuery project(Collection<String> attributes) {
+        this.projection = new LinkedHashSet<>(attributes);
+        this.projection.addAll(keyAttributes());
+        return this;
+    }
+
+    public Map<String, AttributeValue> getStartKey() {
+        return startKey;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getPartitionAttribute() {
+        return partitionAttribute;
+    }
+
+    public String getPartitionValue() {
+        return partitionValue;
+    }
+
+    public String getSortAttribute() {
+        return sortAttribute;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Identifies the set of items the query matches, independent of paging, order and projection.
+     */
+    public String signature() {
+        return indexName + "|" + partitionValue + "|" + sortFrom + "|" + sortTo + "|" + new TreeMap<>(filters);
+    }
+
+    public List<String> keyAttributes() {
+        return List.of(TaskItemCodec.TASK_ID, partitionAttribute, sortAttribute);
+    }
+
+    QueryRequest toRequest(String tableName, Map<String, AttributeValue> exclusiveStartKey, int pageLimit) {
+        return baseRequest(tableName, exclusiveStartKey, true).limit(pageLimit).build();
+    }
+
+    QueryRequest toCountRequest(String tableName, Map<String, AttributeValue> exclusiveStartKey) {
+        return baseRequest(tableName, exclusiveStartKey, false).select(Select.COUNT).build();
+    }
+
+    private QueryRequest.Builder baseRequest(String tableName, Map<String, AttributeValue> exclusiveStartKey,
+                                             boolean withProjection) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+
+        names.put("#pk", partitionAttribute);
+        values.put(":pk", AttributeValue.fromS(partitionValue));
+        StringBuilder keyCondition = new StringBuilder("#pk = :pk");
+        if (sortFrom != null || sortTo != null) {
+            names.put("#sk", sortAttribute);
+            if (sortFrom != null && sortTo != null) {
+                keyCondition.append(" AND #sk BETWEEN :skFrom AND :skTo");
+                values.put(":skFrom", AttributeValue.fromN(Long.toString(sortFrom)));
+                values.put(":skTo", AttributeValue.fromN(Long.toString(sortTo)));
+            } else if (sortFrom != null) {
+                keyCondition.append(" AND #sk >= :skFrom");
+                values.put(":skFrom", AttributeValue.fromN(Long.toString(sortFrom)));
+            } else {
+                keyCondition.append(" AND #sk <= :skTo");
+                values.put(":skTo", AttributeValue.fromN(Long.toString(sortTo)));
+            }
+        }
+
+        QueryRequest.Builder builder = QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(indexName)
+                .keyConditionExpression(keyCondition.toString())
+                .scanIndexForward(ascending)
+                .exclusiveStartKey(exclusiveStartKey);
+
+        if (!filters.isEmpty()) {
+            TaskFilter.Builder filter = TaskFilter.builder();
+            filters.forEach(filter::in);
+            TaskFilter compiled = filter.build();
+            names.putAll(compiled.names());
+            values.putAll(compiled.values());
+            builder.filterExpression(compiled.expression());
+        }
+
+        if (withProjection && projection != null) {
+            StringJoiner expression = new StringJoiner(", ");
+            int index = 0;
+            for (String attribute : projection) {
+                names.put("#f" + index, attribute);
+                expression.add("#f" + index);
+                index++;
+            }
+            builder.projectionExpression(expression.toString());
+        }
+
+        return builder.expressionAttributeNames(names).expressionAttributeValues(values);
+    }
+}
@@ -0,0 +1,130 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.utils.BoundedFanOut;
+import com.amalitechtaskmanager.utils.EnvUtils;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Runs several index queries that share a sort key, one per partition value (e.g. one per
+ * status or per assignee), and merges their results into one ordered page.
+ * <p>
+ * The first page of every query is read concurrently, at most MERGE_QUERY_CONCURRENCY at a
+ * time, each capped at the page limit, which is all a k-way merge of {@code limit} items can
+ * consume. The merge skips a task it has already emitted. The continuation is one start key
+ * per query, named by its partition value: the key of the last item taken from that query, or
+ * an empty key for a query nothing was taken from yet. Exhausted queries are left out, so they
+ * are not read again.
+ */
+public class TaskQueryMerger {
+
+    private static final int CONCURRENCY = EnvUtils.intFromEnv("MERGE_QUERY_CONCURRENCY", 8);
+
+    /**
+     * A merged page and the per-partition start keys of the next page, or null on the last page.
+     */
+    public record Page(List<Map<String, AttributeValue>> items, Map<String, Map<String, AttributeValue>> nextKeys) {
+    }
+
+    private record Head(int stream, int position, Map<String, AttributeValue> item) {
+    }
+
+    private final TaskRepository taskRepository;
+
+    public TaskQueryMerger(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * @param queries   queries with the same sort attribute and direction, distinct partition values
+     * @param startKeys the {@code nextKeys} of the previous page, or null for the first page
+     * @param limit     the page size
+     */
+    public Page query(List<TaskQuery> queries, Map<String, Map<String, AttributeValue>> startKeys, int limit) {
+        List<TaskQuery> active = new ArrayList<>();
+        for (TaskQuery query : queries) {
+            if (startKeys == null) {
+                active.add(query.limit(limit));
+            } else if (startKeys.containsKey(query.getPartitionValue())) {
+                Map<String, AttributeValue> startKey = startKeys.get(query.getPartitionValue());
+                active.add(query.limit(limit).startKey(startKey.isEmpty() ? null : startKey));
+            }
+        }
+        if (active.isEmpty()) {
+            return new Page(List.of(), null);
+        }
+
+        List<TaskPage> pages = fetch(active);
+        TaskQuery first = active.get(0);
+        Comparator<Head> order = comparator(first.getSortAttribute(), first.isAscending());
+
+        PriorityQueue<Head> heads = new PriorityQueue<>(order);
+        for (int stream = 0; stream < pages.size(); stream++) {
+            if (!pages.get(stream).items().isEmpty()) {
+                heads.add(new Head(stream, 0, pages.get(stream).items().get(0)));
+            }
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int[] consumed = new int[pages.size()];
+        while (items.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            consumed[head.stream()] = head.position() + 1;
+            if (seen.add(head.item().get(TaskItemCodec.TASK_ID).s())) {
+                items.add(head.item());
+            }
+            List<Map<String, AttributeValue>> streamItems = pages.get(head.stream()).items();
+            if (head.position() + 1 < streamItems.size()) {
+                heads.add(new Head(head.stream(), head.position() + 1, streamItems.get(head.position() + 1)));
+            }
+        }
+
+        Map<String, Map<String, AttributeValue>> nextKeys = new LinkedHashMap<>();
+        for (int stream = 0; stream < pages.size(); stream++) {
+            TaskQuery query = active.get(stream);
+            TaskPage page = pages.get(stream);
+            if (consumed[stream] < page.items().size()) {
+                // Items left over from this read are read again from the last taken one
+                nextKeys.put(query.getPartitionValue(), consumed[stream] == 0
+                        ? startKeyOrEmpty(query)
+                        : TaskRepository.keyOf(page.items().get(consumed[stream] - 1), query.keyAttributes()));
+            } else if (page.lastEvaluatedKey() != null) {
+                nextKeys.put(query.getPartitionValue(), page.lastEvaluatedKey());
+            }
+        }
+        return new Page(items, nextKeys.isEmpty() ? null : nextKeys);
+    }
+
+    private List<TaskPage> fetch(List<TaskQuery> queries) {
+        if (queries.size() == 1) {
+            return List.of(taskRepository.query(queries.get(0)));
+        }
+        return BoundedFanOut.run(IntStream.range(0, queries.size()).boxed().toList(), CONCURRENCY,
+                        index -> taskRepository.query(queries.get(index)))
+                .values().stream()
+                .map(result -> result.orThrow("Failed to query tasks"))
+                .toList();
+    }
+
+    private static Comparator<Head> comparator(String sortAttribute, boolean ascending) {
+        Comparator<Head> bySortKey = Comparator.comparingLong(head -> Long.parseLong(head.item().get(sortAttribute).n()));
+        if (!ascending) {
+            bySortKey = bySortKey.reversed();
+        }
+        return bySortKey.thenComparing(head -> head.item().get(TaskItemCodec.TASK_ID).s());
+    }
+
+    private static Map<String, AttributeValue> startKeyOrEmpty(TaskQuery query) {
+        return query.getStartKey() == null ? Map.of() : query.getStartKey();
+    }
+}
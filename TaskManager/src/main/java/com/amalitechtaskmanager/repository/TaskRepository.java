@@ -0,0 +1,388 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.exception.TaskUpdateConflictException;
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.utils.FieldSelection;
+import com.amalitechtaskmanager.utils.MetricsUtils;
+import com.amalitechtaskmanager.utils.TaskCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Single entry point for reading and writing task items.
+ * Items are converted with {@link TaskItemCodec}, reads go through the per-container
+ * {@link TaskCache} and all updates are partial and version guarded.
+ */
+public class TaskRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRepository.class);
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 20;
+    private static final long MAX_BACKOFF_MILLIS = 500;
+    private static final int MAX_QUERY_ROUND_TRIPS = 5;
+    private static final int MAX_BATCH_GET = 100;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public TaskRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Reads a task, served from the per-container cache.
+     */
+    public Optional<Task> findById(String taskId) {
+        return findById(taskId, false);
+    }
+
+    /**
+     * Reads a task; a strongly consistent read bypasses the cache and refreshes it.
+     */
+    public Optional<Task> findById(String taskId, boolean consistentRead) {
+        return findItemById(taskId, consistentRead).map(TaskItemCodec::fromItem);
+    }
+
+    public Optional<Map<String, AttributeValue>> findItemById(String taskId, boolean consistentRead) {
+        return TaskCache.getItem(dynamoDbClient, tableName, taskId, consistentRead);
+    }
+
+    /**
+     * Reads several tasks with BatchGetItem, bypassing the cache. Items are returned in the
+     * order of the given ids; ids without a task are left out.
+     */
+    public List<Map<String, AttributeValue>> findItemsByIds(List<String> taskIds) {
+        return findItemsByIds(taskIds, null);
+    }
+
+    /**
+     * Like {@link #findItemsByIds(List)}, reading only the selected attributes when fields is not null.
+     */
+    public List<Map<String, AttributeValue>> findItemsByIds(List<String> taskIds, FieldSelection fields) {
+        KeysAndAttributes.Builder template = KeysAndAttributes.builder();
+        if (fields != null) {
+            Map<String, String> names = new HashMap<>();
+            template.projectionExpression(fields.projectionExpression(names)).expressionAttributeNames(names);
+        }
+        Map<String, Map<String, AttributeValue>> found = new HashMap<>();
+        for (int start = 0; start < taskIds.size(); start += MAX_BATCH_GET) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String taskId : taskIds.subList(start, Math.min(taskIds.size(), start + MAX_BATCH_GET))) {
+                keys.add(Map.of(TaskItemCodec.TASK_ID, AttributeValue.fromS(taskId)));
+            }
+            Map<String, KeysAndAttributes> request = Map.of(tableName, template.keys(keys).build());
+            for (int attempt = 1; !request.isEmpty(); attempt++) {
+                if (attempt > MAX_UPDATE_ATTEMPTS) {
+                    throw new IllegalStateException("Batch read of tasks was throttled " + MAX_UPDATE_ATTEMPTS + " times");
+                }
+                if (attempt > 1) {
+                    sleepBeforeRetry(attempt);
+                }
+                BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(request)
+                        .build());
+                for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                    found.put(item.get(TaskItemCodec.TASK_ID).s(), item);
+                }
+                request = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+            }
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>(found.size());
+        for (String taskId : taskIds) {
+            Map<String, AttributeValue> item = found.get(taskId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Stores a new task at version 1. Fails if an item with the same taskId already exists.
+     */
+    public void create(Task task) {
+        task.setVersion(1L);
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(TaskItemCodec.toItem(task))
+                .conditionExpression("attribute_not_exists(#taskId)")
+                .expressionAttributeNames(Map.of("#taskId", TaskItemCodec.TASK_ID))
+                .build());
+    }
+
+    public void delete(String taskId) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of(TaskItemCodec.TASK_ID, AttributeValue.fromS(taskId)))
+                .build());
+        TaskCache.invalidate(taskId);
+    }
+
+    /**
+     * Applies a partial, version-guarded update to a task.
+     *
+     * @return the attributes written by the update, including the new version
+     * @throws ConditionalCheckFailedException if the task was modified since it was read
+     */
+    public Map<String, AttributeValue> update(TaskUpdateBuilder update) {
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(update.build(tableName));
+            return response.attributes();
+        } finally {
+            // Either the cached copy is now outdated or it lost the version check
+            TaskCache.invalidate(update.getTaskId());
+        }
+    }
+
+    /**
+     * Runs a read-modify-write cycle on a task, retrying when a concurrent writer wins.
+     * The mutation is applied to the given task first; after a conflict the task is re-read
+     * with a strongly consistent read and the mutation is applied again to the fresh state,
+     * after a jittered exponential backoff. Returning null from the mutation means that no
+     * write is needed for the current state of the task.
+     *
+     * @param operation name used as the metric dimension for conflict counts
+     * @return the task as written, or null if the task no longer exists or the mutation declined to write
+     * @throws TaskUpdateConflictException if every attempt lost the race
+     */
+    public Task updateWithRetry(Task task, String operation, Function<Task, TaskUpdateBuilder> mutation) {
+        Task current = task;
+        for (int attempt = 1; current != null; attempt++) {
+            TaskUpdateBuilder update = mutation.apply(current);
+            if (update == null) {
+                return null;
+            }
+            try {
+                Map<String, AttributeValue> written = update(update);
+                current.setVersion(written.containsKey(TaskItemCodec.VERSION)
+                        ? Long.valueOf(written.get(TaskItemCodec.VERSION).n())
+                        : update.getNextVersion());
+                return current;
+            } catch (ConditionalCheckFailedException e) {
+                MetricsUtils.count("TaskWriteConflicts", 1, "Operation", operation);
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    MetricsUtils.count("TaskWriteConflictsExhausted", 1, "Operation", operation);
+                    throw new TaskUpdateConflictException("Task " + task.getTaskId() + " kept changing during " + operation);
+                }
+                logger.info("Version conflict on task {} during {} (attempt {}), retrying", task.getTaskId(), operation, attempt);
+                backoff(attempt);
+                current = findById(task.getTaskId(), true).orElse(null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads one page of a task index query. With a status filter DynamoDB may return short
+     * pages, so further pages are read until the limit is reached or {@link #MAX_QUERY_ROUND_TRIPS}
+     * requests were made. The cursor key is taken from the last returned item, so no item is
+     * skipped or returned twice when a DynamoDB page is only partly used.
+     */
+    public TaskPage query(TaskQuery query) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        Map<String, AttributeValue> startKey = query.getStartKey();
+        for (int roundTrip = 0; roundTrip < MAX_QUERY_ROUND_TRIPS; roundTrip++) {
+            QueryResponse response = dynamoDbClient.query(query.toRequest(tableName, startKey, query.getLimit() - items.size()));
+            for (Map<String, AttributeValue> item : response.items()) {
+                items.add(item);
+                if (items.size() == query.getLimit()) {
+                    return new TaskPage(items, keyOf(item, query.keyAttributes()));
+                }
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+            if (startKey == null) {
+                return new TaskPage(items, null);
+            }
+        }
+        return new TaskPage(items, startKey);
+    }
+
+    /**
+     * Counts the items matching a query without reading them back.
+     */
+    public long count(TaskQuery query) {
+        long count = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryResponse response = dynamoDbClient.query(query.toCountRequest(tableName, startKey));
+            count += response.count();
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+        } while (startKey != null);
+        return count;
+    }
+
+    static Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item, List<String> keyAttributes) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        for (String attribute : keyAttributes) {
+            key.put(attribute, item.get(attribute));
+        }
+        return key;
+    }
+
+    /**
+     * Adds the epoch-millis companions for string dates that do not have one yet.
+     * The write is conditional on the string values being unchanged, so an item rewritten
+     * concurrently (which dual-writes both forms itself) is left alone. The version is not
+     * bumped because the task itself does not change.
+     *
+     * @return true if the item was updated
+     */
+    public boolean addMissingEpochAttributes(Map<String, AttributeValue> item) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        StringJoiner setClause = new StringJoiner(", ", "SET ", "");
+        StringJoiner condition = new StringJoiner(" AND ");
+        names.put("#taskId", TaskItemCodec.TASK_ID);
+        condition.add("attribute_exists(#taskId)");
+
+        int index = 0;
+        for (Map.Entry<String, String> entry : TaskItemCodec.EPOCH_ATTRIBUTES.entrySet()) {
+            AttributeValue raw = item.get(entry.getKey());
+            if (raw == null || raw.s() == null || item.containsKey(entry.getValue())) {
+                continue;
+            }
+            Optional<LocalDateTime> date = TaskItemCodec.parseDate(raw.s());
+            if (date.isEmpty()) {
+                logger.warn("Task {} has an unparseable {} value '{}'", item.get(TaskItemCodec.TASK_ID).s(), entry.getKey(), raw.s());
+                continue;
+            }
+            names.put("#d" + index, entry.getKey());
+            names.put("#e" + index, entry.getValue());
+            values.put(":d" + index, raw);
+            values.put(":e" + index, TaskItemCodec.epochValue(date.get()));
+            setClause.add("#e" + index + " = :e" + index);
+            condition.add("#d" + index + " = :d" + index);
+            index++;
+        }
+        if (index == 0) {
+            return false;
+        }
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of(TaskItemCodec.TASK_ID, item.get(TaskItemCodec.TASK_ID)))
+                    .updateExpression(setClause.toString())
+                    .conditionExpression(condition.toString())
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            logger.info("Task {} changed while adding epoch attributes, skipping", item.get(TaskItemCodec.TASK_ID).s());
+            return false;
+        }
+    }
+
+    /**
+     * Records the zone of a task written before tasks kept one. Those deadlines were stored as
+     * the wall time the creator typed; unless that was UTC the deadline is converted from the
+     * legacy zone and the version is bumped so the timers of the old deadline go stale and the
+     * stream reschedules them. The write is conditional on the task having no zone and an
+     * unchanged deadline, so a task rewritten concurrently is left alone.
+     *
+     * @return true if the item was updated
+     */
+    public boolean migrateTimeZone(Map<String, AttributeValue> item, ZoneId legacyZone) {
+        String taskId = item.get(TaskItemCodec.TASK_ID).s();
+        if (item.containsKey(TaskItemCodec.TIME_ZONE)) {
+            return false;
+        }
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        StringJoiner setClause = new StringJoiner(", ", "SET ", "");
+        names.put("#taskId", TaskItemCodec.TASK_ID);
+        names.put("#timeZone", TaskItemCodec.TIME_ZONE);
+        values.put(":timeZone", AttributeValue.fromS(legacyZone.getId()));
+        setClause.add("#timeZone = :timeZone");
+        String condition = "attribute_exists(#taskId) AND attribute_not_exists(#timeZone)";
+
+        AttributeValue raw = item.get(TaskItemCodec.DEADLINE);
+        Optional<LocalDateTime> deadline = raw == null || raw.s() == null ? Optional.empty() : TaskItemCodec.parseDate(raw.s());
+        if (raw != null && raw.s() != null && deadline.isEmpty()) {
+            logger.warn("Task {} has an unparseable {} value '{}'", taskId, TaskItemCodec.DEADLINE, raw.s());
+        }
+        if (deadline.isPresent() && !legacyZone.normalized().equals(ZoneOffset.UTC)) {
+            LocalDateTime utc = deadline.get().atZone(legacyZone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+            names.put("#deadline", TaskItemCodec.DEADLINE);
+            names.put("#deadlineEpoch", TaskItemCodec.DEADLINE_EPOCH);
+            names.put("#version", TaskItemCodec.VERSION);
+            values.put(":oldDeadline", raw);
+            values.put(":deadline", AttributeValue.fromS(TaskItemCodec.formatDate(utc)));
+            values.put(":deadlineEpoch", TaskItemCodec.epochValue(utc));
+            values.put(":zero", AttributeValue.fromN("0"));
+            values.put(":one", AttributeValue.fromN("1"));
+            setClause.add("#deadline = :deadline");
+            setClause.add("#deadlineEpoch = :deadlineEpoch");
+            setClause.add("#version = if_not_exists(#version, :zero) + :one");
+            condition += " AND #deadline = :oldDeadline";
+        }
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of(TaskItemCodec.TASK_ID, item.get(TaskItemCodec.TASK_ID)))
+                    .updateExpression(setClause.toString())
+                    .conditionExpression(condition)
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .build());
+            TaskCache.invalidate(taskId);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            logger.info("Task {} changed while migrating its time zone, skipping", taskId);
+            return false;
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            sleepBeforeRetry(attempt);
+        } catch (IllegalStateException e) {
+            throw new TaskUpdateConflictException("Interrupted while retrying task update");
+        }
+    }
+
+    /**
+     * Sleeps for a jittered exponential backoff.
+     */
+    static void sleepBeforeRetry(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+}
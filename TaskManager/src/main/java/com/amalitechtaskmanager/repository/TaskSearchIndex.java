@@ -0,0 +1,311 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.utils.SearchTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Inverted index over task names and descriptions, kept in its own table.
+ * <p>
+ * Every (term, task) pair is one item. The partition key {@code bucket} holds the first
+ * characters of the term and the sort key {@code entry} is {@code term#taskId}, so both a
+ * term and a term prefix are read with a single begins_with Query. Each posting carries the
+ * term positions in the name ({@code np}) and description ({@code dp}) for phrase matching,
+ * plus the task status, assignee and deadline so that DynamoDB applies the search filters
+ * while the posting list is read. The Tasks stream keeps the index up to date through
+ * {@link #apply}, which only writes the postings that changed.
+ */
+public class TaskSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    public static final String BUCKET = "bucket";
+    public static final String ENTRY = "entry";
+    private static final String NAME_POSITIONS = "np";
+    private static final String DESCRIPTION_POSITIONS = "dp";
+    private static final int BUCKET_LENGTH = SearchTokenizer.MIN_TERM_LENGTH;
+    private static final int MAX_POSTINGS_READ = 10_000;
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+
+    private record Posting(Set<Integer> namePositions, Set<Integer> descriptionPositions, Long deadlineEpoch) {
+    }
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public TaskSearchIndex(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Moves the index from one version of a task to the next. Either side may be null for
+     * a created or deleted task. Postings that are identical in both versions are not rewritten.
+     */
+    public void apply(Task before, Task after) {
+        Map<String, Map<String, AttributeValue>> oldPostings = postings(before);
+        Map<String, Map<String, AttributeValue>> newPostings = postings(after);
+
+        List<WriteRequest> writes = new ArrayList<>();
+        for (Map.Entry<String, Map<String, AttributeValue>> posting : oldPostings.entrySet()) {
+            if (!newPostings.containsKey(posting.getKey())) {
+                writes.add(WriteRequest.builder().deleteRequest(DeleteRequest.builder()
+                        .key(Map.of(BUCKET, posting.getValue().get(BUCKET), ENTRY, posting.getValue().get(ENTRY)))
+                        .build()).build());
+            }
+        }
+        for (Map.Entry<String, Map<String, AttributeValue>> posting : newPostings.entrySet()) {
+            if (!posting.getValue().equals(oldPostings.get(posting.getKey()))) {
+                writes.add(WriteRequest.builder().putRequest(PutRequest.builder()
+                        .item(posting.getValue())
+                        .build()).build());
+            }
+        }
+        write(writes);
+    }
+
+    /**
+     * Finds the tasks matching every clause of the query, ordered by deadline (tasks without
+     * one last), at most {@link TaskSearchQuery#getLimit()} of them.
+     *
+     * @throws IllegalArgumentException if a clause matches more postings than a search may read
+     */
+    public List<String> search(TaskSearchQuery query) {
+        Map<String, Posting> matches = null;
+        for (TaskSearchQuery.Clause clause : query.getClauses()) {
+            Map<String, Posting> clauseMatches = match(clause, query);
+            if (matches == null) {
+                matches = clauseMatches;
+            } else {
+                matches.keySet().retainAll(clauseMatches.keySet());
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+
+        Comparator<Map.Entry<String, Posting>> byDeadline = Comparator.comparing(
+                entry -> entry.getValue().deadlineEpoch(), Comparator.nullsLast(Comparator.naturalOrder()));
+        return matches.entrySet().stream()
+                .sorted(byDeadline.thenComparing(Map.Entry::getKey))
+                .limit(query.getLimit())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<String, Posting> match(TaskSearchQuery.Clause clause, TaskSearchQuery query) {
+        if (!clause.isPhrase()) {
+            return read(clause.terms().get(0), clause.prefix(), query);
+        }
+
+        List<Map<String, Posting>> termPostings = new ArrayList<>();
+        Map<String, Posting> candidates = null;
+        for (String term : clause.terms()) {
+            Map<String, Posting> postings = read(term, false, query);
+            termPostings.add(postings);
+            if (candidates == null) {
+                candidates = new HashMap<>(postings);
+            } else {
+                candidates.keySet().retainAll(postings.keySet());
+            }
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+
+        candidates.keySet().removeIf(taskId ->
+                !containsPhrase(termPostings, taskId, Posting::namePositions)
+                        && !containsPhrase(termPostings, taskId, Posting::descriptionPositions));
+        return candidates;
+    }
+
+    private static boolean containsPhrase(List<Map<String, Posting>> termPostings, String taskId,
+                                          Function<Posting, Set<Integer>> field) {
+        for (int start : field.apply(termPostings.get(0).get(taskId))) {
+            boolean matched = true;
+            for (int offset = 1; offset < termPostings.size() && matched; offset++) {
+                matched = field.apply(termPostings.get(offset).get(taskId)).contains(start + offset);
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the posting list of a term, or the union of the lists of every term with the prefix.
+     */
+    private Map<String, Posting> read(String term, boolean prefix, TaskSearchQuery query) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        names.put("#b", BUCKET);
+        names.put("#e", ENTRY);
+        values.put(":b", AttributeValue.fromS(bucketOf(term)));
+        values.put(":e", AttributeValue.fromS(prefix ? term : term + "#"));
+
+        names.put("#t", TaskItemCodec.TASK_ID);
+        names.put("#np", NAME_POSITIONS);
+        names.put("#dp", DESCRIPTION_POSITIONS);
+        names.put("#d", TaskItemCodec.DEADLINE_EPOCH);
+
+        TaskFilter.Builder filterBuilder = TaskFilter.builder();
+        if (query.getStatus() != null) {
+            filterBuilder.eq(TaskItemCodec.STATUS, query.getStatus().name());
+        }
+        if (query.getUserId() != null) {
+            filterBuilder.eq(TaskItemCodec.USER_ID, query.getUserId());
+        }
+        if (query.getDeadlineFrom() != null) {
+            filterBuilder.atLeast(TaskItemCodec.DEADLINE_EPOCH, AttributeValue.fromN(Long.toString(query.getDeadlineFrom())));
+        }
+        if (query.getDeadlineTo() != null) {
+            filterBuilder.atMost(TaskItemCodec.DEADLINE_EPOCH, AttributeValue.fromN(Long.toString(query.getDeadlineTo())));
+        }
+        TaskFilter filter = filterBuilder.build();
+        names.putAll(filter.names());
+        values.putAll(filter.values());
+
+        QueryRequest.Builder request = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("#b = :b AND begins_with(#e, :e)")
+                .projectionExpression("#t, #np, #dp, #d")
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values);
+        if (!filter.isEmpty()) {
+            request.filterExpression(filter.expression());
+        }
+
+        Map<String, Posting> postings = new HashMap<>();
+        Map<String, AttributeValue> startKey = null;
+        int read = 0;
+        do {
+            QueryResponse response = dynamoDbClient.query(request.exclusiveStartKey(startKey).build());
+            read += response.scannedCount();
+            if (read > MAX_POSTINGS_READ) {
+                throw new IllegalArgumentException("'" + term + (prefix ? "*" : "")
+                        + "' matches too many tasks, add more words or filters");
+            }
+            for (Map<String, AttributeValue> item : response.items()) {
+                Posting posting = new Posting(positions(item.get(NAME_POSITIONS)), positions(item.get(DESCRIPTION_POSITIONS)),
+                        item.containsKey(TaskItemCodec.DEADLINE_EPOCH) ? Long.valueOf(item.get(TaskItemCodec.DEADLINE_EPOCH).n()) : null);
+                // A prefix can match several terms of the same task, any of them will do
+                postings.putIfAbsent(item.get(TaskItemCodec.TASK_ID).s(), posting);
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey()
+                    : null;
+        } while (startKey != null);
+        return postings;
+    }
+
+    private static Set<Integer> positions(AttributeValue value) {
+        if (value == null || !value.hasNs()) {
+            return Set.of();
+        }
+        Set<Integer> positions = new HashSet<>();
+        for (String position : value.ns()) {
+            positions.add(Integer.valueOf(position));
+        }
+        return positions;
+    }
+
+    /**
+     * The index items for a task, keyed by their sort key.
+     */
+    private static Map<String, Map<String, AttributeValue>> postings(Task task) {
+        Map<String, Map<String, AttributeValue>> postings = new LinkedHashMap<>();
+        if (task == null || task.getTaskId() == null) {
+            return postings;
+        }
+
+        Map<String, TreeSet<Integer>> namePositions = termPositions(task.getName());
+        Map<String, TreeSet<Integer>> descriptionPositions = termPositions(task.getDescription());
+        Set<String> terms = new TreeSet<>(namePositions.keySet());
+        terms.addAll(descriptionPositions.keySet());
+
+        for (String term : terms) {
+            String entry = term + "#" + task.getTaskId();
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put(BUCKET, AttributeValue.fromS(bucketOf(term)));
+            item.put(ENTRY, AttributeValue.fromS(entry));
+            item.put(TaskItemCodec.TASK_ID, AttributeValue.fromS(task.getTaskId()));
+            putPositions(item, NAME_POSITIONS, namePositions.get(term));
+            putPositions(item, DESCRIPTION_POSITIONS, descriptionPositions.get(term));
+            if (task.getStatus() != null) {
+                item.put(TaskItemCodec.STATUS, AttributeValue.fromS(task.getStatus().name()));
+            }
+            if (task.getUserId() != null) {
+                item.put(TaskItemCodec.USER_ID, AttributeValue.fromS(task.getUserId()));
+            }
+            if (task.getDeadline() != null) {
+                item.put(TaskItemCodec.DEADLINE_EPOCH, TaskItemCodec.epochValue(task.getDeadline()));
+            }
+            postings.put(entry, item);
+        }
+        return postings;
+    }
+
+    private static Map<String, TreeSet<Integer>> termPositions(String text) {
+        Map<String, TreeSet<Integer>> positions = new TreeMap<>();
+        List<String> terms = SearchTokenizer.tokenize(text);
+        for (int position = 0; position < terms.size(); position++) {
+            positions.computeIfAbsent(terms.get(position), term -> new TreeSet<>()).add(position);
+        }
+        return positions;
+    }
+
+    private static void putPositions(Map<String, AttributeValue> item, String attribute, TreeSet<Integer> positions) {
+        // Number sets cannot be empty, a term missing from a field has no attribute for it
+        if (positions != null) {
+            item.put(attribute, AttributeValue.fromNs(positions.stream().map(String::valueOf).toList()));
+        }
+    }
+
+    private static String bucketOf(String term) {
+        return term.substring(0, BUCKET_LENGTH);
+    }
+
+    private void write(List<WriteRequest> writes) {
+        for (int start = 0; start < writes.size(); start += MAX_BATCH_WRITE) {
+            Map<String, List<WriteRequest>> request =
+                    Map.of(tableName, writes.subList(start, Math.min(writes.size(), start + MAX_BATCH_WRITE)));
+            for (int attempt = 1; !request.isEmpty(); attempt++) {
+                if (attempt > MAX_BATCH_ATTEMPTS) {
+                    throw new IllegalStateException("Search index writes were throttled " + MAX_BATCH_ATTEMPTS + " times");
+                }
+                if (attempt > 1) {
+                    logger.info("Retrying {} unprocessed search index writes", request.get(tableName).size());
+                    TaskRepository.sleepBeforeRetry(attempt);
+                }
+                BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(request)
+                        .build());
+                request = response.hasUnprocessedItems() ? response.unprocessedItems() : Map.of();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.utils.SearchTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parsed keyword search plus the filters applied to it, executed by {@link TaskSearchIndex#search}.
+ * <p>
+ * The query text is a list of clauses that must all match: a bare word matches the term,
+ * a word ending in {@code *} matches any term starting with it and a quoted
+ * {@code "release notes"} matches the words next to each other in the name or description.
+ */
+public class TaskSearchQuery {
+
+    public static final int MAX_CLAUSES = 8;
+
+    /**
+     * One or more terms; several terms form a phrase. A prefix clause always has one term.
+     */
+    public record Clause(List<String> terms, boolean prefix) {
+
+        public boolean isPhrase() {
+            return terms.size() > 1;
+        }
+    }
+
+    private final List<Clause> clauses;
+    private TaskStatus status;
+    private String userId;
+    private Long deadlineFrom;
+    private Long deadlineTo;
+    private int limit = 20;
+
+    private TaskSearchQuery(List<Clause> clauses) {
+        this.clauses = clauses;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text has no searchable term, too many clauses or an unclosed quote
+     */
+    public static TaskSearchQuery parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+
+        List<Clause> clauses = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed quote in q");
+                }
+                List<String> terms = SearchTokenizer.tokenize(text.substring(i + 1, end));
+                if (!terms.isEmpty()) {
+                    clauses.add(new Clause(terms, false));
+                }
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '"') {
+                    end++;
+                }
+                addWord(clauses, text.substring(i, end));
+                i = end;
+            }
+        }
+
+        if (clauses.isEmpty()) {
+            throw new IllegalArgumentException("q must contain a word of at least " + SearchTokenizer.MIN_TERM_LENGTH + " characters");
+        }
+        if (clauses.size() > MAX_CLAUSES) {
+            throw new IllegalArgumentException("q can have at most " + MAX_CLAUSES + " words or phrases");
+        }
+        return new TaskSearchQuery(clauses);
+    }
+
+    private static void addWord(List<Clause> clauses, String word) {
+        boolean prefix = word.endsWith("*");
+        List<String> terms = SearchTokenizer.tokenize(prefix ? word.substring(0, word.length() - 1) : word);
+        for (int t = 0; t < terms.size(); t++) {
+            // In "front-end*" only the last part is a prefix
+            clauses.add(new Clause(List.of(terms.get(t)), prefix && t == terms.size() - 1));
+        }
+    }
+
+    public TaskSearchQuery status(TaskStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    public TaskSearchQuery assignee(String userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    /**
+     * Only tasks whose deadline is at or after the given epoch millis.
+     */
+    public TaskSearchQuery deadlineFrom(long epochMillis) {
+        this.deadlineFrom = epochMillis;
+        return this;
+    }
+
+    /**
+     * Only tasks whose deadline is at or before the given epoch millis.
+     */
+    public TaskSearchQuery deadlineTo(long epochMillis) {
+        this.deadlineTo = epochMillis;
+        return this;
+    }
+
+    public TaskSearchQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public List<Clause> getClauses() {
+        return clauses;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getDeadlineFrom() {
+        return deadlineFrom;
+    }
+
+    public Long getDeadlineTo() {
+        return deadlineTo;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
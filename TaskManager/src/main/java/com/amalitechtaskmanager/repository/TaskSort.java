@@ -0,0 +1,40 @@
+package com.amalitechtaskmanager.repository;
+
+/**
+ * Orders a task listing can be sorted by, each backed by a GSI partitioned by status.
+ */
+public enum TaskSort {
+
+    DEADLINE("deadline", TaskQuery.STATUS_DEADLINE_INDEX, TaskItemCodec.DEADLINE_EPOCH),
+    CREATED_AT("createdAt", TaskQuery.STATUS_CREATED_AT_INDEX, TaskItemCodec.CREATED_AT_EPOCH);
+
+    private final String param;
+    private final String indexName;
+    private final String attribute;
+
+    TaskSort(String param, String indexName, String attribute) {
+        this.param = param;
+        this.indexName = indexName;
+        this.attribute = attribute;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not a supported sort
+     */
+    public static TaskSort fromParam(String value) {
+        for (TaskSort sort : values()) {
+            if (sort.param.equals(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("sort must be deadline or createdAt");
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+}
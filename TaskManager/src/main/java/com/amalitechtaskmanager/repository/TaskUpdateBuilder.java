@@ -0,0 +1,148 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TaskStatus;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Builds a minimal UpdateItem request for a single task.
+ * Only the attributes touched through this builder end up in the SET / REMOVE clauses,
+ * so attributes the caller does not know about are left untouched on the item.
+ * The write is conditional on the version the task was read at.
+ */
+public class TaskUpdateBuilder {
+
+    public static final String VERSION_ATTRIBUTE = TaskItemCodec.VERSION;
+
+    private final String taskId;
+    private final Long expectedVersion;
+    private final Map<String, AttributeValue> setAttributes = new LinkedHashMap<>();
+    private final Set<String> removeAttributes = new LinkedHashSet<>();
+
+    private TaskUpdateBuilder(String taskId, Long expectedVersion) {
+        if (taskId == null || taskId.isEmpty()) {
+            throw new IllegalArgumentException("taskId is required to build a task update");
+        }
+        this.taskId = taskId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    /**
+     * Starts an update guarded by the version the given task was read at.
+     * Items written before versioning was introduced have no version and are matched
+     * with attribute_not_exists instead.
+     */
+    public static TaskUpdateBuilder forTask(Task task) {
+        return new TaskUpdateBuilder(task.getTaskId(), task.getVersion());
+    }
+
+    public TaskUpdateBuilder status(TaskStatus status) {
+        return set(TaskItemCodec.STATUS, AttributeValue.fromS(status.toString()));
+    }
+
+    public TaskUpdateBuilder userId(String userId) {
+        return set(TaskItemCodec.USER_ID, AttributeValue.fromS(userId));
+    }
+
+    public TaskUpdateBuilder deadline(LocalDateTime deadline) {
+        return date(TaskItemCodec.DEADLINE, deadline);
+    }
+
+    public TaskUpdateBuilder completedAt(LocalDateTime completedAt) {
+        return date(TaskItemCodec.COMPLETED_AT, completedAt);
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getNextVersion() {
+        return expectedVersion == null ? 1L : expectedVersion + 1;
+    }
+
+    public UpdateItemRequest build(String tableName) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+
+        StringJoiner setClause = new StringJoiner(", ", "SET ", "");
+        int index = 0;
+        for (Map.Entry<String, AttributeValue> entry : setAttributes.entrySet()) {
+            names.put("#s" + index, entry.getKey());
+            values.put(":s" + index, entry.getValue());
+            setClause.add("#s" + index + " = :s" + index);
+            index++;
+        }
+        names.put("#version", VERSION_ATTRIBUTE);
+        values.put(":nextVersion", AttributeValue.fromN(Long.toString(getNextVersion())));
+        setClause.add("#version = :nextVersion");
+
+        StringBuilder updateExpression = new StringBuilder(setClause.toString());
+        if (!removeAttributes.isEmpty()) {
+            StringJoiner removeClause = new StringJoiner(", ", " REMOVE ", "");
+            index = 0;
+            for (String attribute : removeAttributes) {
+                names.put("#r" + index, attribute);
+                removeClause.add("#r" + index);
+                index++;
+            }
+            updateExpression.append(removeClause);
+        }
+
+        names.put("#taskId", TaskItemCodec.TASK_ID);
+        String conditionExpression;
+        if (expectedVersion == null) {
+            conditionExpression = "attribute_exists(#taskId) AND attribute_not_exists(#version)";
+        } else {
+            conditionExpression = "attribute_exists(#taskId) AND #version = :expectedVersion";
+            values.put(":expectedVersion", AttributeValue.fromN(Long.toString(expectedVersion)));
+        }
+
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of(TaskItemCodec.TASK_ID, AttributeValue.fromS(taskId)))
+                .updateExpression(updateExpression.toString())
+                .conditionExpression(conditionExpression)
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .returnValues(ReturnValue.UPDATED_NEW)
+                .build();
+    }
+
+    /**
+     * Writes a date as its ISO string and its epoch-millis companion, or removes both.
+     */
+    private TaskUpdateBuilder date(String attribute, LocalDateTime value) {
+        String epochAttribute = TaskItemCodec.EPOCH_ATTRIBUTES.get(attribute);
+        if (value == null) {
+            return remove(attribute).remove(epochAttribute);
+        }
+        return set(attribute, AttributeValue.fromS(TaskItemCodec.formatDate(value)))
+                .set(epochAttribute, TaskItemCodec.epochValue(value));
+    }
+
+    private TaskUpdateBuilder set(String attribute, AttributeValue value) {
+        removeAttributes.remove(attribute);
+        setAttributes.put(attribute, value);
+        return this;
+    }
+
+    private TaskUpdateBuilder remove(String attribute) {
+        setAttributes.remove(attribute);
+        removeAttributes.add(attribute);
+        return this;
+    }
+}
@@ -0,0 +1,305 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.model.TimerPayload;
+import com.amalitechtaskmanager.utils.EnvUtils;
+import com.amalitechtaskmanager.utils.TaskTimers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Task timers kept in DynamoDB, drained once a minute by {@code TimerTickHandler} instead of
+ * one EventBridge schedule per timer.
+ * <p>
+ * The table holds two kinds of items:
+ * <ul>
+ *   <li>due entries, partitioned by the minute they fire in: {@code bucket = due#<epochMinute>#<shard>},
+ *   {@code entry = <fireAtMillis>#<taskId>#<kind>}. The shard spreads a busy minute over several partitions.</li>
+ *   <li>one pointer per task and kind: {@code bucket = timer#<taskId>}, {@code entry = <kind>}, holding the
+ *   generation of the live timer.</li>
+ * </ul>
+ * Scheduling writes the due entries of a set (such as every stage of a reminder policy) under
+ * one new generation and points the pointer at it; cancelling deletes the pointer. Both are one
+ * request, whatever the number of timers, and cancelling every kind of a task is one batch. A due entry whose generation
+ * no longer matches its pointer was cancelled or rescheduled and is dropped when its bucket is
+ * drained. Buckets are absolute minutes, so the wheel never wraps and needs no overflow levels;
+ * items carry an {@code expiresAt} TTL in case a bucket is never drained.
+ */
+public class TimerWheel implements TaskTimers {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+    public static final String BUCKET = "bucket";
+    public static final String ENTRY = "entry";
+    private static final String TASK_ID = "taskId";
+    private static final String KIND = "kind";
+    private static final String FIRE_AT = "fireAt";
+    private static final String GENERATION = "generation";
+    private static final String VERSION = "version";
+    private static final String OFFSET = "offset";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private static final String DUE_PREFIX = "due#";
+    private static final String POINTER_PREFIX = "timer#";
+    private static final int SHARDS = EnvUtils.intFromEnv("TIMER_BUCKET_SHARDS", 4);
+    private static final long RETENTION_SECONDS = Duration.ofDays(7).toSeconds();
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+
+    /**
+     * A timer whose bucket is being drained.
+     */
+    public record DueTimer(String taskId, TimerKind kind, long fireAtMillis, Long version, Long offsetMillis) {
+
+        public TimerPayload payload() {
+            return new TimerPayload(taskId, version, kind, fireAtMillis, offsetMillis);
+        }
+    }
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    public TimerWheel(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * All timers of the set share one generation, so the set is written with its pointer in a
+     * single batch and superseded or cancelled as a whole. A timer due in a minute that was
+     * already drained lands in the current minute's bucket.
+     */
+    @Override
+    public void schedule(Task task, TimerKind kind, List<OffsetDateTime> fireTimes) {
+        String taskId = task.getTaskId();
+        if (fireTimes.isEmpty()) {
+            cancel(taskId, kind);
+            return;
+        }
+        long currentMinute = epochMinute(System.currentTimeMillis());
+        String generation = UUID.randomUUID().toString();
+
+        List<WriteRequest> writes = new ArrayList<>();
+        long lastFireAtMillis = 0;
+        for (OffsetDateTime fireAt : fireTimes) {
+            long fireAtMillis = fireAt.toInstant().toEpochMilli();
+            lastFireAtMillis = Math.max(lastFireAtMillis, fireAtMillis);
+            Map<String, AttributeValue> due = new HashMap<>();
+            due.put(BUCKET, AttributeValue.fromS(dueBucket(Math.max(epochMinute(fireAtMillis), currentMinute), taskId)));
+            due.put(ENTRY, AttributeValue.fromS(fireAtMillis + "#" + taskId + "#" + kind.name()));
+            due.put(TASK_ID, AttributeValue.fromS(taskId));
+            due.put(KIND, AttributeValue.fromS(kind.name()));
+            due.put(FIRE_AT, AttributeValue.fromN(Long.toString(fireAtMillis)));
+            due.put(GENERATION, AttributeValue.fromS(generation));
+            due.put(EXPIRES_AT, expiresAt(fireAtMillis));
+            if (task.getVersion() != null) {
+                due.put(VERSION, AttributeValue.fromN(task.getVersion().toString()));
+            }
+            Long offsetMillis = TimerPayload.offsetOf(task, kind, fireAtMillis);
+            if (offsetMillis != null) {
+                due.put(OFFSET, AttributeValue.fromN(offsetMillis.toString()));
+            }
+            writes.add(WriteRequest.builder().putRequest(PutRequest.builder().item(due).build()).build());
+        }
+
+        Map<String, AttributeValue> pointer = new HashMap<>(pointerKey(taskId, kind));
+        pointer.put(GENERATION, AttributeValue.fromS(generation));
+        pointer.put(EXPIRES_AT, expiresAt(lastFireAtMillis));
+        writes.add(WriteRequest.builder().putRequest(PutRequest.builder().item(pointer).build()).build());
+
+        // Whichever write lands first, the entries only fire once the pointer names their generation
+        write(writes);
+        logger.debug("Scheduled {} {} timers for task {}", fireTimes.size(), kind, taskId);
+    }
+
+    @Override
+    public void cancel(String taskId, TimerKind kind) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(pointerKey(taskId, kind))
+                .build());
+    }
+
+    @Override
+    public void cancelAll(String taskId) {
+        List<WriteRequest> deletes = new ArrayList<>();
+        for (TimerKind kind : TimerKind.values()) {
+            deletes.add(WriteRequest.builder().deleteRequest(DeleteRequest.builder()
+                    .key(pointerKey(taskId, kind))
+                    .build()).build());
+        }
+        write(deletes);
+    }
+
+    /**
+     * Fires the live timers of one minute, a page at a time, and deletes the drained entries.
+     * Entries that could not be fired are kept for the next drain of the same minute.
+     *
+     * @param fire fires a batch of timers and returns the ones it could not fire
+     * @return the number of timers fired
+     * @throws IllegalStateException if some timers could not be fired
+     */
+    public int drain(long epochMinute, Function<List<DueTimer>, List<DueTimer>> fire) {
+        int fired = 0;
+        int failed = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryResponse page = dynamoDbClient.query(QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("#b = :b")
+                        .expressionAttributeNames(Map.of("#b", BUCKET))
+                        .expressionAttributeValues(Map.of(":b", AttributeValue.fromS(DUE_PREFIX + epochMinute + "#" + shard)))
+                        .consistentRead(true)
+                        .limit(PAGE_SIZE)
+                        .exclusiveStartKey(startKey)
+                        .build());
+
+                Map<String, String> liveGenerations = liveGenerations(page.items());
+                Map<DueTimer, Map<String, AttributeValue>> live = new LinkedHashMap<>();
+                List<Map<String, AttributeValue>> drained = new ArrayList<>();
+                for (Map<String, AttributeValue> item : page.items()) {
+                    DueTimer timer = new DueTimer(item.get(TASK_ID).s(), TimerKind.valueOf(item.get(KIND).s()),
+                            Long.parseLong(item.get(FIRE_AT).n()),
+                            item.containsKey(VERSION) ? Long.valueOf(item.get(VERSION).n()) : null,
+                            item.containsKey(OFFSET) ? Long.valueOf(item.get(OFFSET).n()) : null);
+                    if (item.get(GENERATION).s().equals(liveGenerations.get(pointerId(timer.taskId(), timer.kind())))) {
+                        live.put(timer, item);
+                    } else {
+                        drained.add(item);
+                    }
+                }
+
+                List<DueTimer> failures = live.isEmpty() ? List.of() : fire.apply(List.copyOf(live.keySet()));
+                live.forEach((timer, item) -> {
+                    if (!failures.contains(timer)) {
+                        drained.add(item);
+                    }
+                });
+                fired += live.size() - failures.size();
+                failed += failures.size();
+
+                List<WriteRequest> deletes = new ArrayList<>();
+                for (Map<String, AttributeValue> item : drained) {
+                    deletes.add(WriteRequest.builder().deleteRequest(DeleteRequest.builder()
+                            .key(Map.of(BUCKET, item.get(BUCKET), ENTRY, item.get(ENTRY)))
+                            .build()).build());
+                }
+                write(deletes);
+
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+            } while (startKey != null);
+        }
+
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " timers of minute " + epochMinute + " could not be fired");
+        }
+        return fired;
+    }
+
+    public static long epochMinute(long epochMillis) {
+        return Math.floorDiv(epochMillis, 60_000L);
+    }
+
+    /**
+     * The current generation per {@code <taskId>#<kind>} for the timers of a page.
+     */
+    private Map<String, String> liveGenerations(List<Map<String, AttributeValue>> items) {
+        Set<String> pointerIds = new HashSet<>();
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (Map<String, AttributeValue> item : items) {
+            TimerKind kind = TimerKind.valueOf(item.get(KIND).s());
+            if (pointerIds.add(pointerId(item.get(TASK_ID).s(), kind))) {
+                keys.add(pointerKey(item.get(TASK_ID).s(), kind));
+            }
+        }
+
+        Map<String, String> generations = new HashMap<>();
+        if (keys.isEmpty()) {
+            return generations;
+        }
+        Map<String, KeysAndAttributes> request = Map.of(tableName, KeysAndAttributes.builder()
+                .keys(keys)
+                .consistentRead(true)
+                .build());
+        for (int attempt = 1; !request.isEmpty(); attempt++) {
+            if (attempt > MAX_BATCH_ATTEMPTS) {
+                throw new IllegalStateException("Timer pointer reads were throttled " + MAX_BATCH_ATTEMPTS + " times");
+            }
+            if (attempt > 1) {
+                TaskRepository.sleepBeforeRetry(attempt);
+            }
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(request)
+                    .build());
+            for (Map<String, AttributeValue> pointer : response.responses().getOrDefault(tableName, List.of())) {
+                String taskId = pointer.get(BUCKET).s().substring(POINTER_PREFIX.length());
+                generations.put(taskId + "#" + pointer.get(ENTRY).s(), pointer.get(GENERATION).s());
+            }
+            request = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+        }
+        return generations;
+    }
+
+    private void write(List<WriteRequest> writes) {
+        for (int start = 0; start < writes.size(); start += MAX_BATCH_WRITE) {
+            Map<String, List<WriteRequest>> request =
+                    Map.of(tableName, writes.subList(start, Math.min(writes.size(), start + MAX_BATCH_WRITE)));
+            for (int attempt = 1; !request.isEmpty(); attempt++) {
+                if (attempt > MAX_BATCH_ATTEMPTS) {
+                    throw new IllegalStateException("Timer writes were throttled " + MAX_BATCH_ATTEMPTS + " times");
+                }
+                if (attempt > 1) {
+                    TaskRepository.sleepBeforeRetry(attempt);
+                }
+                BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(request)
+                        .build());
+                request = response.hasUnprocessedItems() ? response.unprocessedItems() : Map.of();
+            }
+        }
+    }
+
+    private static AttributeValue expiresAt(long fireAtMillis) {
+        return AttributeValue.fromN(Long.toString(fireAtMillis / 1000 + RETENTION_SECONDS));
+    }
+
+    private static String dueBucket(long epochMinute, String taskId) {
+        return DUE_PREFIX + epochMinute + "#" + Math.floorMod(taskId.hashCode(), SHARDS);
+    }
+
+    private static Map<String, AttributeValue> pointerKey(String taskId, TimerKind kind) {
+        return Map.of(BUCKET, AttributeValue.fromS(POINTER_PREFIX + taskId), ENTRY, AttributeValue.fromS(kind.name()));
+    }
+
+    private static String pointerId(String taskId, TimerKind kind) {
+        return taskId + "#" + kind.name();
+    }
+}
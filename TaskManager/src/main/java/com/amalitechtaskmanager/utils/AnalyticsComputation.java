@@ -1,38 +1,21 @@
 package com.amalitechtaskmanager.utils;
 
-import java.time.Instant;
+import com.amalitechtaskmanager.model.TaskStatus;
+
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class AnalyticsComputation {
-    public static Map<String, Object> computeAnalytics(List<Map<String, Object>> tasks) {
+    public static Map<String, Object> computeAnalytics(Map<TaskStatus, Long> countsByStatus) {
         Map<String, Object> analytics = new HashMap<>();
 
-        long completedTasks = 0;
-        long inProgressTasks = 0;
-        long closedTasks = 0;
-        long deadlinePassedTasks = 0;
-
-        for (Map<String, Object> task : tasks) {
-            String status = (String) task.getOrDefault("status", "");
-            String dueDate = (String) task.get("deadline");
-
-            // Count by status
-            if ("completed".equalsIgnoreCase(status)) {
-                completedTasks++;
-            } else if ("closed".equalsIgnoreCase(status)) {
-                closedTasks++;
-            } else if ("open".equalsIgnoreCase(status)) {
-                inProgressTasks++;
-            } else if ("expired".equalsIgnoreCase(status)) {
-                deadlinePassedTasks++;
-            }
-
-        }
+        long completedTasks = countsByStatus.getOrDefault(TaskStatus.COMPLETED, 0L);
+        long inProgressTasks = countsByStatus.getOrDefault(TaskStatus.OPEN, 0L);
+        long closedTasks = countsByStatus.getOrDefault(TaskStatus.CLOSED, 0L);
+        long deadlinePassedTasks = countsByStatus.getOrDefault(TaskStatus.EXPIRED, 0L);
 
         // Build analytics response
-        analytics.put("totalTasks", tasks.size());
+        analytics.put("totalTasks", completedTasks + inProgressTasks + closedTasks + deadlinePassedTasks);
         analytics.put("completedTasks", completedTasks);
         analytics.put("closedTasks", closedTasks);
         analytics.put("inProgressTasks", inProgressTasks);
@@ -40,4 +23,4 @@ public class AnalyticsComputation {
 
         return analytics;
     }
-}
\ No newline at end of file
+}
@@ -1,33 +1,130 @@
 package com.amalitechtaskmanager.utils;
 
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Builds API Gateway proxy responses with the CORS headers every endpoint needs.
+ * <p>
+ * Successful GET responses carry a strong ETag derived from a hash of the body. When the
+ * request's {@code If-None-Match} already names that ETag the body is dropped and a
+ * {@code 304 Not Modified} is returned, so polling dashboards only download a list when it
+ * actually changed. Compression is left to API Gateway (see {@code MinimumCompressionSize}
+ * in the template), which negotiates gzip/deflate from {@code Accept-Encoding} without the
+ * base64 round trip a Lambda-compressed body would need.
+ */
 public class ApiResponseUtil {
 
+    private static final Map<String, String> DEFAULT_HEADERS = Map.of(
+            "Content-Type", "application/json",
+            "Access-Control-Allow-Origin", "https://develop.d4p44endo1tru.amplifyapp.com",  // For production, replace with your specific domain
+            "Access-Control-Allow-Methods", "OPTIONS,POST,GET",
+            "Access-Control-Allow-Headers", "Content-Type,Authorization,X-Amz-Date,X-Api-Key,X-Amz-Security-Token,If-None-Match,X-Time-Zone",
+            "Access-Control-Expose-Headers", "ETag",
+            "Access-Control-Allow-Credentials", "true");
+
     public static APIGatewayProxyResponseEvent createResponse(APIGatewayProxyRequestEvent input, int statusCode, String body) {
         APIGatewayProxyResponseEvent response = new APIGatewayProxyResponseEvent();
 
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "application/json");
-        headers.put("Access-Control-Allow-Origin", "https://develop.d4p44endo1tru.amplifyapp.com");  // For production, replace with your specific domain
-        headers.put("Access-Control-Allow-Methods", "OPTIONS,POST,GET");
-        headers.put("Access-Control-Allow-Headers", "Content-Type,Authorization,X-Amz-Date,X-Api-Key,X-Amz-Security-Token");
-        headers.put("Access-Control-Allow-Credentials", "true");
-
-        response.setHeaders(headers);
         if ("OPTIONS".equalsIgnoreCase(input.getHttpMethod())) {
+            response.setHeaders(DEFAULT_HEADERS);
             response.setStatusCode(200);
             response.setBody("{}");
             return response;
         }
 
+        if (statusCode != 200 || body == null || !"GET".equalsIgnoreCase(input.getHttpMethod())) {
+            response.setHeaders(DEFAULT_HEADERS);
+            response.setStatusCode(statusCode);
+            response.setBody(body);
+            return response;
+        }
+
+        String etag = computeEtag(body);
+        Map<String, String> headers = new HashMap<>(DEFAULT_HEADERS);
+        headers.put("ETag", etag);
+        // Let clients keep the body but revalidate it on every use
+        headers.put("Cache-Control", "private, no-cache");
+        response.setHeaders(headers);
+
+        if (matchesEtag(getHeader(input, "If-None-Match"), etag)) {
+            response.setStatusCode(304);
+            return response;
+        }
+
         response.setStatusCode(statusCode);
         response.setBody(body);
-
         return response;
     }
+
+    /**
+     * The {@code {"error": message}} body of an error response. The message is escaped, so
+     * quotes or newlines in an exception message still give valid JSON.
+     */
+    public static String errorBody(String message) {
+        try {
+            return ObjectMapperFactory.getMapper().writeValueAsString(Collections.singletonMap("error", message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write error body", e);
+        }
+    }
+
+    /**
+     * Strong ETag over the exact response bytes.
+     */
+    static String computeEtag(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            // 128 bits are plenty to tell two versions of a response apart
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so a W/ prefix added by an intermediary still matches.
+     */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getHeader(APIGatewayProxyRequestEvent input, String name) {
+        Map<String, String> headers = input.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
 }
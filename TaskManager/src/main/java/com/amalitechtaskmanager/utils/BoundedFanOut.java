@@ -0,0 +1,109 @@
+package com.amalitechtaskmanager.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs one piece of work per key on virtual threads, at most {@code concurrency} at a time, and
+ * waits for all of them. Work that throws does not stop the others; its error is returned in
+ * place of a value, so callers decide what a failure means for their batch.
+ */
+public final class BoundedFanOut {
+
+    @FunctionalInterface
+    public interface Work<K, R> {
+        R run(K key) throws Exception;
+    }
+
+    /**
+     * @param error what the work threw, null if it completed
+     */
+    public record Result<R>(R value, Throwable error) {
+
+        public boolean failed() {
+            return error != null;
+        }
+
+        /**
+         * The value, or the error rethrown: unchecked errors as they are, others wrapped with the message.
+         */
+        public R orThrow(String failure) {
+            if (error == null) {
+                return value;
+            }
+            if (error instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
+            throw new IllegalStateException(failure, error);
+        }
+    }
+
+    private BoundedFanOut() {
+    }
+
+    /**
+     * @return the result per key, in the order of the keys
+     */
+    public static <K, R> Map<K, Result<R>> run(Collection<K> keys, int concurrency, Work<K, R> work) {
+        return run(keys, concurrency, () -> true, work);
+    }
+
+    /**
+     * Like {@link #run(Collection, int, Work)}, but asks {@code proceed} before starting each key
+     * and starts no more once it answers false. Keys that were not started are left out of the result.
+     */
+    public static <K, R> Map<K, Result<R>> run(Collection<K> keys, int concurrency, BooleanSupplier proceed,
+                                               Work<K, R> work) {
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        Map<K, Future<R>> futures = new LinkedHashMap<>();
+        InterruptedException interrupted = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (K key : keys) {
+                // Waiting here rather than in the task keeps at most concurrency threads alive
+                permits.acquire();
+                if (!proceed.getAsBoolean()) {
+                    permits.release();
+                    break;
+                }
+                futures.put(key, executor.submit(() -> {
+                    try {
+                        return work.run(key);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interrupted = e;
+        }
+
+        Map<K, Result<R>> results = new LinkedHashMap<>();
+        futures.forEach((key, future) -> {
+            try {
+                results.put(key, new Result<>(future.get(), null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.put(key, new Result<>(null, e));
+            } catch (ExecutionException e) {
+                results.put(key, new Result<>(null, e.getCause()));
+            }
+        });
+        if (interrupted != null) {
+            for (K key : keys) {
+                results.putIfAbsent(key, new Result<>(null, interrupted));
+            }
+        }
+        return results;
+    }
+}
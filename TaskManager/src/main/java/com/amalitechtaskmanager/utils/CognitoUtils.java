@@ -6,6 +6,7 @@ import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityPr
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
 
 import java.util.Optional;
 
@@ -15,19 +16,30 @@ public class CognitoUtils {
 
     public static Optional<String> getUserEmail(CognitoIdentityProviderClient client, String userPoolId, String userId) {
         try {
-            AdminGetUserRequest request = AdminGetUserRequest.builder()
-                    .userPoolId(userPoolId)
-                    .username(userId)
-                    .build();
+            return lookupUserEmail(client, userPoolId, userId);
+        } catch (Exception e) {
+            logger.error("Failed to fetch user {}: {}", userId, e.getMessage());
+            return Optional.empty();
+        }
+    }
 
+    /**
+     * Like {@link #getUserEmail} but lets a failed lookup throw, for callers that retry; only
+     * a user that does not exist comes back empty.
+     */
+    public static Optional<String> lookupUserEmail(CognitoIdentityProviderClient client, String userPoolId, String userId) {
+        AdminGetUserRequest request = AdminGetUserRequest.builder()
+                .userPoolId(userPoolId)
+                .username(userId)
+                .build();
+
+        try {
             AdminGetUserResponse response = client.adminGetUser(request);
             return response.userAttributes().stream()
                     .filter(attr -> "email".equals(attr.name()))
                     .map(AttributeType::value)
                     .findFirst();
-
-        } catch (Exception e) {
-            logger.error("Failed to fetch user {}: {}", userId, e.getMessage());
+        } catch (UserNotFoundException e) {
             return Optional.empty();
         }
     }
@@ -1,16 +1,12 @@
 package com.amalitechtaskmanager.utils;
 
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
-import com.amalitechtaskmanager.model.Task;
-import com.amalitechtaskmanager.model.TaskStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -23,78 +19,6 @@ public class DynamoDbUtils {
         return Optional.ofNullable(val.getS()).filter(s -> !s.isEmpty());
     }
 
-    public static Optional<Task> parseTask(Map<String, AttributeValue> image) {
-        if (image == null || image.isEmpty()) return Optional.empty();
-
-        Task task = new Task();
-
-        getSafeString(image, "taskId").ifPresent(task::setTaskId);
-        getSafeString(image, "name").ifPresent(task::setName);
-        getSafeString(image, "description").ifPresent(task::setDescription);
-        getSafeString(image, "user_comment").ifPresent(task::setUserComment);
-        getSafeString(image, "userId").ifPresent(task::setUserId);
-
-        getSafeString(image, "status").ifPresent(statusStr -> {
-            try {
-                task.setStatus(TaskStatus.valueOf(statusStr.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                // Optionally log invalid status
-            }
-        });
-
-        getSafeString(image, "deadline").ifPresent(deadlineStr -> {
-            try {
-                task.setDeadline(LocalDateTime.parse(deadlineStr, DateTimeFormatter.ISO_DATE_TIME));
-            } catch (Exception ignored) {}
-        });
-
-        getSafeString(image, "completed_at").ifPresent(completedAtStr -> {
-            try {
-                task.setCompletedAt(LocalDateTime.parse(completedAtStr, DateTimeFormatter.ISO_DATE_TIME));
-            } catch (Exception ignored) {}
-        });
-
-        return Optional.of(task);
-    }
-
-    /**
-     * Parse a task from AWS SDK v2 AttributeValue map
-     */
-    public static Optional<Task> parseTaskFromSdk(Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> image) {
-        if (image == null || image.isEmpty()) return Optional.empty();
-
-        Task task = new Task();
-
-        getStringFromSdk(image, "taskId").ifPresent(task::setTaskId);
-        getStringFromSdk(image, "name").ifPresent(task::setName);
-        getStringFromSdk(image, "description").ifPresent(task::setDescription);
-        getStringFromSdk(image, "responsibility").ifPresent(task::setResponsibility);
-        getStringFromSdk(image, "user_comment").ifPresent(task::setUserComment);
-        getStringFromSdk(image, "userId").ifPresent(task::setUserId);
-
-        getStringFromSdk(image, "status").ifPresent(statusStr -> {
-            try {
-                task.setStatus(TaskStatus.valueOf(statusStr.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                // Optionally log invalid status
-            }
-        });
-
-        getStringFromSdk(image, "deadline").ifPresent(deadlineStr -> {
-            try {
-                task.setDeadline(LocalDateTime.parse(deadlineStr, DateTimeFormatter.ISO_DATE_TIME));
-            } catch (Exception ignored) {}
-        });
-
-        getStringFromSdk(image, "completed_at").ifPresent(completedAtStr -> {
-            try {
-                task.setCompletedAt(LocalDateTime.parse(completedAtStr, DateTimeFormatter.ISO_DATE_TIME));
-            } catch (Exception ignored) {}
-        });
-
-        return Optional.of(task);
-    }
-
     /**
      * Get a string value from AWS SDK v2 AttributeValue map
      */
@@ -106,20 +30,37 @@ public class DynamoDbUtils {
 
     public static Optional<Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue>> getTask(DynamoDbClient dynamoDbClient, String tableName, String taskId) {
         try {
-            Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> key = new HashMap<>();
-            key.put("taskId", software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder().s(taskId).build());
-
-            GetItemRequest request = GetItemRequest.builder()
-                    .tableName(tableName)
-                    .key(key)
-                    .build();
-
-            GetItemResponse response = dynamoDbClient.getItem(request);
-            return response.hasItem() ? Optional.of(response.item()) : Optional.empty();
-
+            return getTaskItem(dynamoDbClient, tableName, taskId, false);
         } catch (Exception e) {
             logger.error("Failed to fetch taskId {}: {}", taskId, e.getMessage());
             return Optional.empty();
         }
     }
+
+    /**
+     * Reads a task item straight from DynamoDB. API reads do not go through {@link TaskCache}:
+     * the writes happen in other containers, whose invalidations this one never sees.
+     */
+    public static Optional<Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue>> getTaskItem(
+            DynamoDbClient dynamoDbClient, String tableName, String taskId, boolean consistentRead) {
+        return getTaskItem(dynamoDbClient, tableName, taskId, consistentRead, null);
+    }
+
+    /**
+     * Like {@link #getTaskItem(DynamoDbClient, String, String, boolean)}, reading only the selected
+     * attributes when fields is not null.
+     */
+    public static Optional<Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue>> getTaskItem(
+            DynamoDbClient dynamoDbClient, String tableName, String taskId, boolean consistentRead, FieldSelection fields) {
+        GetItemRequest.Builder request = GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("taskId", software.amazon.awssdk.services.dynamodb.model.AttributeValue.fromS(taskId)))
+                .consistentRead(consistentRead);
+        if (fields != null) {
+            Map<String, String> names = new HashMap<>();
+            request.projectionExpression(fields.projectionExpression(names)).expressionAttributeNames(names);
+        }
+        GetItemResponse response = dynamoDbClient.getItem(request.build());
+        return response.hasItem() && !response.item().isEmpty() ? Optional.of(response.item()) : Optional.empty();
+    }
 }
@@ -1,61 +1,71 @@
 package com.amalitechtaskmanager.utils;
 
+import com.amalitechtaskmanager.repository.TaskFilter;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
 
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.StringJoiner;
 
 public class DynamoFilterUtil {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-
-    public static ScanRequest buildScanRequestWithFilters(String tableName, Map<String, String> queryParams) {
+    /**
+     * @param zone the zone date filters without an offset are read in
+     */
+    public static ScanRequest buildScanRequestWithFilters(String tableName, Map<String, String> queryParams, ZoneId zone) {
         if (queryParams == null || queryParams.isEmpty()) {
             return ScanRequest.builder().tableName(tableName).build();
         }
 
-        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
-        StringJoiner filterExpression = new StringJoiner(" AND ");
-
+        TaskFilter.Builder filter = TaskFilter.builder();
         queryParams.forEach((key, value) -> {
             switch (key) {
                 case "status":
-                    filterExpression.add(key + " = :" + key);
-                    expressionAttributeValues.put(":" + key, AttributeValue.builder().s(value).build());
+                    filter.in(TaskItemCodec.STATUS, Arrays.stream(value.split(",")).map(String::trim).toList());
                     break;
                 case "startDate":
-                    filterExpression.add("deadline >= :startDate");
-                    expressionAttributeValues.put(":startDate", AttributeValue.builder().s(value).build());
+                    addDateRange(filter, TaskItemCodec.DEADLINE, true, value, zone);
                     break;
                 case "endDate":
-                    filterExpression.add("deadline <= :endDate");
-                    expressionAttributeValues.put(":endDate", AttributeValue.builder().s(value).build());
+                    addDateRange(filter, TaskItemCodec.DEADLINE, false, value, zone);
                     break;
                 case "createdStart":
-                    filterExpression.add("createdAt >= :createdStart");
-                    expressionAttributeValues.put(":createdStart", AttributeValue.builder().s(value).build());
+                    addDateRange(filter, TaskItemCodec.CREATED_AT, true, value, zone);
                     break;
                 case "createdEnd":
-                    filterExpression.add("createdAt <= :createdEnd");
-                    expressionAttributeValues.put(":createdEnd", AttributeValue.builder().s(value).build());
+                    addDateRange(filter, TaskItemCodec.CREATED_AT, false, value, zone);
                     break;
                 default:
                     break;
             }
         });
 
-        ScanRequest.Builder requestBuilder = ScanRequest.builder()
-                .tableName(tableName);
+        return filter.build().applyTo(ScanRequest.builder().tableName(tableName)).build();
+    }
 
-        if (!expressionAttributeValues.isEmpty()) {
-            requestBuilder = requestBuilder
-                    .filterExpression(filterExpression.toString())
-                    .expressionAttributeValues(expressionAttributeValues);
+    /**
+     * Compares against the numeric epoch-millis companion of a date attribute, see
+     * {@link TaskFilter.Builder#dateFrom}. Values that are not dates keep the old string comparison.
+     */
+    private static void addDateRange(TaskFilter.Builder filter, String attribute, boolean from, String value, ZoneId zone) {
+        LocalDateTime date;
+        try {
+            date = TaskTimeZones.toUtc(value, zone);
+        } catch (IllegalArgumentException e) {
+            if (from) {
+                filter.atLeast(attribute, AttributeValue.fromS(value));
+            } else {
+                filter.atMost(attribute, AttributeValue.fromS(value));
+            }
+            return;
+        }
+        if (from) {
+            filter.dateFrom(attribute, date);
+        } else {
+            filter.dateTo(attribute, date);
         }
-
-        return requestBuilder.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Serialises a raw DynamoDB item as a plain JSON object, writing S/N/BOOL/SS/NS/BS/L/M values
+ * straight to the generator without converting them to Java objects first.
+ * <p>
+ * The output matches what {@link AttributeValueConverter} produced for the task handlers:
+ * numbers are rendered as strings, NULL values and empty maps or lists are omitted, and
+ * unrenderable map entries become {@code "blank"}. The numeric date companions are storage
+ * details and are not written; when one is present the ISO date is rendered from it so the
+ * API always returns the canonical format. A serializer {@link #forZone for a zone} renders
+ * the dates in that zone, with their offset, instead of as zone-less UTC.
+ */
+public class DynamoItemSerializer extends StdSerializer<Map<String, AttributeValue>> {
+
+    public static final DynamoItemSerializer INSTANCE = new DynamoItemSerializer();
+
+    private final ZoneId zone;
+
+    public DynamoItemSerializer() {
+        this(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DynamoItemSerializer(ZoneId zone) {
+        super((Class<Map<String, AttributeValue>>) (Class<?>) Map.class);
+        this.zone = zone;
+    }
+
+    public static DynamoItemSerializer forZone(ZoneId zone) {
+        return zone == null ? INSTANCE : new DynamoItemSerializer(zone);
+    }
+
+    @Override
+    public void serialize(Map<String, AttributeValue> item, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            String name = entry.getKey();
+            AttributeValue value = entry.getValue();
+            if (TaskItemCodec.isEpochAttribute(name) || !isRenderable(value)) {
+                continue;
+            }
+            generator.writeFieldName(name);
+            AttributeValue epoch = epochCompanion(item, name);
+            if (epoch != null && epoch.n() != null) {
+                generator.writeString(renderDate(TaskItemCodec.fromEpochMillis(Long.parseLong(epoch.n()))));
+            } else if (zone != null && value.s() != null && TaskItemCodec.EPOCH_ATTRIBUTES.containsKey(name)) {
+                // Rows written before the epoch companions existed
+                generator.writeString(TaskItemCodec.parseDate(value.s()).map(this::renderDate).orElse(value.s()));
+            } else {
+                writeValue(generator, value);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private String renderDate(LocalDateTime utc) {
+        return zone == null ? TaskItemCodec.formatDate(utc) : TaskTimeZones.render(utc, zone);
+    }
+
+    private static AttributeValue epochCompanion(Map<String, AttributeValue> item, String name) {
+        String epochAttribute = TaskItemCodec.EPOCH_ATTRIBUTES.get(name);
+        return epochAttribute == null ? null : item.get(epochAttribute);
+    }
+
+    private static void writeValue(JsonGenerator generator, AttributeValue value) throws IOException {
+        if (value.s() != null) {
+            generator.writeString(value.s());
+        } else if (value.n() != null) {
+            generator.writeString(value.n());
+        } else if (value.bool() != null) {
+            generator.writeBoolean(value.bool());
+        } else if (value.hasSs()) {
+            writeStrings(generator, value.ss());
+        } else if (value.hasNs()) {
+            writeStrings(generator, value.ns());
+        } else if (value.hasBs()) {
+            generator.writeStartArray();
+            for (SdkBytes bytes : value.bs()) {
+                generator.writeBinary(bytes.asByteArrayUnsafe());
+            }
+            generator.writeEndArray();
+        } else if (value.hasM()) {
+            generator.writeStartObject();
+            for (Map.Entry<String, AttributeValue> entry : value.m().entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                if (isRenderable(entry.getValue())) {
+                    writeValue(generator, entry.getValue());
+                } else {
+                    generator.writeString("blank");
+                }
+            }
+            generator.writeEndObject();
+        } else if (value.hasL()) {
+            generator.writeStartArray();
+            for (AttributeValue element : value.l()) {
+                if (isRenderable(element)) {
+                    writeValue(generator, element);
+                } else {
+                    generator.writeNull();
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static void writeStrings(JsonGenerator generator, Iterable<String> values) throws IOException {
+        generator.writeStartArray();
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+
+    private static boolean isRenderable(AttributeValue value) {
+        return value != null && (value.s() != null || value.n() != null || value.bool() != null
+                || value.hasSs() || value.hasNs() || value.hasBs()
+                || (value.hasM() && !value.m().isEmpty())
+                || (value.hasL() && !value.l().isEmpty()));
+    }
+}
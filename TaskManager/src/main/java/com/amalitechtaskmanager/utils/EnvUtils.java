@@ -0,0 +1,25 @@
+package com.amalitechtaskmanager.utils;
+
+/**
+ * Reads the numeric tuning knobs functions take from their environment.
+ */
+public final class EnvUtils {
+
+    private EnvUtils() {
+    }
+
+    /**
+     * @return the variable as an int, or the default when it is unset, empty or not a number
+     */
+    public static int intFromEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
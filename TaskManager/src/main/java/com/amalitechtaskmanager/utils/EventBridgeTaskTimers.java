@@ -0,0 +1,87 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TimerKind;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One EventBridge Scheduler schedule per timer, named {@code TaskReminder_<taskId>[_<stage>]}
+ * or {@code TaskExpiration_<taskId>}. Scheduling upserts the schedules in place and deletes
+ * reminder stages the new set no longer has; a failed schedule call surfaces as an
+ * IllegalStateException. Scheduler has no bulk delete, so cancelling reminders lists the
+ * task's schedules and deletes each; the {@link com.amalitechtaskmanager.repository.TimerWheel}
+ * backend does both in one write.
+ */
+public class EventBridgeTaskTimers implements TaskTimers {
+
+    private final SchedulerUtils schedulerUtils;
+    private final String reminderTargetArn;
+    private final String expirationTargetArn;
+    private final String schedulerRoleArn;
+
+    public EventBridgeTaskTimers(SchedulerUtils schedulerUtils, String reminderTargetArn,
+                                 String expirationTargetArn, String schedulerRoleArn) {
+        this.schedulerUtils = schedulerUtils;
+        this.reminderTargetArn = reminderTargetArn;
+        this.expirationTargetArn = expirationTargetArn;
+        this.schedulerRoleArn = schedulerRoleArn;
+    }
+
+    @Override
+    public void schedule(Task task, TimerKind kind, List<OffsetDateTime> fireTimes) {
+        if (fireTimes.isEmpty()) {
+            cancel(task.getTaskId(), kind);
+            return;
+        }
+        String targetArn = kind == TimerKind.REMINDER ? reminderTargetArn : expirationTargetArn;
+        if (targetArn == null || schedulerRoleArn == null) {
+            throw new IllegalStateException("Target and scheduler role ARNs are required to schedule a " + kind);
+        }
+        if (kind == TimerKind.EXPIRATION) {
+            requireSuccess(schedulerUtils.scheduleTaskExpiration(task, targetArn, schedulerRoleArn));
+            return;
+        }
+
+        Set<String> scheduled = new HashSet<>();
+        for (int stage = 0; stage < fireTimes.size(); stage++) {
+            ScheduleResult result = schedulerUtils.scheduleReminder(task, stage, fireTimes.get(stage), targetArn,
+                    schedulerRoleArn);
+            requireSuccess(result);
+            scheduled.add(result.scheduleName());
+        }
+        // Stages left over from a longer policy
+        for (String name : schedulerUtils.reminderScheduleNames(task.getTaskId())) {
+            if (!scheduled.contains(name)) {
+                requireSuccess(schedulerUtils.deleteScheduleNamed(name));
+            }
+        }
+    }
+
+    @Override
+    public void cancel(String taskId, TimerKind kind) {
+        if (kind == TimerKind.EXPIRATION) {
+            requireSuccess(schedulerUtils.deleteExpirationSchedule(taskId));
+            return;
+        }
+        for (String name : schedulerUtils.reminderScheduleNames(taskId)) {
+            requireSuccess(schedulerUtils.deleteScheduleNamed(name));
+        }
+    }
+
+    @Override
+    public void cancelAll(String taskId) {
+        for (TimerKind kind : TimerKind.values()) {
+            cancel(taskId, kind);
+        }
+    }
+
+    private static void requireSuccess(ScheduleResult result) {
+        if (!result.isSuccess()) {
+            throw new IllegalStateException("Schedule " + result.scheduleName() + " failed: " + result.error());
+        }
+    }
+}
@@ -2,11 +2,10 @@ package com.amalitechtaskmanager.utils;
 
 import com.amalitechtaskmanager.model.Task;
 import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
-
 /**
  * Utility class for handling task expiration rules
  */
@@ -25,13 +24,13 @@ public class ExpirationRuleUtils {
             return false;
         }
 
-        // Don't expire tasks that are already completed or expired
-        if (task.getStatus() == TaskStatus.COMPLETED || task.getStatus() == TaskStatus.EXPIRED) {
+        // Only open tasks can expire; completed, closed and expired tasks are final
+        if (task.getStatus() != TaskStatus.OPEN) {
             return false;
         }
 
-        // Check if the deadline has passed
-        return task.getDeadline().isBefore(LocalDateTime.now());
+        // Deadlines are UTC; comparing instants keeps the rule independent of the JVM zone
+        return TaskItemCodec.toEpochMillis(task.getDeadline()) < System.currentTimeMillis();
     }
 
     /**
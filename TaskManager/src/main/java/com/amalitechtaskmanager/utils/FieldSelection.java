@@ -0,0 +1,114 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * The attributes a client asked for with {@code ?fields=name,status,deadline}.
+ * <p>
+ * Only task attributes exposed by the API can be selected and {@code taskId} is always
+ * included. Scans, queries and item reads get a ProjectionExpression so DynamoDB returns (and
+ * the Lambda parses and serialises) only the selected attributes.
+ */
+public final class FieldSelection {
+
+    public static final String PARAM = "fields";
+
+    private static final List<String> SELECTABLE = List.of(
+            TaskItemCodec.TASK_ID, TaskItemCodec.NAME, TaskItemCodec.DESCRIPTION, TaskItemCodec.STATUS,
+            TaskItemCodec.DEADLINE, TaskItemCodec.CREATED_AT, TaskItemCodec.COMPLETED_AT, TaskItemCodec.USER_ID,
+            TaskItemCodec.RESPONSIBILITY, TaskItemCodec.USER_COMMENT, TaskItemCodec.VERSION, TaskItemCodec.PRIORITY,
+            TaskItemCodec.REMINDER_POLICY, TaskItemCodec.TIME_ZONE);
+
+    private final Set<String> attributes;
+
+    private FieldSelection(Set<String> attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Reads the {@code fields} parameter; empty when the client wants every attribute.
+     *
+     * @throws IllegalArgumentException if a requested field is not a task attribute
+     */
+    public static Optional<FieldSelection> fromQuery(Map<String, String> queryParams) {
+        String fields = queryParams == null ? null : queryParams.get(PARAM);
+        if (fields == null || fields.isBlank()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(of(List.of(fields.split(","))));
+    }
+
+    /**
+     * A selection of the given task attributes, for reads that only need a few of them.
+     *
+     * @throws IllegalArgumentException if a field is not a task attribute
+     */
+    public static FieldSelection of(List<String> fields) {
+        Set<String> attributes = new LinkedHashSet<>();
+        attributes.add(TaskItemCodec.TASK_ID);
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed fields are " + SELECTABLE);
+            }
+            attributes.add(name);
+            // Dates are rendered from their numeric companion when it exists
+            String epochAttribute = TaskItemCodec.EPOCH_ATTRIBUTES.get(name);
+            if (epochAttribute != null) {
+                attributes.add(epochAttribute);
+            }
+        }
+        return new FieldSelection(attributes);
+    }
+
+    public Set<String> getAttributes() {
+        return attributes;
+    }
+
+    public ScanRequest applyTo(ScanRequest request) {
+        Map<String, String> names = new HashMap<>(request.expressionAttributeNames());
+        return request.toBuilder()
+                .projectionExpression(projectionExpression(names))
+                .expressionAttributeNames(names)
+                .build();
+    }
+
+    /**
+     * Builds the projection with placeholder names, adding them to the given name map.
+     */
+    public String projectionExpression(Map<String, String> expressionAttributeNames) {
+        StringJoiner projection = new StringJoiner(", ");
+        int index = 0;
+        for (String attribute : attributes) {
+            String placeholder = "#f" + index++;
+            expressionAttributeNames.put(placeholder, attribute);
+            projection.add(placeholder);
+        }
+        return projection.toString();
+    }
+
+    public Map<String, AttributeValue> project(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> projected = new HashMap<>();
+        for (String attribute : attributes) {
+            AttributeValue value = item.get(attribute);
+            if (value != null) {
+                projected.put(attribute, value);
+            }
+        }
+        return projected;
+    }
+}
@@ -0,0 +1,47 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes custom metrics using the CloudWatch embedded metric format.
+ * Lambda ships stdout to CloudWatch Logs, which extracts the metrics without an extra API call.
+ */
+public class MetricsUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsUtils.class);
+    private static final String NAMESPACE = "TaskManager";
+
+    public static void count(String metricName, long value, String dimensionName, String dimensionValue) {
+        putMetric(metricName, value, "Count", Map.of(dimensionName, dimensionValue));
+    }
+
+    public static void putMetric(String metricName, double value, String unit, Map<String, String> dimensions) {
+        try {
+            Map<String, Object> metricDefinition = Map.of("Name", metricName, "Unit", unit);
+            Map<String, Object> directive = new LinkedHashMap<>();
+            directive.put("Namespace", NAMESPACE);
+            directive.put("Dimensions", List.of(new ArrayList<>(dimensions.keySet())));
+            directive.put("Metrics", List.of(metricDefinition));
+
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("Timestamp", System.currentTimeMillis());
+            metadata.put("CloudWatchMetrics", List.of(directive));
+
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("_aws", metadata);
+            event.putAll(dimensions);
+            event.put(metricName, value);
+
+            System.out.println(ObjectMapperFactory.getMapper().writeValueAsString(event));
+        } catch (Exception e) {
+            logger.warn("Failed to publish metric {}: {}", metricName, e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.amalitechtaskmanager.utils;
 
+import java.util.List;
+
 public class NotificationResponse {
     private final boolean success;
     private final String message;
+    private final List<ReminderResult> results;
 
     public NotificationResponse(boolean success, String message) {
+        this(success, message, List.of());
+    }
+
+    public NotificationResponse(boolean success, String message, List<ReminderResult> results) {
         this.success = success;
         this.message = message;
+        this.results = results;
     }
 
     public boolean isSuccess() {
@@ -17,4 +25,11 @@ public class NotificationResponse {
         return message;
     }
 
+    /**
+     * Per-task outcomes of a batch; empty for single notifications.
+     */
+    public List<ReminderResult> getResults() {
+        return results;
+    }
+
 }
@@ -0,0 +1,181 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque pagination cursor wrapping a DynamoDB LastEvaluatedKey.
+ * <p>
+ * Key attributes are always strings or numbers, so the key is written as
+ * {@code {"name": {"S": "..."}}} / {@code {"name": {"N": "..."}}} JSON and base64url encoded.
+ * Clients pass the cursor back unchanged to fetch the next page.
+ * <p>
+ * The payload is followed by an HMAC-SHA256 tag keyed with {@code CURSOR_SIGNING_KEY}, so a
+ * client cannot hand-craft a start key to read outside the partition it was given.
+ */
+public final class PageCursor {
+
+    public static final String PARAM = "cursor";
+    public static final String LIMIT_PARAM = "limit";
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final TypeReference<Map<String, Map<String, String>>> KEY_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<String, Map<String, Map<String, String>>>> COMPOSITE_KEY_TYPE =
+            new TypeReference<>() {
+            };
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int TAG_LENGTH = 16;
+    private static final SecretKeySpec SIGNING_KEY = signingKey(System.getenv("CURSOR_SIGNING_KEY"));
+
+    private PageCursor() {
+    }
+
+    /**
+     * @return the cursor, or null when there is no further page
+     */
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        return sealed(toJsonKey(lastEvaluatedKey));
+    }
+
+    /**
+     * Encodes one start key per merged query, see {@link com.amalitechtaskmanager.repository.TaskQueryMerger}.
+     * An empty key means "from the beginning" and is kept.
+     *
+     * @return the cursor, or null when there is no further page
+     */
+    public static String encodeComposite(Map<String, Map<String, AttributeValue>> startKeys) {
+        if (startKeys == null || startKeys.isEmpty()) {
+            return null;
+        }
+        Map<String, Map<String, Map<String, String>>> keys = new LinkedHashMap<>();
+        startKeys.forEach((stream, key) -> keys.put(stream, toJsonKey(key)));
+        return sealed(keys);
+    }
+
+    /**
+     * @return the exclusive start key, or null when no cursor was given
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        return fromJsonKey(opened(cursor, KEY_TYPE));
+    }
+
+    /**
+     * @return the start key of every merged query, or null when no cursor was given
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Map<String, Map<String, AttributeValue>> decodeComposite(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Map<String, Map<String, AttributeValue>> startKeys = new LinkedHashMap<>();
+        opened(cursor, COMPOSITE_KEY_TYPE).forEach((stream, key) -> startKeys.put(stream, fromJsonKey(key)));
+        return startKeys;
+    }
+
+    private static Map<String, Map<String, String>> toJsonKey(Map<String, AttributeValue> startKey) {
+        Map<String, Map<String, String>> key = new LinkedHashMap<>();
+        startKey.forEach((name, value) -> key.put(name,
+                value.s() != null ? Map.of("S", value.s()) : Map.of("N", value.n())));
+        return key;
+    }
+
+    private static Map<String, AttributeValue> fromJsonKey(Map<String, Map<String, String>> key) {
+        Map<String, AttributeValue> startKey = new LinkedHashMap<>();
+        key.forEach((name, value) -> {
+            if (value.containsKey("S")) {
+                startKey.put(name, AttributeValue.fromS(value.get("S")));
+            } else if (value.containsKey("N")) {
+                startKey.put(name, AttributeValue.fromN(value.get("N")));
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        });
+        return startKey;
+    }
+
+    private static String sealed(Object payload) {
+        try {
+            byte[] json = ObjectMapperFactory.getMapper().writeValueAsBytes(payload);
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return encoder.encodeToString(json) + "." + encoder.encodeToString(sign(json));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode page cursor", e);
+        }
+    }
+
+    private static <T> T opened(String cursor, TypeReference<T> type) {
+        int separator = cursor.indexOf('.');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.substring(0, separator));
+            byte[] tag = Base64.getUrlDecoder().decode(cursor.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(json), tag)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return ObjectMapperFactory.getMapper().readValue(new String(json, StandardCharsets.UTF_8), type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Reads the {@code limit} parameter that goes with a cursor.
+     *
+     * @throws IllegalArgumentException if it is not between 1 and {@link #MAX_LIMIT}
+     */
+    public static int parseLimit(String limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            if (value >= 1 && value <= MAX_LIMIT) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    }
+
+    private static byte[] sign(byte[] payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(SIGNING_KEY);
+        return Arrays.copyOf(mac.doFinal(payload), TAG_LENGTH);
+    }
+
+    private static SecretKeySpec signingKey(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            // Cursors from one instance will not verify on another, which only costs a restart of paging
+            LoggerFactory.getLogger(PageCursor.class).warn("CURSOR_SIGNING_KEY is not set, using a random key");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return new SecretKeySpec(random, HMAC_ALGORITHM);
+        }
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+}
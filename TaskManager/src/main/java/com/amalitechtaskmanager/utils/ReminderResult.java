@@ -0,0 +1,27 @@
+package com.amalitechtaskmanager.utils;
+
+/**
+ * What the reminder processor did for one task of a batch. FAILED is the only outcome a retry
+ * can change: INVALID tasks lack the data for a reminder, and ALREADY_SENT ones were sent by an
+ * earlier delivery of the same timer.
+ *
+ * @param error the reason, null unless the outcome is FAILED or INVALID
+ */
+public record ReminderResult(String taskId, Outcome outcome, String error) {
+
+    public enum Outcome {
+        SENT, ALREADY_SENT, STALE, INACTIVE, NOT_FOUND, NO_RECIPIENT, INVALID, FAILED
+    }
+
+    public static ReminderResult of(String taskId, Outcome outcome) {
+        return new ReminderResult(taskId, outcome, null);
+    }
+
+    public static ReminderResult failed(String taskId, String error) {
+        return new ReminderResult(taskId, Outcome.FAILED, error);
+    }
+
+    public static ReminderResult invalid(String taskId, String error) {
+        return new ReminderResult(taskId, Outcome.INVALID, error);
+    }
+}
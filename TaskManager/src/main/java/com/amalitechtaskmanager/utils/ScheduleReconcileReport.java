@@ -0,0 +1,21 @@
+package com.amalitechtaskmanager.utils;
+
+import java.util.List;
+
+/**
+ * The diff a {@link ScheduleReconciler} run found between the task schedules and the OPEN
+ * tasks, and what repairing it did. A dry run counts the differences and repairs nothing.
+ *
+ * @param complete false when the run stopped before checking every task
+ * @param diff     one line per difference, at most {@link #MAX_DIFF_LINES} of them
+ */
+public record ScheduleReconcileReport(boolean dryRun, boolean complete, int schedules, int tasks,
+                                      int missing, int orphaned, int wrongTime, int repaired, int failed,
+                                      List<String> diff) {
+
+    public static final int MAX_DIFF_LINES = 100;
+
+    public int differences() {
+        return missing + orphaned + wrongTime;
+    }
+}
@@ -0,0 +1,393 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.model.ReminderPolicy;
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TaskStatus;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amalitechtaskmanager.repository.TaskPage;
+import com.amalitechtaskmanager.repository.TaskQuery;
+import com.amalitechtaskmanager.repository.TaskRepository;
+import com.amalitechtaskmanager.repository.TaskSort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cross-checks the task schedules in EventBridge Scheduler against the OPEN tasks. Schedule
+ * calls made from stream handlers can fail or race, leaving a task with a missing schedule, a
+ * schedule at an old fire time, or a schedule for a task that is gone or no longer OPEN.
+ * <p>
+ * Schedules are listed by name prefix, page by page, and the tasks behind them are read with
+ * BatchGetItem; OPEN tasks with a future deadline come from the status index, so tasks
+ * without any schedule are found too. A task's expected timers are its reminder policy
+ * stages and its deadline, and are compared by fire time rather than by stage name. A task
+ * with a difference gets its timers of that kind replaced through {@link TaskTimers};
+ * schedules of tasks that are not OPEN, and fired schedules, are deleted.
+ * <p>
+ * With the {@link com.amalitechtaskmanager.repository.TimerWheel} backend no schedule is
+ * expected: the remaining ones predate the wheel, so their OPEN tasks are moved to the wheel
+ * before the schedules are deleted.
+ * <p>
+ * Tasks are reconciled at most {@code concurrency} at a time and the Scheduler calls of all
+ * of them share one rate limit, well below the API quota the stream handlers also draw from.
+ */
+public class ScheduleReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleReconciler.class);
+    private static final int PAGE_SIZE = 100;
+    // A schedule due this recently may still be firing; it is left alone until the next run
+    private static final Duration FIRE_GRACE = Duration.ofMinutes(5);
+    private static final Pattern STAGE_SUFFIX = Pattern.compile("^(.+)_(\\d+)$");
+    private static final FieldSelection TIMER_FIELDS = FieldSelection.of(List.of(
+            TaskItemCodec.STATUS, TaskItemCodec.DEADLINE, TaskItemCodec.VERSION, TaskItemCodec.PRIORITY,
+            TaskItemCodec.REMINDER_POLICY));
+
+    private enum Difference {
+        MISSING, ORPHANED, WRONG_TIME, UNCHECKED
+    }
+
+    /**
+     * @param repaired null in a dry run
+     */
+    private record Change(Difference difference, String scheduleName, String detail, Boolean repaired) {
+
+        Change repaired(boolean success) {
+            return new Change(difference, scheduleName, detail, success);
+        }
+
+        String line() {
+            return difference + " " + scheduleName + ": " + detail
+                    + (repaired == null ? "" : repaired ? " (repaired)" : " (repair failed)");
+        }
+    }
+
+    private final SchedulerUtils schedulerUtils;
+    private final TaskRepository taskRepository;
+    private final TaskTimers taskTimers;
+    private final boolean schedulerBackend;
+    private final boolean reconcileExpirations;
+    private final int concurrency;
+    private final RateLimiter rateLimiter;
+
+    /**
+     * @param schedulerBackend     whether {@code taskTimers} keeps its timers in EventBridge Scheduler
+     * @param reconcileExpirations whether expiration schedules are expected, i.e. an expiration
+     *                             target is configured
+     */
+    public ScheduleReconciler(SchedulerUtils schedulerUtils, TaskRepository taskRepository, TaskTimers taskTimers,
+                              boolean schedulerBackend, boolean reconcileExpirations, int concurrency,
+                              int requestsPerSecond) {
+        this.schedulerUtils = schedulerUtils;
+        this.taskRepository = taskRepository;
+        this.taskTimers = taskTimers;
+        this.schedulerBackend = schedulerBackend;
+        this.reconcileExpirations = reconcileExpirations;
+        this.concurrency = Math.max(1, concurrency);
+        this.rateLimiter = new RateLimiter(Math.max(1, requestsPerSecond));
+    }
+
+    /**
+     * @param dryRun  report the differences without repairing them
+     * @param hasTime checked before each task; the run stops, incomplete, once it is false
+     * @throws software.amazon.awssdk.core.exception.SdkException if the schedules or tasks cannot be listed
+     */
+    public ScheduleReconcileReport reconcile(boolean dryRun, BooleanSupplier hasTime) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        Map<String, Set<String>> schedulesByTask = new HashMap<>();
+        int schedules = 0;
+        for (String prefix : List.of(SchedulerUtils.REMINDER_PREFIX, SchedulerUtils.EXPIRATION_PREFIX)) {
+            for (String name : schedulerUtils.listScheduleNames(prefix)) {
+                schedulesByTask.computeIfAbsent(taskIdOf(name), taskId -> new TreeSet<>()).add(name);
+                schedules++;
+            }
+        }
+        Map<String, Task> openTasks = openTasks(now, schedulesByTask.keySet());
+        Set<String> taskIds = new LinkedHashSet<>(schedulesByTask.keySet());
+        if (schedulerBackend) {
+            taskIds.addAll(openTasks.keySet());
+        }
+        logger.info("Reconciling {} schedules against {} tasks{}", schedules, taskIds.size(), dryRun ? " (dry run)" : "");
+
+        Map<String, BoundedFanOut.Result<List<Change>>> checks = BoundedFanOut.run(taskIds, concurrency, hasTime,
+                taskId -> reconcileTask(taskId, openTasks.get(taskId), schedulesByTask.getOrDefault(taskId, Set.of()),
+                        now, dryRun));
+        boolean complete = checks.size() == taskIds.size() && !Thread.currentThread().isInterrupted();
+
+        List<Change> changes = new ArrayList<>();
+        checks.forEach((taskId, check) -> changes.addAll(changesOf(taskId, check)));
+        return report(dryRun, complete, schedules, taskIds.size(), changes);
+    }
+
+    /**
+     * The OPEN tasks with a future deadline, plus the scheduled tasks the index did not return
+     * that are OPEN when read directly. With the timer wheel only the scheduled tasks are read.
+     */
+    private Map<String, Task> openTasks(OffsetDateTime now, Set<String> scheduledTaskIds) {
+        Map<String, Task> tasks = new HashMap<>();
+        if (schedulerBackend) {
+            Map<String, AttributeValue> startKey = null;
+            do {
+                TaskPage page = taskRepository.query(TaskQuery.byStatus(TaskStatus.OPEN, TaskSort.DEADLINE)
+                        .from(now.toInstant().toEpochMilli())
+                        .project(TIMER_FIELDS.getAttributes())
+                        .limit(PAGE_SIZE)
+                        .startKey(startKey));
+                for (Map<String, AttributeValue> item : page.items()) {
+                    Task task = TaskItemCodec.fromItem(item);
+                    tasks.put(task.getTaskId(), task);
+                }
+                startKey = page.lastEvaluatedKey();
+            } while (startKey != null);
+        }
+
+        List<String> unread = scheduledTaskIds.stream().filter(taskId -> !tasks.containsKey(taskId)).toList();
+        for (Map<String, AttributeValue> item : taskRepository.findItemsByIds(unread, TIMER_FIELDS)) {
+            Task task = TaskItemCodec.fromItem(item);
+            if (task.getStatus() == TaskStatus.OPEN) {
+                tasks.put(task.getTaskId(), task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * @param task null when the task is gone or not OPEN
+     */
+    private List<Change> reconcileTask(String taskId, Task task, Set<String> names, OffsetDateTime now, boolean dryRun) {
+        if (task == null || task.getDeadline() == null) {
+            return deleteAll(names, "no OPEN task with a deadline", dryRun);
+        }
+        if (!schedulerBackend) {
+            if (!dryRun && !moveToWheel(task, now)) {
+                return List.of(new Change(Difference.UNCHECKED, taskId, "could not move timers to the wheel", false));
+            }
+            return deleteAll(names, "timers are kept in the timer wheel", dryRun);
+        }
+
+        List<Change> changes = new ArrayList<>();
+        OffsetDateTime deadline = task.getDeadline().atOffset(ZoneOffset.UTC);
+        List<String> reminders = names.stream().filter(name -> name.startsWith(SchedulerUtils.REMINDER_PREFIX)).toList();
+        changes.addAll(reconcileKind(task, TimerKind.REMINDER, reminders,
+                ReminderPolicy.forTask(task).fireTimes(deadline, now), now, dryRun));
+        if (reconcileExpirations) {
+            List<String> expirations = names.stream().filter(name -> name.startsWith(SchedulerUtils.EXPIRATION_PREFIX)).toList();
+            changes.addAll(reconcileKind(task, TimerKind.EXPIRATION, expirations,
+                    deadline.isAfter(now) ? List.of(deadline) : List.of(), now, dryRun));
+        }
+        return changes;
+    }
+
+    private List<Change> reconcileKind(Task task, TimerKind kind, List<String> names, List<OffsetDateTime> expected,
+                                       OffsetDateTime now, boolean dryRun) {
+        List<Change> changes = new ArrayList<>();
+        List<Change> fired = new ArrayList<>();
+        // Schedules fire on whole seconds
+        List<OffsetDateTime> expectedTimes = expected.stream().map(fireAt -> fireAt.truncatedTo(ChronoUnit.SECONDS)).toList();
+        Set<OffsetDateTime> unmatched = new LinkedHashSet<>(expectedTimes);
+        Map<String, OffsetDateTime> misplaced = new LinkedHashMap<>();
+
+        for (String name : names) {
+            Optional<OffsetDateTime> fireAt;
+            try {
+                rateLimiter.acquire(1);
+                fireAt = schedulerUtils.getScheduleExpression(name).flatMap(SchedulerUtils::parseAtExpression);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of(new Change(Difference.UNCHECKED, name, "interrupted", false));
+            } catch (Exception e) {
+                logger.error("Failed to read schedule {}: {}", name, e.getMessage());
+                changes.add(new Change(Difference.UNCHECKED, name, e.getMessage(), false));
+                continue;
+            }
+            if (fireAt.isEmpty()) {
+                // Deleted since it was listed, or not a one-off schedule of ours
+                continue;
+            }
+            OffsetDateTime scheduledAt = fireAt.get();
+            if (unmatched.remove(scheduledAt)) {
+                continue;
+            }
+            if (!scheduledAt.isAfter(now.minus(FIRE_GRACE))) {
+                fired.add(new Change(Difference.ORPHANED, name, "fired at " + scheduledAt, null));
+            } else if (scheduledAt.isAfter(now)) {
+                misplaced.put(name, scheduledAt);
+            }
+        }
+        // A misplaced schedule is moved to an expected time nothing fires at yet; without one it is a stage too many
+        Iterator<OffsetDateTime> openTimes = unmatched.iterator();
+        for (Map.Entry<String, OffsetDateTime> schedule : misplaced.entrySet()) {
+            String firesAt = "fires at " + schedule.getValue();
+            if (openTimes.hasNext()) {
+                OffsetDateTime fireAt = openTimes.next();
+                openTimes.remove();
+                changes.add(new Change(Difference.WRONG_TIME, schedule.getKey(), firesAt + ", expected " + fireAt, null));
+            } else {
+                changes.add(new Change(Difference.ORPHANED, schedule.getKey(), firesAt + ", not in " + expectedTimes, null));
+            }
+        }
+        for (OffsetDateTime fireAt : unmatched) {
+            String name = (kind == TimerKind.REMINDER ? SchedulerUtils.REMINDER_PREFIX : SchedulerUtils.EXPIRATION_PREFIX)
+                    + task.getTaskId();
+            changes.add(new Change(Difference.MISSING, name, kind.name().toLowerCase() + " at " + fireAt, null));
+        }
+
+        List<Change> result = new ArrayList<>();
+        for (Change change : fired) {
+            result.add(delete(change, dryRun));
+        }
+        List<Change> repairable = changes.stream().filter(change -> change.difference() != Difference.UNCHECKED).toList();
+        if (dryRun || repairable.isEmpty()) {
+            result.addAll(changes);
+            return result;
+        }
+        // Replacing the whole set also removes the stages moved to other fire times
+        boolean success = reschedule(task, kind, expected);
+        for (Change change : changes) {
+            result.add(change.difference() == Difference.UNCHECKED ? change : change.repaired(success));
+        }
+        return result;
+    }
+
+    /**
+     * Schedules the pending timers of a task that still has Scheduler schedules on the wheel, so
+     * deleting the schedules afterwards loses nothing.
+     */
+    private boolean moveToWheel(Task task, OffsetDateTime now) {
+        OffsetDateTime deadline = task.getDeadline().atOffset(ZoneOffset.UTC);
+        return reschedule(task, TimerKind.REMINDER, ReminderPolicy.forTask(task).fireTimes(deadline, now))
+                && reschedule(task, TimerKind.EXPIRATION, deadline.isAfter(now) ? List.of(deadline) : List.of());
+    }
+
+    private List<Change> deleteAll(Set<String> names, String reason, boolean dryRun) {
+        List<Change> changes = new ArrayList<>();
+        for (String name : names) {
+            if (isManaged(name)) {
+                changes.add(delete(new Change(Difference.ORPHANED, name, reason, null), dryRun));
+            }
+        }
+        return changes;
+    }
+
+    private boolean reschedule(Task task, TimerKind kind, List<OffsetDateTime> fireTimes) {
+        try {
+            rateLimiter.acquire(fireTimes.size() + 1);
+            taskTimers.schedule(task, kind, fireTimes);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            logger.error("Failed to reschedule {} timers of taskId: {}: {}", kind, task.getTaskId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private Change delete(Change change, boolean dryRun) {
+        if (dryRun) {
+            return change;
+        }
+        try {
+            rateLimiter.acquire(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return change.repaired(false);
+        }
+        return change.repaired(schedulerUtils.deleteScheduleNamed(change.scheduleName()).isSuccess());
+    }
+
+    /**
+     * Without an expiration target the expiration schedules are not this deployment's to judge.
+     */
+    private boolean isManaged(String name) {
+        return !name.startsWith(SchedulerUtils.EXPIRATION_PREFIX) || reconcileExpirations || !schedulerBackend;
+    }
+
+    private static String taskIdOf(String name) {
+        if (name.startsWith(SchedulerUtils.EXPIRATION_PREFIX)) {
+            return name.substring(SchedulerUtils.EXPIRATION_PREFIX.length());
+        }
+        String suffix = name.substring(SchedulerUtils.REMINDER_PREFIX.length());
+        Matcher stage = STAGE_SUFFIX.matcher(suffix);
+        return stage.matches() ? stage.group(1) : suffix;
+    }
+
+    private static List<Change> changesOf(String taskId, BoundedFanOut.Result<List<Change>> check) {
+        if (!check.failed()) {
+            return check.value();
+        }
+        if (check.error() instanceof InterruptedException) {
+            return List.of(new Change(Difference.UNCHECKED, taskId, "interrupted", false));
+        }
+        logger.error("Failed to reconcile schedules of taskId: {}: {}", taskId, check.error().getMessage());
+        return List.of(new Change(Difference.UNCHECKED, taskId, String.valueOf(check.error().getMessage()), false));
+    }
+
+    private static ScheduleReconcileReport report(boolean dryRun, boolean complete, int schedules, int tasks,
+                                                  List<Change> changes) {
+        Map<Difference, Integer> counts = new HashMap<>();
+        int repaired = 0;
+        int failed = 0;
+        List<String> diff = new ArrayList<>();
+        for (Change change : changes) {
+            counts.merge(change.difference(), 1, Integer::sum);
+            if (Boolean.TRUE.equals(change.repaired())) {
+                repaired++;
+            } else if (Boolean.FALSE.equals(change.repaired())) {
+                failed++;
+            }
+            if (diff.size() < ScheduleReconcileReport.MAX_DIFF_LINES) {
+                diff.add(change.line());
+            }
+        }
+        return new ScheduleReconcileReport(dryRun, complete, schedules, tasks,
+                counts.getOrDefault(Difference.MISSING, 0),
+                counts.getOrDefault(Difference.ORPHANED, 0),
+                counts.getOrDefault(Difference.WRONG_TIME, 0),
+                repaired, failed, diff);
+    }
+
+    /**
+     * Spaces calls evenly at the given rate across every thread of the run.
+     */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextSlot = System.nanoTime();
+
+        RateLimiter(int permitsPerSecond) {
+            this.intervalNanos = 1_000_000_000L / permitsPerSecond;
+        }
+
+        void acquire(int permits) throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextSlot);
+                nextSlot = slot + intervalNanos * permits;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                Thread.sleep(Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.amalitechtaskmanager.utils;
+
+/**
+ * What a schedule operation did, in place of exceptions swallowed inside {@link SchedulerUtils}.
+ *
+ * @param error the failure message, null unless the outcome is FAILED
+ */
+public record ScheduleResult(String scheduleName, Outcome outcome, String error) {
+
+    public enum Outcome {
+        CREATED, UPDATED, DELETED, NOT_FOUND, SKIPPED, FAILED
+    }
+
+    public static ScheduleResult of(String scheduleName, Outcome outcome) {
+        return new ScheduleResult(scheduleName, outcome, null);
+    }
+
+    public static ScheduleResult failed(String scheduleName, String error) {
+        return new ScheduleResult(scheduleName, Outcome.FAILED, error);
+    }
+
+    public boolean isSuccess() {
+        return outcome != Outcome.FAILED;
+    }
+}
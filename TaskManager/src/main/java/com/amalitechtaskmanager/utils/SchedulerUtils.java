@@ -1,30 +1,60 @@
 package com.amalitechtaskmanager.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.model.TimerPayload;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.scheduler.SchedulerClient;
+import software.amazon.awssdk.services.scheduler.model.ConflictException;
 import software.amazon.awssdk.services.scheduler.model.CreateScheduleRequest;
 import software.amazon.awssdk.services.scheduler.model.DeleteScheduleRequest;
 import software.amazon.awssdk.services.scheduler.model.FlexibleTimeWindow;
+import software.amazon.awssdk.services.scheduler.model.GetScheduleRequest;
+import software.amazon.awssdk.services.scheduler.model.ListSchedulesRequest;
+import software.amazon.awssdk.services.scheduler.model.ListSchedulesResponse;
 import software.amazon.awssdk.services.scheduler.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.scheduler.model.ScheduleSummary;
 import software.amazon.awssdk.services.scheduler.model.ScheduleState;
 import software.amazon.awssdk.services.scheduler.model.Target;
+import software.amazon.awssdk.services.scheduler.model.UpdateScheduleRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
 import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
 
+/**
+ * One-off EventBridge Scheduler schedules per task, named deterministically
+ * {@code TaskReminder_<taskId>} (with a {@code _<stage>} suffix for later reminder stages)
+ * and {@code TaskExpiration_<taskId>}.
+ * <p>
+ * Schedules are upserted: UpdateSchedule first, CreateSchedule when it does not exist, so a
+ * reschedule is one call and there is no window without a schedule. Requests carry a client
+ * token derived from their content, so a retried stream batch does not repeat the change.
+ * Every operation reports a {@link ScheduleResult} instead of throwing.
+ */
 public class SchedulerUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(SchedulerUtils.class);
+    public static final String REMINDER_PREFIX = "TaskReminder_";
+    public static final String EXPIRATION_PREFIX = "TaskExpiration_";
+    public static final String EVENT_SOURCE = "task-manager";
     private final SchedulerClient schedulerClient;
 
     public SchedulerUtils(SchedulerClient schedulerClient) {
@@ -38,146 +68,253 @@ public class SchedulerUtils {
 
     public static Optional<OffsetDateTime> parseDeadline(String deadline) {
         logger.info("Deadline string: {}", deadline);
-        try {
-            LocalDateTime localDateTime = LocalDateTime.parse(deadline, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            return Optional.of(localDateTime.atOffset(ZoneOffset.UTC)); // or any desired ZoneOffset
-        } catch (DateTimeParseException e) {
+        Optional<OffsetDateTime> parsed = TaskItemCodec.parseDate(deadline)
+                .map(localDateTime -> localDateTime.atOffset(ZoneOffset.UTC));
+        if (parsed.isEmpty()) {
             logger.error("Invalid deadline format: {}", deadline);
-            return Optional.empty();
         }
+        return parsed;
     }
 
-    public void deleteSchedule(String taskId) {
-        try {
-            DeleteScheduleRequest request = DeleteScheduleRequest.builder()
-                    .name("TaskReminder_" + taskId)
-                    .build();
-            schedulerClient.deleteSchedule(request);
-            logger.info("Deleted schedule for taskId: {}", taskId);
-        } catch (ResourceNotFoundException e) {
-            logger.debug("No schedule found to delete for taskId: {}", taskId);
-        } catch (Exception e) {
-            logger.error("Error deleting schedule for taskId: {}: {}", taskId, e.getMessage());
-        }
+    public ScheduleResult deleteSchedule(String taskId) {
+        return delete(REMINDER_PREFIX + taskId);
     }
 
-    public void createSchedule(String taskId, OffsetDateTime reminderTime,
-                               Map<String, AttributeValue> taskItem,
-                               String targetLambdaArn, String schedulerRoleArn) {
-        logger.info("Creating schedule for taskId: {} at {}", taskId, reminderTime);
-        try {
-            String scheduleExpression = "at(" + reminderTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + ")";
-
-
-            Map<String, String> inputPayload = new HashMap<>();
-            taskItem.forEach((key, value) ->
-                    getAttributeValue(value).ifPresent(val -> inputPayload.put(key, val))
-            );
-
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("detail-type", "TaskReminder");
-            payload.put("source", "task-manager");
-            payload.put("detail", inputPayload);
+    public ScheduleResult deleteScheduleNamed(String name) {
+        return delete(name);
+    }
 
+    /**
+     * Stage 0 keeps the original {@code TaskReminder_<taskId>} name; later stages of a reminder
+     * policy get a {@code _<stage>} suffix.
+     */
+    public static String reminderName(String taskId, int stage) {
+        return stage == 0 ? REMINDER_PREFIX + taskId : REMINDER_PREFIX + taskId + "_" + stage;
+    }
 
-            String payloadJson = new ObjectMapper().writeValueAsString(payload);
-            logger.info("Payload: {}", payloadJson);
+    /**
+     * The names of every reminder schedule of the task, whatever its number of stages.
+     *
+     * @throws software.amazon.awssdk.core.exception.SdkException if the schedules cannot be listed
+     */
+    public List<String> reminderScheduleNames(String taskId) {
+        String name = REMINDER_PREFIX + taskId;
+        return listScheduleNames(name).stream()
+                .filter(candidate -> candidate.equals(name) || candidate.startsWith(name + "_"))
+                .toList();
+    }
 
+    /**
+     * The names of the schedules starting with the prefix, across every page.
+     *
+     * @throws software.amazon.awssdk.core.exception.SdkException if the schedules cannot be listed
+     */
+    public List<String> listScheduleNames(String namePrefix) {
+        List<String> names = new ArrayList<>();
+        String nextToken = null;
+        do {
+            ListSchedulesResponse page = schedulerClient.listSchedules(ListSchedulesRequest.builder()
+                    .namePrefix(namePrefix)
+                    .nextToken(nextToken)
+                    .build());
+            for (ScheduleSummary schedule : page.schedules()) {
+                names.add(schedule.name());
+            }
+            nextToken = page.nextToken();
+        } while (nextToken != null && !nextToken.isEmpty());
+        return names;
+    }
 
-            CreateScheduleRequest request = CreateScheduleRequest.builder()
-                    .name("TaskReminder_" + taskId)
-                    .scheduleExpression(scheduleExpression)
-                    .state(ScheduleState.ENABLED)
-                    .description("Reminder for task " + taskId)
-                    .flexibleTimeWindow(FlexibleTimeWindow.builder().mode("OFF").build())
-                    .target(Target.builder()
-                            .arn(targetLambdaArn)
-                            .roleArn(schedulerRoleArn)
-                            .input(payloadJson)
-                            .build())
-                    .build();
-            logger.info("Creating schedule for taskId: {} with payload {}", taskId, request);
-            schedulerClient.createSchedule(request);
-            logger.info("Created new schedule for taskId: {} at {}", taskId, reminderTime);
+    /**
+     * Creates the reminder schedule of the given stage, or moves it.
+     */
+    public ScheduleResult scheduleReminder(Task task, int stage, OffsetDateTime reminderTime,
+                                           String targetLambdaArn, String schedulerRoleArn) {
+        String name = reminderName(task.getTaskId(), stage);
+        try {
+            TimerPayload payload = TimerPayload.of(task, TimerKind.REMINDER, reminderTime.toInstant().toEpochMilli());
+            return upsert(name, reminderTime, "Reminder for task " + task.getTaskId(), Target.builder()
+                    .arn(targetLambdaArn)
+                    .roleArn(schedulerRoleArn)
+                    .input(eventInput(payload))
+                    .build());
         } catch (Exception e) {
-            logger.error("Failed to create schedule for taskId: {}: {}", taskId, e.getMessage());
+            logger.error("Failed to schedule reminder for taskId: {}: {}", task.getTaskId(), e.getMessage());
+            return ScheduleResult.failed(name, e.getMessage());
         }
     }
-    
+
     /**
      * Schedules a task expiration check at the task's deadline
-     * 
+     *
      * @param task The task to schedule expiration for
      * @param expirationLambdaArn The ARN of the lambda to trigger for expiration
      * @param schedulerRoleArn The ARN of the role to use for scheduling
-     * @return true if scheduling was successful, false otherwise
+     * @return SKIPPED for an invalid task or a deadline in the past
      */
-    public boolean scheduleTaskExpiration(Task task, String expirationLambdaArn, String schedulerRoleArn) {
+    public ScheduleResult scheduleTaskExpiration(Task task, String expirationLambdaArn, String schedulerRoleArn) {
         if (task == null || task.getDeadline() == null || task.getTaskId() == null) {
             logger.warn("Cannot schedule expiration for invalid task");
-            return false;
+            return ScheduleResult.of(null, ScheduleResult.Outcome.SKIPPED);
         }
-        
+        String name = EXPIRATION_PREFIX + task.getTaskId();
+
         try {
             // Convert task deadline to OffsetDateTime
             OffsetDateTime expirationTime = task.getDeadline().atOffset(ZoneOffset.UTC);
-            OffsetDateTime now = OffsetDateTime.now();
-            
+
             // Don't schedule if deadline is in the past
-            if (expirationTime.isBefore(now)) {
+            if (expirationTime.isBefore(OffsetDateTime.now())) {
                 logger.warn("Task deadline {} is in the past for taskId: {}", expirationTime, task.getTaskId());
-                return false;
+                return ScheduleResult.of(name, ScheduleResult.Outcome.SKIPPED);
             }
-            
-            // Convert task to a map for the scheduler payload
-            Map<String, String> inputPayload = new HashMap<>();
-            inputPayload.put("taskId", task.getTaskId());
-            inputPayload.put("name", task.getName());
-            inputPayload.put("description", task.getDescription() != null ? task.getDescription() : "");
-            inputPayload.put("status", task.getStatus().toString());
-            inputPayload.put("deadline", task.getDeadline().toString());
-            inputPayload.put("userId", task.getUserId());
-            
-            String scheduleExpression = "at(" + expirationTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + ")";
-            
-            CreateScheduleRequest request = CreateScheduleRequest.builder()
-                    .name("TaskExpiration_" + task.getTaskId())
-                    .scheduleExpression(scheduleExpression)
-                    .state(ScheduleState.ENABLED)
-                    .flexibleTimeWindow(FlexibleTimeWindow.builder().mode("OFF").build())
-                    .target(Target.builder()
-                            .arn(expirationLambdaArn)
-                            .roleArn(schedulerRoleArn)
-                            .input(new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(inputPayload))
-                            .build())
-                    .build();
-            
-            schedulerClient.createSchedule(request);
-            logger.info("Created expiration schedule for taskId: {} at deadline: {}", task.getTaskId(), expirationTime);
-            return true;
+
+            TimerPayload payload = TimerPayload.of(task, TimerKind.EXPIRATION, expirationTime.toInstant().toEpochMilli());
+            return upsert(name, expirationTime, null, Target.builder()
+                    .arn(expirationLambdaArn)
+                    .roleArn(schedulerRoleArn)
+                    .input(eventInput(payload))
+                    .build());
         } catch (Exception e) {
             logger.error("Failed to schedule expiration for taskId: {}: {}", task.getTaskId(), e.getMessage());
-            return false;
+            return ScheduleResult.failed(name, e.getMessage());
         }
     }
-    
+
+    /**
+     * The target input: an event shaped like the ones the timer wheel publishes, so handlers
+     * read {@code detail} whichever backend fired it.
+     */
+    private static String eventInput(TimerPayload payload) throws JsonProcessingException {
+        Map<String, Object> event = new HashMap<>();
+        event.put("detail-type", payload.kind().getDetailType());
+        event.put("source", EVENT_SOURCE);
+        event.put("detail", payload.toDetail());
+        return ObjectMapperFactory.getMapper().writeValueAsString(event);
+    }
+
     /**
      * Deletes a task expiration schedule
-     * 
+     *
      * @param taskId The ID of the task
      */
-    public void deleteExpirationSchedule(String taskId) {
+    public ScheduleResult deleteExpirationSchedule(String taskId) {
+        return delete(EXPIRATION_PREFIX + taskId);
+    }
+
+    private ScheduleResult delete(String name) {
+        try {
+            schedulerClient.deleteSchedule(DeleteScheduleRequest.builder()
+                    .name(name)
+                    .build());
+            logger.info("Deleted schedule {}", name);
+            return ScheduleResult.of(name, ScheduleResult.Outcome.DELETED);
+        } catch (ResourceNotFoundException e) {
+            logger.debug("No schedule {} to delete", name);
+            return ScheduleResult.of(name, ScheduleResult.Outcome.NOT_FOUND);
+        } catch (Exception e) {
+            logger.error("Error deleting schedule {}: {}", name, e.getMessage());
+            return ScheduleResult.failed(name, e.getMessage());
+        }
+    }
+
+    /**
+     * The one-off schedule expression firing at the given time, in UTC and to the second.
+     */
+    public static String atExpression(OffsetDateTime fireAt) {
+        return "at(" + fireAt.withOffsetSameInstant(ZoneOffset.UTC)
+                .truncatedTo(ChronoUnit.SECONDS)
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + ")";
+    }
+
+    /**
+     * The fire time of an {@code at(...)} expression written by {@link #atExpression}; empty for
+     * any other expression.
+     */
+    public static Optional<OffsetDateTime> parseAtExpression(String scheduleExpression) {
+        if (scheduleExpression == null || !scheduleExpression.startsWith("at(") || !scheduleExpression.endsWith(")")) {
+            return Optional.empty();
+        }
         try {
-            DeleteScheduleRequest request = DeleteScheduleRequest.builder()
-                    .name("TaskExpiration_" + taskId)
-                    .build();
-            schedulerClient.deleteSchedule(request);
-            logger.info("Deleted expiration schedule for taskId: {}", taskId);
+            return Optional.of(LocalDateTime.parse(scheduleExpression.substring(3, scheduleExpression.length() - 1),
+                    DateTimeFormatter.ISO_LOCAL_DATE_TIME).atOffset(ZoneOffset.UTC));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The schedule expression of the named schedule, empty when it does not exist.
+     *
+     * @throws software.amazon.awssdk.core.exception.SdkException if the schedule cannot be read
+     */
+    public Optional<String> getScheduleExpression(String name) {
+        try {
+            return Optional.ofNullable(schedulerClient.getSchedule(GetScheduleRequest.builder()
+                    .name(name)
+                    .build()).scheduleExpression());
         } catch (ResourceNotFoundException e) {
-            logger.debug("No expiration schedule found to delete for taskId: {}", taskId);
+            return Optional.empty();
+        }
+    }
+
+    private ScheduleResult upsert(String name, OffsetDateTime fireAt, String description, Target target) {
+        String scheduleExpression = atExpression(fireAt);
+        String clientToken = clientToken(name, scheduleExpression, target);
+        try {
+            try {
+                update(name, scheduleExpression, description, target, clientToken);
+                logger.info("Updated schedule {} to {}", name, scheduleExpression);
+                return ScheduleResult.of(name, ScheduleResult.Outcome.UPDATED);
+            } catch (ResourceNotFoundException e) {
+                logger.debug("Schedule {} does not exist yet", name);
+            }
+            try {
+                schedulerClient.createSchedule(CreateScheduleRequest.builder()
+                        .name(name)
+                        .scheduleExpression(scheduleExpression)
+                        .state(ScheduleState.ENABLED)
+                        .description(description)
+                        .flexibleTimeWindow(FlexibleTimeWindow.builder().mode("OFF").build())
+                        .target(target)
+                        .clientToken(clientToken)
+                        .build());
+                logger.info("Created schedule {} at {}", name, scheduleExpression);
+                return ScheduleResult.of(name, ScheduleResult.Outcome.CREATED);
+            } catch (ConflictException e) {
+                // Created concurrently between the two calls
+                update(name, scheduleExpression, description, target, clientToken);
+                logger.info("Updated concurrently created schedule {} to {}", name, scheduleExpression);
+                return ScheduleResult.of(name, ScheduleResult.Outcome.UPDATED);
+            }
         } catch (Exception e) {
-            logger.error("Error deleting expiration schedule for taskId: {}: {}", taskId, e.getMessage());
+            logger.error("Failed to upsert schedule {}: {}", name, e.getMessage());
+            return ScheduleResult.failed(name, e.getMessage());
+        }
+    }
+
+    private void update(String name, String scheduleExpression, String description, Target target, String clientToken) {
+        schedulerClient.updateSchedule(UpdateScheduleRequest.builder()
+                .name(name)
+                .scheduleExpression(scheduleExpression)
+                .state(ScheduleState.ENABLED)
+                .description(description)
+                .flexibleTimeWindow(FlexibleTimeWindow.builder().mode("OFF").build())
+                .target(target)
+                .clientToken(clientToken)
+                .build());
+    }
+
+    /**
+     * Same request, same token: a retry of an applied change is a no-op. Tokens are at most 64 characters.
+     */
+    private static String clientToken(String name, String scheduleExpression, Target target) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String content = name + "|" + scheduleExpression + "|" + target.arn() + "|" + target.input();
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 }
@@ -5,38 +5,96 @@ import com.amalitechtaskmanager.model.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
 import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SnsUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(SnsUtils.class);
+    private static final int MAX_BATCH_PUBLISH = 10;
+
+    /**
+     * One email for {@link #publishEmailBatch}; the id must be unique within the call.
+     */
+    public record Email(String id, String recipient, String subject, String message) {
+    }
 
     public static void sendEmailNotification(String topicArn, String email, String subject, String message) {
         try {
-
-            Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
-
-            // Use "user_id" to match the filter policy
-            messageAttributes.put("recipient_email",
-                    MessageAttributeValue.builder()
-                            .dataType("String")
-                            .stringValue(email)
-                            .build());
-            logger.info("messageAttributes{}", messageAttributes);
-            // Publish with message attributes
-            SNSFactory.getSnsClient().publish(PublishRequest.builder()
-                    .topicArn(topicArn)
-                    .message(message)
-                    .subject(subject)
-                    .messageAttributes(messageAttributes)
-                    .build());
-            logger.info("Notification sent to {} for taskId: {}", email, message);
+            publishEmail(topicArn, email, subject, message);
         } catch (Exception e) {
             logger.error("Failed to send notification: {}", e.getMessage());
         }
     }
+
+    /**
+     * Like {@link #sendEmailNotification} but lets a failed publish throw, for callers that retry.
+     */
+    public static void publishEmail(String topicArn, String email, String subject, String message) {
+        Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
+
+        // Use "user_id" to match the filter policy
+        messageAttributes.put("recipient_email",
+                MessageAttributeValue.builder()
+                        .dataType("String")
+                        .stringValue(email)
+                        .build());
+        logger.info("messageAttributes{}", messageAttributes);
+        // Publish with message attributes
+        SNSFactory.getSnsClient().publish(PublishRequest.builder()
+                .topicArn(topicArn)
+                .message(message)
+                .subject(subject)
+                .messageAttributes(messageAttributes)
+                .build());
+        logger.info("Notification sent to {} for taskId: {}", email, message);
+    }
+
+    /**
+     * Publishes emails with PublishBatch, ten per request, addressed like
+     * {@link #sendEmailNotification} through the {@code recipient_email} attribute.
+     *
+     * @return the error per id of the emails that were not published
+     */
+    public static Map<String, String> publishEmailBatch(String topicArn, List<Email> emails) {
+        Map<String, String> failed = new HashMap<>();
+        for (int start = 0; start < emails.size(); start += MAX_BATCH_PUBLISH) {
+            List<Email> chunk = emails.subList(start, Math.min(emails.size(), start + MAX_BATCH_PUBLISH));
+            List<PublishBatchRequestEntry> entries = new ArrayList<>();
+            for (Email email : chunk) {
+                entries.add(PublishBatchRequestEntry.builder()
+                        .id(email.id())
+                        .subject(email.subject())
+                        .message(email.message())
+                        .messageAttributes(Map.of("recipient_email", MessageAttributeValue.builder()
+                                .dataType("String")
+                                .stringValue(email.recipient())
+                                .build()))
+                        .build());
+            }
+            try {
+                PublishBatchResponse response = SNSFactory.getSnsClient().publishBatch(PublishBatchRequest.builder()
+                        .topicArn(topicArn)
+                        .publishBatchRequestEntries(entries)
+                        .build());
+                for (BatchResultErrorEntry error : response.failed()) {
+                    failed.put(error.id(), error.code() + ": " + error.message());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to publish {} notifications: {}", chunk.size(), e.getMessage());
+                chunk.forEach(email -> failed.put(email.id(), e.getMessage()));
+            }
+        }
+        logger.info("Published {} of {} notifications", emails.size() - failed.size(), emails.size());
+        return failed;
+    }
 }
@@ -0,0 +1,94 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Processes an SQS batch concurrently on virtual threads, at most SQS_CONCURRENCY messages at
+ * a time (default 10), and reports the messages that failed as batch item failures so only
+ * those are delivered again. The event source mapping needs
+ * {@code FunctionResponseTypes: [ReportBatchItemFailures]}, otherwise the response is ignored.
+ * <p>
+ * Messages of a FIFO message group run one after the other in queue order; once one fails the
+ * rest of its group is reported failed unprocessed, so a retry cannot overtake it. Messages are
+ * deduplicated by message id, within the batch and against the ids this container processed
+ * in the last SQS_DEDUPE_TTL_SECONDS (default 900), which catches most redeliveries after a
+ * visibility timeout. That is best effort, so the handler should still tolerate a repeat.
+ * <p>
+ * A handler that throws fails its message. Problems a retry cannot fix, such as an unparsable
+ * body, should be logged and skipped rather than thrown, or the message is retried until it
+ * lands in the dead-letter queue.
+ */
+public final class SqsBatchProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqsBatchProcessor.class);
+    private static final int CONCURRENCY = EnvUtils.intFromEnv("SQS_CONCURRENCY", 10);
+    private static final String MESSAGE_GROUP_ID = "MessageGroupId";
+    private static final BoundedTtlCache<String, Boolean> processed = new BoundedTtlCache<>(
+            10_000, EnvUtils.intFromEnv("SQS_DEDUPE_TTL_SECONDS", 900) * 1000L);
+
+    @FunctionalInterface
+    public interface MessageHandler {
+        void handle(SQSMessage message) throws Exception;
+    }
+
+    private SqsBatchProcessor() {
+    }
+
+    public static SQSBatchResponse process(List<SQSMessage> messages, MessageHandler handler) {
+        // Standard queue messages have no group and each runs on its own
+        Map<String, List<SQSMessage>> byGroup = new LinkedHashMap<>();
+        int duplicates = 0;
+        for (SQSMessage message : messages) {
+            if (processed.get(message.getMessageId()) != null || isQueued(byGroup, message)) {
+                duplicates++;
+                continue;
+            }
+            byGroup.computeIfAbsent(groupOf(message), ignored -> new ArrayList<>()).add(message);
+        }
+
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+        BoundedFanOut.run(byGroup.keySet(), CONCURRENCY, group -> processGroup(byGroup.get(group), handler))
+                .forEach((group, result) -> {
+                    List<SQSMessage> failed = result.failed() ? byGroup.get(group) : result.value();
+                    failed.forEach(message -> failures.add(new SQSBatchResponse.BatchItemFailure(message.getMessageId())));
+                });
+
+        logger.info("Processed {} SQS messages, {} duplicates skipped, {} failed", messages.size(), duplicates, failures.size());
+        return new SQSBatchResponse(failures);
+    }
+
+    /**
+     * @return the message that failed and the ones after it, empty if all were processed
+     */
+    private static List<SQSMessage> processGroup(List<SQSMessage> messages, MessageHandler handler) {
+        for (int i = 0; i < messages.size(); i++) {
+            SQSMessage message = messages.get(i);
+            try {
+                handler.handle(message);
+                processed.put(message.getMessageId(), Boolean.TRUE);
+            } catch (Exception e) {
+                logger.error("Failed to process SQS message {}: {}", message.getMessageId(), e.getMessage(), e);
+                return messages.subList(i, messages.size());
+            }
+        }
+        return List.of();
+    }
+
+    private static boolean isQueued(Map<String, List<SQSMessage>> byGroup, SQSMessage message) {
+        List<SQSMessage> group = byGroup.get(groupOf(message));
+        return group != null && group.stream().anyMatch(queued -> queued.getMessageId().equals(message.getMessageId()));
+    }
+
+    private static String groupOf(SQSMessage message) {
+        String group = message.getAttributes() != null ? message.getAttributes().get(MESSAGE_GROUP_ID) : null;
+        return group != null ? "group:" + group : "message:" + message.getMessageId();
+    }
+}
@@ -0,0 +1,68 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent.DynamodbStreamRecord;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Processes a DynamoDB stream batch concurrently: records are grouped by taskId, groups run on
+ * virtual threads (at most STREAM_CONCURRENCY at a time, default 10) and the records of one
+ * task are handed over together, in stream order.
+ * <p>
+ * A group that throws is reported as a batch item failure at its first record. Lambda resumes
+ * the shard from the lowest reported sequence number, so records of other tasks after it are
+ * delivered again and the handler must be idempotent. Problems a retry cannot fix, such as an
+ * unparsable image, should be logged and skipped rather than thrown, or they block the shard.
+ */
+public final class StreamBatchProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamBatchProcessor.class);
+    private static final int CONCURRENCY = EnvUtils.intFromEnv("STREAM_CONCURRENCY", 10);
+
+    @FunctionalInterface
+    public interface TaskRecordsHandler {
+        void handle(String taskId, List<DynamodbStreamRecord> records) throws Exception;
+    }
+
+    private StreamBatchProcessor() {
+    }
+
+    public static StreamsEventResponse process(List<DynamodbStreamRecord> records, TaskRecordsHandler handler) {
+        Map<String, List<DynamodbStreamRecord>> byTask = new LinkedHashMap<>();
+        for (DynamodbStreamRecord record : records) {
+            byTask.computeIfAbsent(taskIdOf(record), ignored -> new ArrayList<>()).add(record);
+        }
+
+        List<DynamodbStreamRecord> failed = new ArrayList<>();
+        BoundedFanOut.run(byTask.keySet(), CONCURRENCY, taskId -> {
+            handler.handle(taskId, byTask.get(taskId));
+            return null;
+        }).forEach((taskId, result) -> {
+            if (result.failed()) {
+                logger.error("Failed to process {} stream records for taskId {}: {}",
+                        byTask.get(taskId).size(), taskId, result.error().getMessage(), result.error());
+                failed.add(byTask.get(taskId).get(0));
+            }
+        });
+
+        logger.info("Processed {} tasks from {} stream records, {} failed", byTask.size(), records.size(), failed.size());
+        return new StreamsEventResponse(failed.stream()
+                .sorted(Comparator.comparing(record -> new BigInteger(record.getDynamodb().getSequenceNumber())))
+                .map(record -> new StreamsEventResponse.BatchItemFailure(record.getDynamodb().getSequenceNumber()))
+                .toList());
+    }
+
+    private static String taskIdOf(DynamodbStreamRecord record) {
+        AttributeValue key = record.getDynamodb().getKeys() != null ? record.getDynamodb().getKeys().get("taskId") : null;
+        return key != null && key.getS() != null ? key.getS() : "unknown";
+    }
+}
@@ -0,0 +1,120 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Writes DynamoDB items as JSON directly to a {@link JsonGenerator} using
+ * {@link DynamoItemSerializer}, without building intermediate {@code Map<String, Object>}
+ * copies of every item.
+ * <p>
+ * The items are consumed lazily, so when they come from a paginator only one page is held
+ * in memory at a time. Output goes to a per-thread byte buffer that is reset and reused
+ * across invocations of a warm container; buffers that grew past {@link #MAX_RETAINED_BUFFER}
+ * are dropped after use so that one huge response does not pin the memory for good.
+ */
+public final class StreamingJsonWriter {
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int MAX_RETAINED_BUFFER = 4 * 1024 * 1024;
+    private static final JsonFactory JSON_FACTORY = ObjectMapperFactory.getMapper().getFactory();
+    private static final ThreadLocal<ReusableBuffer> BUFFER = ThreadLocal.withInitial(ReusableBuffer::new);
+
+    private StreamingJsonWriter() {
+    }
+
+    public record JsonArray(String body, int count) {
+    }
+
+    public static JsonArray writeItems(Iterable<Map<String, AttributeValue>> items) {
+        return writeItems(items, null);
+    }
+
+    /**
+     * @param zone the zone to render dates in; null for the zone-less UTC format
+     */
+    public static JsonArray writeItems(Iterable<Map<String, AttributeValue>> items, ZoneId zone) {
+        DynamoItemSerializer serializer = DynamoItemSerializer.forZone(zone);
+        int[] count = new int[1];
+        String body = write(generator -> {
+            generator.writeStartArray();
+            for (Map<String, AttributeValue> item : items) {
+                serializer.serialize(item, generator, null);
+                count[0]++;
+            }
+            generator.writeEndArray();
+        });
+        return new JsonArray(body, count[0]);
+    }
+
+    /**
+     * Writes {@code {"tasks": [...], "nextCursor": "..."}}; the cursor is omitted on the last page.
+     */
+    public static String writePage(Iterable<Map<String, AttributeValue>> items, String nextCursor) {
+        return writePage(items, nextCursor, null);
+    }
+
+    public static String writePage(Iterable<Map<String, AttributeValue>> items, String nextCursor, ZoneId zone) {
+        DynamoItemSerializer serializer = DynamoItemSerializer.forZone(zone);
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("tasks");
+            for (Map<String, AttributeValue> item : items) {
+                serializer.serialize(item, generator, null);
+            }
+            generator.writeEndArray();
+            if (nextCursor != null) {
+                generator.writeStringField("nextCursor", nextCursor);
+            }
+            generator.writeEndObject();
+        });
+    }
+
+    public static String writeItem(Map<String, AttributeValue> item) {
+        return writeItem(item, null);
+    }
+
+    public static String writeItem(Map<String, AttributeValue> item, ZoneId zone) {
+        return write(generator -> DynamoItemSerializer.forZone(zone).serialize(item, generator, null));
+    }
+
+    private static String write(JsonWriter writer) {
+        ReusableBuffer buffer = BUFFER.get();
+        buffer.reset();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+            writer.write(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write items as JSON", e);
+        }
+
+        String body = buffer.toString(StandardCharsets.UTF_8);
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return body;
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private static final class ReusableBuffer extends ByteArrayOutputStream {
+        ReusableBuffer() {
+            super(INITIAL_BUFFER);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
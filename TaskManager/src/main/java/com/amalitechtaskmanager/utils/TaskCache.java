@@ -0,0 +1,85 @@
+package com.amalitechtaskmanager.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-container read-through cache of raw task items, keyed by taskId, in front of the
+ * reads that precede a task write. Entries expire after TASK_CACHE_TTL_SECONDS and the cache
+ * holds at most TASK_CACHE_MAX_ENTRIES items. Writes are guarded by the task version, so a
+ * stale entry can at worst cause one conditional-check retry.
+ * <p>
+ * Only writes in the same container invalidate an entry; other containers keep serving their
+ * copy until it expires. Reads whose result is returned to a client must therefore not come
+ * from here, see {@link DynamoDbUtils#getTaskItem}.
+ */
+public class TaskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskCache.class);
+    private static final int REPORT_INTERVAL = 50;
+
+    private static final BoundedTtlCache<String, Map<String, AttributeValue>> cache = new BoundedTtlCache<>(
+            EnvUtils.intFromEnv("TASK_CACHE_MAX_ENTRIES", 1000),
+            EnvUtils.intFromEnv("TASK_CACHE_TTL_SECONDS", 30) * 1000L);
+
+    private static long lookups;
+    private static long reportedHits;
+    private static long reportedMisses;
+
+    /**
+     * Returns the task item, serving it from the cache unless a strongly consistent read
+     * is requested. Consistent reads always go to DynamoDB and refresh the cached entry.
+     */
+    public static Optional<Map<String, AttributeValue>> getItem(DynamoDbClient client, String tableName,
+                                                               String taskId, boolean consistentRead) {
+        if (!consistentRead) {
+            Map<String, AttributeValue> cached = cache.get(taskId);
+            recordLookup();
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        GetItemResponse response = client.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("taskId", AttributeValue.fromS(taskId)))
+                .consistentRead(consistentRead)
+                .build());
+
+        if (!response.hasItem()) {
+            cache.invalidate(taskId);
+            return Optional.empty();
+        }
+        cache.put(taskId, response.item());
+        return Optional.of(response.item());
+    }
+
+    public static void invalidate(String taskId) {
+        cache.invalidate(taskId);
+    }
+
+    private static synchronized void recordLookup() {
+        lookups++;
+        if (lookups % REPORT_INTERVAL != 0) {
+            return;
+        }
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long intervalHits = hits - reportedHits;
+        long intervalMisses = misses - reportedMisses;
+        reportedHits = hits;
+        reportedMisses = misses;
+
+        double hitRatio = 100.0 * intervalHits / Math.max(1, intervalHits + intervalMisses);
+        MetricsUtils.putMetric("TaskCacheHitRatio", hitRatio, "Percent", Map.of("Cache", "Task"));
+        logger.info("Task cache hit ratio {}% over last {} lookups ({} entries cached)",
+                Math.round(hitRatio), intervalHits + intervalMisses, cache.size());
+    }
+}
@@ -0,0 +1,109 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.repository.TaskItemCodec;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Time zones at the edges of the API. Task dates are stored in UTC, as the ISO wall time and
+ * its epoch-millis companion, and every rule is evaluated on those; zones only matter when a
+ * date comes in or goes out.
+ * <p>
+ * A deadline sent with an offset is taken as is. Without one it is read in the creator's zone,
+ * which is kept with the task as {@code timeZone}. Responses render dates with their offset in
+ * the requester's zone, given by the {@code tz} query parameter or the {@code X-Time-Zone}
+ * header; requests without a zone get the zone-less UTC format the API always returned.
+ */
+public final class TaskTimeZones {
+
+    public static final String PARAM = "tz";
+    public static final String HEADER = "X-Time-Zone";
+    public static final DateTimeFormatter ZONED_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+
+    private TaskTimeZones() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the id is not a time zone such as Europe/Berlin or +02:00
+     */
+    public static ZoneId parse(String zoneId) {
+        try {
+            return ZoneId.of(zoneId.trim());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone '" + zoneId + "'");
+        }
+    }
+
+    /**
+     * The requester's zone; empty when the request names none.
+     *
+     * @throws IllegalArgumentException if the named zone is not valid
+     */
+    public static Optional<ZoneId> fromRequest(APIGatewayProxyRequestEvent request) {
+        Map<String, String> queryParams = request.getQueryStringParameters();
+        String zoneId = queryParams == null ? null : queryParams.get(PARAM);
+        if ((zoneId == null || zoneId.isBlank()) && request.getHeaders() != null) {
+            // Header names keep the client's casing
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                if (HEADER.equalsIgnoreCase(header.getKey())) {
+                    zoneId = header.getValue();
+                }
+            }
+        }
+        return zoneId == null || zoneId.isBlank() ? Optional.empty() : Optional.of(parse(zoneId));
+    }
+
+    /**
+     * The UTC wall time of a date sent by a client, read in the given zone unless it has an offset.
+     *
+     * @throws IllegalArgumentException if the value is not an ISO date-time
+     */
+    public static LocalDateTime toUtc(String value, ZoneId zone) {
+        try {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            LocalDateTime local = TaskItemCodec.parseDate(value)
+                    .orElseThrow(() -> new IllegalArgumentException("'" + value + "' is not a date like 2025-01-31T17:00:00"));
+            return local.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        }
+    }
+
+    /**
+     * Renders a stored UTC date in the zone, with its offset.
+     */
+    public static String render(LocalDateTime utc, ZoneId zone) {
+        return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).format(ZONED_FORMATTER);
+    }
+
+    /**
+     * The zone the task was created in; UTC for tasks that have none.
+     */
+    public static ZoneId zoneOf(Task task) {
+        if (task.getTimeZone() == null || task.getTimeZone().isEmpty()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(task.getTimeZone());
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
+    }
+
+    /**
+     * The deadline as the task's assignee reads it in notifications, e.g. {@code 2025-01-31T17:00:00+01:00 (Europe/Berlin)}.
+     */
+    public static String describeDeadline(Task task) {
+        ZoneId zone = zoneOf(task);
+        return render(task.getDeadline(), zone) + " (" + zone.getId() + ")";
+    }
+}
@@ -0,0 +1,51 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.factories.DynamoDbFactory;
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TimerKind;
+import com.amalitechtaskmanager.repository.TimerWheel;
+import software.amazon.awssdk.services.scheduler.SchedulerClient;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Point-in-time task timers. A task has at most one pending set of timers per kind, such as
+ * the stages of its {@link com.amalitechtaskmanager.model.ReminderPolicy}; scheduling a kind
+ * replaces the whole set.
+ * <p>
+ * Two backends exist. {@link TimerWheel} keeps timers in DynamoDB and is used when
+ * TIMERS_TABLE is set; otherwise each timer is an EventBridge Scheduler schedule.
+ */
+public interface TaskTimers {
+
+    /**
+     * Sets the timers of this kind for the task, replacing pending ones. No times cancels them.
+     */
+    void schedule(Task task, TimerKind kind, List<OffsetDateTime> fireTimes);
+
+    default void schedule(Task task, TimerKind kind, OffsetDateTime fireAt) {
+        schedule(task, kind, List.of(fireAt));
+    }
+
+    /**
+     * Cancels the pending timers of this kind for the task, if any.
+     */
+    void cancel(String taskId, TimerKind kind);
+
+    /**
+     * Cancels every pending timer of the task, for when it is completed or closed.
+     */
+    void cancelAll(String taskId);
+
+    static TaskTimers fromEnv() {
+        String timersTable = System.getenv("TIMERS_TABLE");
+        if (timersTable != null && !timersTable.isEmpty()) {
+            return new TimerWheel(DynamoDbFactory.getClient(), timersTable);
+        }
+        return new EventBridgeTaskTimers(new SchedulerUtils(SchedulerClient.create()),
+                System.getenv("TARGET_LAMBDA_ARN"),
+                System.getenv("TASK_EXPIRATION_LAMBDA_ARN"),
+                System.getenv("SCHEDULER_ROLE_ARN"));
+    }
+}
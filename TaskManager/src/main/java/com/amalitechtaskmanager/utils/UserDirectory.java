@@ -0,0 +1,84 @@
+package com.amalitechtaskmanager.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves user ids to email addresses with Cognito AdminGetUser, through a per-container cache
+ * of USER_DIRECTORY_MAX_ENTRIES entries (default 2000) kept for USER_DIRECTORY_TTL_SECONDS
+ * (default 900). Only found addresses are cached, so a user created after a miss is picked up
+ * on the next lookup. Lookups that failed, unlike users that do not exist, are reported apart
+ * so that callers can retry them.
+ * <p>
+ * Misses of a batch are looked up concurrently, at most LOOKUP_CONCURRENCY at a time, to stay
+ * well below the AdminGetUser request quota.
+ */
+public class UserDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+    private static final int LOOKUP_CONCURRENCY = 8;
+    private static final BoundedTtlCache<String, String> emails = new BoundedTtlCache<>(
+            EnvUtils.intFromEnv("USER_DIRECTORY_MAX_ENTRIES", 2000),
+            EnvUtils.intFromEnv("USER_DIRECTORY_TTL_SECONDS", 900) * 1000L);
+
+    private final CognitoIdentityProviderClient cognitoClient;
+    private final String userPoolId;
+
+    /**
+     * @param found  the email per user id; users without one are left out
+     * @param failed the user ids whose lookup failed
+     */
+    public record Emails(Map<String, String> found, Set<String> failed) {
+    }
+
+    public UserDirectory(CognitoIdentityProviderClient cognitoClient, String userPoolId) {
+        this.cognitoClient = cognitoClient;
+        this.userPoolId = userPoolId;
+    }
+
+    public Optional<String> emailOf(String userId) {
+        return Optional.ofNullable(emailsOf(List.of(userId)).found().get(userId));
+    }
+
+    public Emails emailsOf(Collection<String> userIds) {
+        Map<String, String> found = new HashMap<>();
+        Set<String> failed = new HashSet<>();
+        List<String> misses = new ArrayList<>();
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            String cached = emails.get(userId);
+            if (cached != null) {
+                found.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return new Emails(found, failed);
+        }
+
+        BoundedFanOut.run(misses, LOOKUP_CONCURRENCY, userId -> CognitoUtils.lookupUserEmail(cognitoClient, userPoolId, userId))
+                .forEach((userId, result) -> {
+                    if (result.failed()) {
+                        logger.error("Failed to fetch user {}: {}", userId, result.error().getMessage());
+                        failed.add(userId);
+                    } else {
+                        result.value().ifPresent(email -> {
+                            emails.put(userId, email);
+                            found.put(userId, email);
+                        });
+                    }
+                });
+        return new Emails(found, failed);
+    }
+}
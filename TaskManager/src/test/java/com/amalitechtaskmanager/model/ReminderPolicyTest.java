@@ -0,0 +1,54 @@
+package com.amalitechtaskmanager.model;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class ReminderPolicyTest {
+
+    @Test
+    public void keepsOffsetsLongestFirstWithoutDuplicates() {
+        ReminderPolicy policy = ReminderPolicy.parse("10m, 1d,24h ,1H");
+
+        assertEquals(List.of(Duration.ofDays(1), Duration.ofHours(1), Duration.ofMinutes(10)), policy.offsets());
+        assertEquals("1d,1h,10m", policy.toString());
+    }
+
+    @Test
+    public void rejectsMalformedPolicies() {
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse("h"));
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse("5s"));
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse("0m"));
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse("-1h"));
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse("31d"));
+        assertThrows(IllegalArgumentException.class, () -> ReminderPolicy.parse("1m,2m,3m,4m,5m,6m"));
+        assertFalse(ReminderPolicy.tryParse("soon").isPresent());
+    }
+
+    @Test
+    public void taskPolicyWinsOverTheDefault() {
+        Task task = new Task();
+        task.setReminderPolicy("2h");
+        assertEquals(List.of(Duration.ofHours(2)), ReminderPolicy.forTask(task).offsets());
+
+        task.setReminderPolicy("garbage");
+        assertEquals(ReminderPolicy.DEFAULT, ReminderPolicy.forTask(task));
+    }
+
+    @Test
+    public void firesOnlyTheRemindersStillAhead() {
+        OffsetDateTime deadline = OffsetDateTime.of(2025, 1, 31, 17, 0, 0, 0, ZoneOffset.UTC);
+        ReminderPolicy policy = ReminderPolicy.parse("1d,1h,10m");
+
+        assertEquals(List.of(deadline.minusHours(1), deadline.minusMinutes(10)),
+                policy.fireTimes(deadline, deadline.minusHours(2)));
+    }
+}
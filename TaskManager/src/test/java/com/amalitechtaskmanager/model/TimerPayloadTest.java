@@ -0,0 +1,72 @@
+package com.amalitechtaskmanager.model;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TimerPayloadTest {
+
+    @Test
+    public void roundTripsThroughTheEventDetail() {
+        TimerPayload payload = new TimerPayload("t1", 4L, TimerKind.EXPIRATION, 1738342800000L);
+
+        assertEquals(Optional.of(payload), TimerPayload.fromDetail(payload.toDetail(), TimerKind.REMINDER));
+    }
+
+    @Test
+    public void remindersCarryTheirOffsetBeforeTheDeadline() {
+        Task task = new Task();
+        task.setTaskId("t1");
+        task.setVersion(3L);
+        task.setDeadline(LocalDateTime.of(2025, 1, 31, 17, 0));
+
+        TimerPayload reminder = TimerPayload.of(task, TimerKind.REMINDER, 1738342800000L - 3_600_000L);
+
+        assertEquals(Long.valueOf(3_600_000L), reminder.offsetMillis());
+        assertEquals(Optional.of(reminder), TimerPayload.fromDetail(reminder.toDetail(), TimerKind.REMINDER));
+        assertNull(TimerPayload.of(task, TimerKind.EXPIRATION, 1738342800000L).offsetMillis());
+    }
+
+    @Test
+    public void decodesLegacyDetailsWithTheRoutedKindAndNoVersion() {
+        Map<String, Object> detail = new HashMap<>();
+        detail.put("taskId", "t1");
+        detail.put("name", "Legacy task image");
+
+        assertEquals(Optional.of(new TimerPayload("t1", null, TimerKind.REMINDER, 0L)),
+                TimerPayload.fromDetail(detail, TimerKind.REMINDER));
+    }
+
+    @Test
+    public void trustsTheRoutingForUnknownKinds() {
+        Map<String, Object> detail = Map.of("taskId", "t1", "kind", "ESCALATION", "version", 2);
+
+        assertEquals(TimerKind.EXPIRATION, TimerPayload.fromDetail(detail, TimerKind.EXPIRATION).get().kind());
+    }
+
+    @Test
+    public void needsATaskId() {
+        assertFalse(TimerPayload.fromDetail(null, TimerKind.REMINDER).isPresent());
+        assertFalse(TimerPayload.fromDetail(Map.of("taskId", ""), TimerKind.REMINDER).isPresent());
+        assertFalse(TimerPayload.fromDetail(Map.of("taskId", 7), TimerKind.REMINDER).isPresent());
+    }
+
+    @Test
+    public void readsBatchDetails() {
+        TimerPayload first = new TimerPayload("t1", 1L, TimerKind.REMINDER, 1000L);
+        TimerPayload second = new TimerPayload("t2", 2L, TimerKind.REMINDER, 2000L);
+        Map<String, Object> timers = Map.of("timers", List.of(first.toDetail(), Map.of("version", 3), second.toDetail()));
+
+        assertEquals(List.of(first, second), TimerPayload.listFromDetail(timers, TimerKind.REMINDER));
+        assertEquals(List.of(new TimerPayload("t3", null, TimerKind.REMINDER, 0L)),
+                TimerPayload.listFromDetail(Map.of("taskIds", List.of("t3", "")), TimerKind.REMINDER));
+    }
+}
@@ -0,0 +1,88 @@
+package com.amalitechtaskmanager.repository;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TaskFilterTest {
+
+    @Test
+    public void aliasesEveryAttributeAndNumbersValuesInClauseOrder() {
+        TaskFilter filter = TaskFilter.builder()
+                .eq(TaskItemCodec.STATUS, "OPEN")
+                .in(TaskItemCodec.USER_ID, List.of("u1", "u2"))
+                .beginsWith(TaskItemCodec.NAME, "Rep")
+                .build();
+
+        assertEquals("#a0 = :v0 AND #a1 IN (:v1, :v2) AND begins_with(#a2, :v3)", filter.expression());
+        assertEquals(Map.of("#a0", "status", "#a1", "userId", "#a2", "name"), filter.names());
+        assertEquals(Map.of(
+                ":v0", AttributeValue.fromS("OPEN"),
+                ":v1", AttributeValue.fromS("u1"),
+                ":v2", AttributeValue.fromS("u2"),
+                ":v3", AttributeValue.fromS("Rep")), filter.values());
+    }
+
+    @Test
+    public void reusesTheAliasOfARepeatedAttribute() {
+        TaskFilter filter = TaskFilter.builder()
+                .atLeast(TaskItemCodec.VERSION, AttributeValue.fromN("1"))
+                .atMost(TaskItemCodec.VERSION, AttributeValue.fromN("5"))
+                .build();
+
+        assertEquals("#a0 >= :v0 AND #a0 <= :v1", filter.expression());
+        assertEquals(Map.of("#a0", "version"), filter.names());
+    }
+
+    @Test
+    public void singleValueInIsEquality() {
+        TaskFilter filter = TaskFilter.builder().in(TaskItemCodec.USER_ID, List.of("u1")).build();
+
+        assertEquals("#a0 = :v0", filter.expression());
+    }
+
+    @Test
+    public void dateClausesFallBackToTheStringForUnmigratedItems() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        TaskFilter filter = TaskFilter.builder().dateFrom(TaskItemCodec.DEADLINE, from).build();
+
+        assertEquals("(#a1 >= :v0 OR (attribute_not_exists(#a1) AND #a0 >= :v1))", filter.expression());
+        assertEquals(Map.of("#a0", "deadline", "#a1", "deadlineEpoch"), filter.names());
+        assertEquals(TaskItemCodec.epochValue(from), filter.values().get(":v0"));
+        assertEquals(AttributeValue.fromS("2025-01-01T00:00:00"), filter.values().get(":v1"));
+    }
+
+    @Test
+    public void shapeIgnoresValues() {
+        TaskFilter first = TaskFilter.builder().eq(TaskItemCodec.STATUS, "OPEN").build();
+        TaskFilter second = TaskFilter.builder().eq(TaskItemCodec.STATUS, "EXPIRED").build();
+
+        assertEquals(first.shape(), second.shape());
+        assertEquals(first.expression(), second.expression());
+    }
+
+    @Test
+    public void rejectsAttributesOutsideTheWhitelist() {
+        assertThrows(IllegalArgumentException.class, () -> TaskFilter.builder().eq("password", "x"));
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskFilter.builder().dateFrom(TaskItemCodec.NAME, LocalDateTime.now()));
+        assertThrows(IllegalArgumentException.class, () -> TaskFilter.builder().in(TaskItemCodec.USER_ID, List.of()));
+    }
+
+    @Test
+    public void emptyFilterLeavesTheScanAlone() {
+        TaskFilter filter = TaskFilter.builder().build();
+
+        assertTrue(filter.isEmpty());
+        assertNull(filter.applyTo(ScanRequest.builder()).build().filterExpression());
+    }
+}
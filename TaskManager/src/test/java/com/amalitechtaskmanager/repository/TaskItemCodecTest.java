@@ -0,0 +1,83 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TaskStatus;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskItemCodecTest {
+
+    @Test
+    public void parsesCanonicalDatesPositionally() {
+        assertEquals(Optional.of(LocalDateTime.of(2025, 1, 31, 17, 5, 9)), TaskItemCodec.parseDate("2025-01-31T17:05:09"));
+    }
+
+    @Test
+    public void parsesLegacyIsoDates() {
+        assertEquals(Optional.of(LocalDateTime.of(2025, 1, 31, 17, 5)), TaskItemCodec.parseDate("2025-01-31T17:05"));
+        assertEquals(Optional.of(LocalDateTime.of(2025, 1, 31, 17, 5, 9, 123_000_000)),
+                TaskItemCodec.parseDate("2025-01-31T17:05:09.123"));
+    }
+
+    @Test
+    public void rejectsMalformedDates() {
+        assertFalse(TaskItemCodec.parseDate(null).isPresent());
+        assertFalse(TaskItemCodec.parseDate("").isPresent());
+        assertFalse(TaskItemCodec.parseDate("tomorrow").isPresent());
+        // Canonical layout, impossible date
+        assertFalse(TaskItemCodec.parseDate("2025-02-30T10:00:00").isPresent());
+        assertFalse(TaskItemCodec.parseDate("2025-01-31T1a:00:00").isPresent());
+    }
+
+    @Test
+    public void convertsEpochMillisBothWays() {
+        LocalDateTime date = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000);
+        assertEquals(-500L, TaskItemCodec.toEpochMillis(date));
+        assertEquals(date, TaskItemCodec.fromEpochMillis(-500L));
+    }
+
+    @Test
+    public void writesDatesWithTheirEpochCompanion() {
+        Task task = new Task();
+        task.setTaskId("t1");
+        task.setDeadline(LocalDateTime.of(2025, 1, 31, 17, 0));
+
+        Map<String, AttributeValue> item = TaskItemCodec.toItem(task);
+
+        assertEquals("2025-01-31T17:00:00", item.get(TaskItemCodec.DEADLINE).s());
+        assertEquals("1738342800000", item.get(TaskItemCodec.DEADLINE_EPOCH).n());
+        assertNull(item.get(TaskItemCodec.COMPLETED_AT));
+    }
+
+    @Test
+    public void prefersTheEpochCompanionOnRead() {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put(TaskItemCodec.TASK_ID, AttributeValue.fromS("t1"));
+        item.put(TaskItemCodec.STATUS, AttributeValue.fromS("completed"));
+        item.put(TaskItemCodec.DEADLINE, AttributeValue.fromS("2025-01-31T17:00:00"));
+        item.put(TaskItemCodec.DEADLINE_EPOCH, AttributeValue.fromN("1738346400000"));
+        item.put(TaskItemCodec.VERSION, AttributeValue.fromN("not a number"));
+
+        Task task = TaskItemCodec.fromItem(item);
+
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 31, 18, 0), task.getDeadline());
+        assertNull(task.getVersion());
+    }
+
+    @Test
+    public void knowsItsEpochAttributes() {
+        assertTrue(TaskItemCodec.isEpochAttribute(TaskItemCodec.CREATED_AT_EPOCH));
+        assertFalse(TaskItemCodec.isEpochAttribute(TaskItemCodec.CREATED_AT));
+    }
+}
@@ -0,0 +1,109 @@
+package com.amalitechtaskmanager.repository;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TaskQueryMergerTest {
+
+    @Test
+    public void mergesPartitionsInSortKeyOrder() {
+        FakeRepository repository = new FakeRepository();
+        repository.add("u1", "a", 10).add("u1", "b", 30);
+        repository.add("u2", "c", 20).add("u2", "d", 40);
+
+        TaskQueryMerger.Page page = new TaskQueryMerger(repository).query(queries(), null, 10);
+
+        assertEquals(List.of("a", "c", "b", "d"), taskIds(page));
+        assertNull(page.nextKeys());
+    }
+
+    @Test
+    public void continuesEveryPartitionFromTheLastItemTakenFromIt() {
+        FakeRepository repository = new FakeRepository();
+        repository.add("u1", "a", 10).add("u1", "b", 30).add("u1", "e", 50);
+        repository.add("u2", "c", 20).add("u2", "d", 40);
+        repository.add("u3", "f", 60);
+        TaskQueryMerger merger = new TaskQueryMerger(repository);
+
+        TaskQueryMerger.Page first = merger.query(queries(), null, 2);
+
+        assertEquals(List.of("a", "c"), taskIds(first));
+        assertEquals("a", first.nextKeys().get("u1").get(TaskItemCodec.TASK_ID).s());
+        assertEquals("c", first.nextKeys().get("u2").get(TaskItemCodec.TASK_ID).s());
+        // Nothing was taken from u3 yet, so it starts from the beginning
+        assertEquals(Map.of(), first.nextKeys().get("u3"));
+
+        TaskQueryMerger.Page second = merger.query(queries(), first.nextKeys(), 2);
+        assertEquals(List.of("b", "d"), taskIds(second));
+
+        TaskQueryMerger.Page third = merger.query(queries(), second.nextKeys(), 2);
+        assertEquals(List.of("e", "f"), taskIds(third));
+        assertNull(third.nextKeys());
+    }
+
+    @Test
+    public void leavesExhaustedPartitionsOutOfTheCursor() {
+        FakeRepository repository = new FakeRepository();
+        repository.add("u1", "a", 10);
+        repository.add("u2", "c", 20).add("u2", "d", 40);
+
+        TaskQueryMerger.Page page = new TaskQueryMerger(repository).query(queries(), null, 2);
+
+        assertEquals(List.of("a", "c"), taskIds(page));
+        assertEquals(List.of("u2"), new ArrayList<>(page.nextKeys().keySet()));
+    }
+
+    private static List<TaskQuery> queries() {
+        return List.of(TaskQuery.byAssignee("u1"), TaskQuery.byAssignee("u2"), TaskQuery.byAssignee("u3"));
+    }
+
+    private static List<String> taskIds(TaskQueryMerger.Page page) {
+        return page.items().stream().map(item -> item.get(TaskItemCodec.TASK_ID).s()).toList();
+    }
+
+    /**
+     * Serves each assignee's items in deadline order, resuming after the start key.
+     */
+    private static class FakeRepository extends TaskRepository {
+
+        private final Map<String, List<Map<String, AttributeValue>>> items = new HashMap<>();
+
+        FakeRepository() {
+            super(null, "Tasks");
+        }
+
+        FakeRepository add(String userId, String taskId, long deadline) {
+            items.computeIfAbsent(userId, ignored -> new ArrayList<>()).add(Map.of(
+                    TaskItemCodec.TASK_ID, AttributeValue.fromS(taskId),
+                    TaskItemCodec.USER_ID, AttributeValue.fromS(userId),
+                    TaskItemCodec.DEADLINE_EPOCH, AttributeValue.fromN(Long.toString(deadline))));
+            return this;
+        }
+
+        @Override
+        public TaskPage query(TaskQuery query) {
+            List<Map<String, AttributeValue>> partition = items.getOrDefault(query.getPartitionValue(), List.of());
+            int from = 0;
+            if (query.getStartKey() != null) {
+                String after = query.getStartKey().get(TaskItemCodec.TASK_ID).s();
+                while (!partition.get(from).get(TaskItemCodec.TASK_ID).s().equals(after)) {
+                    from++;
+                }
+                from++;
+            }
+            int to = Math.min(partition.size(), from + query.getLimit());
+            Map<String, AttributeValue> lastKey = to < partition.size()
+                    ? TaskRepository.keyOf(partition.get(to - 1), query.keyAttributes())
+                    : null;
+            return new TaskPage(partition.subList(from, to), lastKey);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.amalitechtaskmanager.repository;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amalitechtaskmanager.model.TaskStatus;
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class TaskUpdateBuilderTest {
+
+    @Test
+    public void guardsOnTheVersionTheTaskWasReadAt() {
+        UpdateItemRequest request = TaskUpdateBuilder.forTask(task(3L)).status(TaskStatus.COMPLETED).build("Tasks");
+
+        assertEquals("SET #s0 = :s0, #version = :nextVersion", request.updateExpression());
+        assertEquals("attribute_exists(#taskId) AND #version = :expectedVersion", request.conditionExpression());
+        assertEquals(AttributeValue.fromN("3"), request.expressionAttributeValues().get(":expectedVersion"));
+        assertEquals(AttributeValue.fromN("4"), request.expressionAttributeValues().get(":nextVersion"));
+        assertEquals(AttributeValue.fromS("COMPLETED"), request.expressionAttributeValues().get(":s0"));
+    }
+
+    @Test
+    public void matchesUnversionedItemsWithAttributeNotExists() {
+        UpdateItemRequest request = TaskUpdateBuilder.forTask(task(null)).userId("u2").build("Tasks");
+
+        assertEquals("attribute_exists(#taskId) AND attribute_not_exists(#version)", request.conditionExpression());
+        assertFalse(request.expressionAttributeValues().containsKey(":expectedVersion"));
+        assertEquals(AttributeValue.fromN("1"), request.expressionAttributeValues().get(":nextVersion"));
+    }
+
+    @Test
+    public void writesDatesWithTheirEpochCompanion() {
+        UpdateItemRequest request = TaskUpdateBuilder.forTask(task(1L))
+                .deadline(LocalDateTime.of(2025, 1, 31, 17, 0))
+                .build("Tasks");
+
+        assertEquals("SET #s0 = :s0, #s1 = :s1, #version = :nextVersion", request.updateExpression());
+        assertEquals("deadline", request.expressionAttributeNames().get("#s0"));
+        assertEquals("deadlineEpoch", request.expressionAttributeNames().get("#s1"));
+        assertEquals(AttributeValue.fromN("1738342800000"), request.expressionAttributeValues().get(":s1"));
+    }
+
+    @Test
+    public void removesBothAttributesOfAClearedDate() {
+        UpdateItemRequest request = TaskUpdateBuilder.forTask(task(1L))
+                .completedAt(LocalDateTime.of(2025, 1, 31, 17, 0))
+                .completedAt(null)
+                .build("Tasks");
+
+        assertEquals("SET #version = :nextVersion REMOVE #r0, #r1", request.updateExpression());
+        assertEquals("completed_at", request.expressionAttributeNames().get("#r0"));
+        assertEquals("completedAtEpoch", request.expressionAttributeNames().get("#r1"));
+    }
+
+    @Test
+    public void requiresATaskId() {
+        assertThrows(IllegalArgumentException.class, () -> TaskUpdateBuilder.forTask(new Task()));
+    }
+
+    private static Task task(Long version) {
+        Task task = new Task();
+        task.setTaskId("t1");
+        task.setVersion(version);
+        return task;
+    }
+}
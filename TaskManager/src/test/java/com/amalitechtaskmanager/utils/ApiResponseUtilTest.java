@@ -0,0 +1,25 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.factories.ObjectMapperFactory;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ApiResponseUtilTest {
+
+    @Test
+    public void errorBodyIsValidJsonForAnyMessage() throws Exception {
+        String message = "Unknown time zone 'a\"b'\nsecond line \\";
+
+        String body = ApiResponseUtil.errorBody(message);
+
+        assertEquals(Map.of("error", message), ObjectMapperFactory.getMapper().readValue(body, Map.class));
+    }
+
+    @Test
+    public void errorBodyKeepsANullMessage() {
+        assertEquals("{\"error\":null}", ApiResponseUtil.errorBody(null));
+    }
+}
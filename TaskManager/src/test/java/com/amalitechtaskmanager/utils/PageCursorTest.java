@@ -0,0 +1,68 @@
+package com.amalitechtaskmanager.utils;
+
+import org.junit.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class PageCursorTest {
+
+    private static final Map<String, AttributeValue> KEY = Map.of(
+            "taskId", AttributeValue.fromS("t1"),
+            "deadlineEpoch", AttributeValue.fromN("1738342800000"));
+
+    @Test
+    public void roundTripsAStartKey() {
+        assertEquals(KEY, PageCursor.decode(PageCursor.encode(KEY)));
+    }
+
+    @Test
+    public void hasNoCursorWithoutAStartKey() {
+        assertNull(PageCursor.encode(null));
+        assertNull(PageCursor.encode(Map.of()));
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    public void roundTripsCompositeKeysIncludingEmptyOnes() {
+        Map<String, Map<String, AttributeValue>> keys = new LinkedHashMap<>();
+        keys.put("OPEN", KEY);
+        keys.put("EXPIRED", Map.of());
+
+        assertEquals(keys, PageCursor.decodeComposite(PageCursor.encodeComposite(keys)));
+    }
+
+    @Test
+    public void rejectsATamperedPayload() {
+        String cursor = PageCursor.encode(KEY);
+        String tag = cursor.substring(cursor.indexOf('.'));
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"taskId\":{\"S\":\"t2\"}}".getBytes()) + tag;
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(forged));
+    }
+
+    @Test
+    public void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("no-separator"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("!!!.!!!"));
+        // A plain cursor does not decode as a composite one
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decodeComposite(PageCursor.encode(KEY)));
+    }
+
+    @Test
+    public void parsesTheLimit() {
+        assertEquals(PageCursor.DEFAULT_LIMIT, PageCursor.parseLimit(null));
+        assertEquals(50, PageCursor.parseLimit("50"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.parseLimit("0"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.parseLimit("101"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.parseLimit("ten"));
+    }
+}
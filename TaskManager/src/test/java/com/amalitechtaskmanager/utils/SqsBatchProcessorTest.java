@@ -0,0 +1,77 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class SqsBatchProcessorTest {
+
+    @Test
+    public void reportsOnlyTheMessagesThatFailed() {
+        SQSMessage ok = message(null, "ok");
+        SQSMessage bad = message(null, "bad");
+
+        SQSBatchResponse response = SqsBatchProcessor.process(List.of(ok, bad), failingOn("bad"));
+
+        assertEquals(List.of(bad.getMessageId()), failedIds(response));
+    }
+
+    @Test
+    public void failsTheRestOfAGroupAfterAFailure() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        SQSMessage first = message("g1", "first");
+        SQSMessage bad = message("g1", "bad");
+        SQSMessage after = message("g1", "after");
+        SQSMessage other = message("g2", "other");
+
+        SQSBatchResponse response = SqsBatchProcessor.process(List.of(first, bad, after, other), message -> {
+            handled.add(message.getBody());
+            failingOn("bad").handle(message);
+        });
+
+        assertEquals(List.of(bad.getMessageId(), after.getMessageId()), failedIds(response));
+        // Groups run concurrently, so only the set of handled messages is fixed
+        assertEquals(Set.of("first", "bad", "other"), new HashSet<>(handled));
+    }
+
+    @Test
+    public void skipsMessagesAlreadyProcessed() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        SQSMessage message = message(null, "once");
+
+        SqsBatchProcessor.process(List.of(message, message), received -> handled.add(received.getBody()));
+        SqsBatchProcessor.process(List.of(message), received -> handled.add(received.getBody()));
+
+        assertEquals(List.of("once"), handled);
+    }
+
+    private static SqsBatchProcessor.MessageHandler failingOn(String body) {
+        return message -> {
+            if (body.equals(message.getBody())) {
+                throw new IllegalStateException("failed " + body);
+            }
+        };
+    }
+
+    private static SQSMessage message(String group, String body) {
+        SQSMessage message = new SQSMessage();
+        message.setMessageId(UUID.randomUUID().toString());
+        message.setBody(body);
+        message.setAttributes(group == null ? Map.of() : Map.of("MessageGroupId", group));
+        return message;
+    }
+
+    private static List<String> failedIds(SQSBatchResponse response) {
+        return response.getBatchItemFailures().stream().map(SQSBatchResponse.BatchItemFailure::getItemIdentifier).toList();
+    }
+}
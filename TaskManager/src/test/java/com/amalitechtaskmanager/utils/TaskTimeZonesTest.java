@@ -0,0 +1,64 @@
+package com.amalitechtaskmanager.utils;
+
+import com.amalitechtaskmanager.model.Task;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class TaskTimeZonesTest {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    public void readsZoneLessDatesInTheGivenZone() {
+        assertEquals(LocalDateTime.of(2025, 1, 31, 16, 0), TaskTimeZones.toUtc("2025-01-31T17:00:00", BERLIN));
+        assertEquals(LocalDateTime.of(2025, 7, 31, 15, 0), TaskTimeZones.toUtc("2025-07-31T17:00:00", BERLIN));
+    }
+
+    @Test
+    public void takesAnOffsetAsIs() {
+        assertEquals(LocalDateTime.of(2025, 1, 31, 12, 0), TaskTimeZones.toUtc("2025-01-31T17:00:00+05:00", BERLIN));
+    }
+
+    @Test
+    public void rejectsUnknownZonesAndDates() {
+        assertThrows(IllegalArgumentException.class, () -> TaskTimeZones.parse("Mars/Olympus"));
+        assertThrows(IllegalArgumentException.class, () -> TaskTimeZones.toUtc("tomorrow", BERLIN));
+    }
+
+    @Test
+    public void rendersStoredDatesInTheRequesterZone() {
+        assertEquals("2025-01-31T17:00:00+01:00", TaskTimeZones.render(LocalDateTime.of(2025, 1, 31, 16, 0), BERLIN));
+    }
+
+    @Test
+    public void describesTheDeadlineInTheTaskZone() {
+        Task task = new Task();
+        task.setDeadline(LocalDateTime.of(2025, 1, 31, 16, 0));
+        task.setTimeZone("Europe/Berlin");
+        assertEquals("2025-01-31T17:00:00+01:00 (Europe/Berlin)", TaskTimeZones.describeDeadline(task));
+
+        task.setTimeZone("nowhere");
+        assertEquals(ZoneOffset.UTC, TaskTimeZones.zoneOf(task));
+    }
+
+    @Test
+    public void readsTheZoneFromTheQueryOrAnyCasingOfTheHeader() {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent()
+                .withHeaders(Map.of("x-time-zone", "Europe/Berlin"));
+        assertEquals(Optional.of(BERLIN), TaskTimeZones.fromRequest(request));
+
+        request.setQueryStringParameters(Map.of("tz", "+02:00"));
+        assertEquals(Optional.of(ZoneOffset.ofHours(2)), TaskTimeZones.fromRequest(request));
+
+        assertEquals(Optional.empty(), TaskTimeZones.fromRequest(new APIGatewayProxyRequestEvent()));
+    }
+}